@@ -26,130 +26,232 @@ package ikvm.internal;
 import cli.System.GC;
 import cli.System.WeakReference;
 
+// This is a hashed identity map with weak keys. It is split into a number of
+// independently locked segments, so that concurrent lookups on different keys
+// don't contend on a single lock. Slots whose key has been collected are reused
+// by put and purged when a segment is rehashed, so we never need to induce a GC.
 @ikvm.lang.Internal
 public final class WeakIdentityMap
 {
-    private WeakReference[] keys = new WeakReference[16];
-    private Object[] values = new Object[keys.length];
+    private static final int SEGMENT_SHIFT = 4;
+    private static final int SEGMENT_COUNT = 1 << SEGMENT_SHIFT;
+    private final Segment[] segments = new Segment[SEGMENT_COUNT];
 
     public WeakIdentityMap()
     {
-        for (int i = 0; i < keys.length; i++)
+        for (int i = 0; i < segments.length; i++)
         {
-            keys[i] = new WeakReference(null, true);
-            // NOTE we suppress finalization, to make sure the WeakReference continues to work
-            // while the AppDomain is finalizing for unload (note that for this to work,
-            // the code that instantiates us also has to call SuppressFinalize on us.)
-            GC.SuppressFinalize(keys[i]);
+            segments[i] = new Segment();
         }
     }
 
     protected void finalize()
     {
-        for (int i = 0; i < keys.length; i++)
+        for (int i = 0; i < segments.length; i++)
         {
-            if (keys[i] != null)
-            {
-                GC.ReRegisterForFinalize(keys[i]);
-            }
+            segments[i].finalizeKeys();
         }
     }
 
-    public synchronized Object remove(Object key)
+    private static int hash(Object key)
     {
-        for (int i = 0; i < keys.length; i++)
-        {
-            if (keys[i].get_Target() == key)
-            {
-		Object value = values[i];
-		keys[i].set_Target(null);
-		values[i] = null;
-                return value;
-            }
-        }
-        return null;
+        int h = System.identityHashCode(key);
+        return h ^ (h >>> 16);
+    }
+
+    private Segment segmentFor(int hash)
+    {
+        // the CLR identity hash code only has 26 significant bits, so we multiply
+        // (by the golden ratio) to spread all of them into the top bits that select the segment
+        return segments[(hash * 0x9E3779B9) >>> (32 - SEGMENT_SHIFT)];
+    }
+
+    public Object remove(Object key)
+    {
+        int hash = hash(key);
+        return segmentFor(hash).remove(key, hash);
     }
 
     // Note that null values are supported, null keys are not
-    public synchronized void put(Object key, Object value)
+    public void put(Object key, Object value)
     {
         if (key == null)
             throw new NullPointerException();
-        putImpl(key, value, true);
+        int hash = hash(key);
+        segmentFor(hash).put(key, hash, value);
     }
 
-    private void putImpl(Object key, Object value, boolean tryGC)
+    public Object get(Object key)
     {
-        int emptySlot = -1;
-        int keySlot = -1;
-        for (int i = 0; i < keys.length; i++)
+        int hash = hash(key);
+        Segment segment = segmentFor(hash);
+        synchronized (segment)
         {
-            Object k = keys[i].get_Target();
-            if (k == null)
-            {
-                emptySlot = i;
-                values[i] = null;
-            }
-            else if (k == key)
-            {
-                keySlot = i;
-            }
+            int i = segment.find(key, hash);
+            return i == -1 ? null : segment.values[i];
         }
-        if (keySlot != -1)
+    }
+
+    public boolean containsKey(Object key)
+    {
+        int hash = hash(key);
+        Segment segment = segmentFor(hash);
+        synchronized (segment)
         {
-            values[keySlot] = value;
+            return segment.find(key, hash) != -1;
         }
-        else if (emptySlot != -1)
+    }
+
+    private static WeakReference newWeakReference(Object key)
+    {
+        WeakReference ref = new WeakReference(key, true);
+        // NOTE we suppress finalization, to make sure the WeakReference continues to work
+        // while the AppDomain is finalizing for unload (note that for this to work,
+        // the code that instantiates us also has to call SuppressFinalize on us.)
+        GC.SuppressFinalize(ref);
+        return ref;
+    }
+
+    private static void releaseWeakReference(WeakReference ref)
+    {
+        // the WeakReference is no longer reachable from the map, so we let its finalizer free the handle
+        ref.set_Target(null);
+        GC.ReRegisterForFinalize(ref);
+    }
+
+    // A slot with a null WeakReference has never been used and terminates a probe sequence,
+    // a slot with a WeakReference whose target is null is stale (collected or removed) and can be reused.
+    private static final class Segment
+    {
+        WeakReference[] keys = new WeakReference[8];
+        Object[] values = new Object[keys.length];
+        int[] hashes = new int[keys.length];
+        // number of slots that have a WeakReference (including stale ones)
+        int used;
+
+        int find(Object key, int hash)
+        {
+            int mask = keys.length - 1;
+            for (int i = hash & mask; ; i = (i + 1) & mask)
+            {
+                WeakReference ref = keys[i];
+                if (ref == null)
+                {
+                    return -1;
+                }
+                if (hashes[i] == hash && ref.get_Target() == key)
+                {
+                    return i;
+                }
+            }
+        }
+
+        synchronized Object remove(Object key, int hash)
         {
-            keys[emptySlot].set_Target(key);
-            values[emptySlot] = value;
+            int i = find(key, hash);
+            if (i == -1)
+            {
+                return null;
+            }
+            Object value = values[i];
+            keys[i].set_Target(null);
+            values[i] = null;
+            return value;
         }
-        else
+
+        synchronized void put(Object key, int hash, Object value)
         {
-            if (tryGC)
+            int mask = keys.length - 1;
+            int staleSlot = -1;
+            int i = hash & mask;
+            for (; ; i = (i + 1) & mask)
             {
-                GC.Collect(0);
-                putImpl(key, value, false);
+                WeakReference ref = keys[i];
+                if (ref == null)
+                {
+                    break;
+                }
+                Object k = ref.get_Target();
+                if (k == key)
+                {
+                    values[i] = value;
+                    return;
+                }
+                if (k == null && staleSlot == -1)
+                {
+                    staleSlot = i;
+                }
+            }
+            if (staleSlot != -1)
+            {
+                keys[staleSlot].set_Target(key);
+                hashes[staleSlot] = hash;
+                values[staleSlot] = value;
                 return;
             }
-            int len = keys.length;
-            WeakReference[] newkeys = new WeakReference[len * 2];
-            Object[] newvalues = new Object[newkeys.length];
-            cli.System.Array.Copy((cli.System.Array)(Object)keys, (cli.System.Array)(Object)newkeys, len);
-            cli.System.Array.Copy((cli.System.Array)(Object)values, (cli.System.Array)(Object)newvalues, len);
-            keys = newkeys;
-            values = newvalues;
-            for (int i = len; i < keys.length; i++)
+            keys[i] = newWeakReference(key);
+            hashes[i] = hash;
+            values[i] = value;
+            // keep the load factor (including stale slots) at or below 3/4, so that probe sequences stay short
+            if (++used > (keys.length >> 2) * 3)
             {
-                keys[i] = new WeakReference(null, true);
-                GC.SuppressFinalize(keys[i]);
+                rehash();
             }
-            keys[len].set_Target(key);
-            values[len] = value;
         }
-    }
 
-    public synchronized Object get(Object key)
-    {
-        for (int i = 0; i < keys.length; i++)
+        private void rehash()
         {
-            if (keys[i].get_Target() == key)
+            WeakReference[] oldkeys = keys;
+            Object[] oldvalues = values;
+            int[] oldhashes = hashes;
+            int live = 0;
+            for (int i = 0; i < oldkeys.length; i++)
+            {
+                if (oldkeys[i] != null && oldkeys[i].get_Target() != null)
+                {
+                    live++;
+                }
+            }
+            // only grow if purging the stale slots doesn't free up enough space
+            int len = live >= oldkeys.length >> 1 ? oldkeys.length * 2 : oldkeys.length;
+            keys = new WeakReference[len];
+            values = new Object[len];
+            hashes = new int[len];
+            used = 0;
+            int mask = len - 1;
+            for (int i = 0; i < oldkeys.length; i++)
             {
-                return values[i];
+                WeakReference ref = oldkeys[i];
+                if (ref == null)
+                {
+                    continue;
+                }
+                if (ref.get_Target() == null)
+                {
+                    releaseWeakReference(ref);
+                    continue;
+                }
+                int j = oldhashes[i] & mask;
+                while (keys[j] != null)
+                {
+                    j = (j + 1) & mask;
+                }
+                keys[j] = ref;
+                hashes[j] = oldhashes[i];
+                values[j] = oldvalues[i];
+                used++;
             }
         }
-        return null;
-    }
 
-    public synchronized boolean containsKey(Object key)
-    {
-        for (int i = 0; i < keys.length; i++)
+        void finalizeKeys()
         {
-            if (keys[i].get_Target() == key)
+            for (int i = 0; i < keys.length; i++)
             {
-                return true;
+                if (keys[i] != null)
+                {
+                    GC.ReRegisterForFinalize(keys[i]);
+                }
             }
         }
-        return false;
     }
 }
@@ -24,6 +24,8 @@
 using System;
 using System.Collections.Generic;
 using System.IO;
+using System.Security.Cryptography;
+using System.Text;
 using System.Text.RegularExpressions;
 using System.Threading;
 using ICSharpCode.SharpZipLib.Zip;
@@ -178,6 +180,8 @@ sealed class IkvmcCompiler
 	private static string runtimeAssembly;
 	private static bool nostdlib;
 	private static bool nonDeterministicOutput;
+	private static bool incremental;
+	private static readonly Dictionary<string, string> previousSuppressWarnings = new Dictionary<string, string>();
 	private static readonly List<string> libpaths = new List<string>();
 	internal static readonly AssemblyResolver resolver = new AssemblyResolver();
 
@@ -315,9 +319,27 @@ sealed class IkvmcCompiler
 		{
 			return 1;
 		}
+		Dictionary<CompilerOptions, string> buildStamps = null;
+		if (incremental)
+		{
+			buildStamps = ComputeBuildStamps(targets);
+			targets = GetOutOfDateTargets(targets, buildStamps);
+			if (targets.Count == 0)
+			{
+				return 0;
+			}
+		}
 		try
 		{
-			return CompilerClassLoader.Compile(runtimeAssembly, targets);
+			int rc = CompilerClassLoader.Compile(runtimeAssembly, targets);
+			if (rc == 0 && buildStamps != null)
+			{
+				foreach (CompilerOptions target in targets)
+				{
+					File.WriteAllText(GetBuildStampPath(target), buildStamps[target]);
+				}
+			}
+			return rc;
 		}
 		catch (FileFormatLimitationExceededException x)
 		{
@@ -325,6 +347,236 @@ sealed class IkvmcCompiler
 		}
 	}
 
+	// Every target has its own build stamp, which is a hash of everything that goes into its output: the compiler
+	// and runtime, the command line arguments that apply to the target, the contents of its input class files and
+	// resources, of its referenced assemblies and of all files named by its options (remap file, key file, etc.)
+	// A target that references other targets (of the same invocation) also includes their inputs, so a change
+	// only affects the targets that (transitively) reference the target that changed.
+	// Since the output is deterministic (unless -debug or -target:module is used), a rebuild of an
+	// unchanged referenced assembly doesn't invalidate the assemblies that reference it.
+	private static Dictionary<CompilerOptions, string> ComputeBuildStamps(List<CompilerOptions> targets)
+	{
+		string[] inputs = new string[targets.Count];
+		for (int i = 0; i < targets.Count; i++)
+		{
+			inputs[i] = ComputeInputHash(targets[i]);
+		}
+		Dictionary<CompilerOptions, string> stamps = new Dictionary<CompilerOptions, string>();
+		for (int i = 0; i < targets.Count; i++)
+		{
+			bool[] reachable = new bool[targets.Count];
+			reachable[i] = true;
+			MarkReferencedTargets(targets, i, reachable);
+			using (SHA256 sha = SHA256.Create())
+			{
+				for (int j = 0; j < targets.Count; j++)
+				{
+					if (reachable[j])
+					{
+						HashString(sha, inputs[j]);
+					}
+				}
+				stamps.Add(targets[i], GetHash(sha));
+			}
+		}
+		return stamps;
+	}
+
+	private static void MarkReferencedTargets(List<CompilerOptions> targets, int index, bool[] reachable)
+	{
+		for (int i = 0; i < targets.Count; i++)
+		{
+			if (!reachable[i] && ReferencesPeer(targets[index], targets[i]))
+			{
+				reachable[i] = true;
+				MarkReferencedTargets(targets, i, reachable);
+			}
+		}
+	}
+
+	// this mirrors the way CompilerClassLoader.Compile adds the references between the targets
+	private static bool ReferencesPeer(CompilerOptions target, CompilerOptions peer)
+	{
+		return target != peer
+			&& (target.crossReferenceAllPeers || (target.peerReferences != null && Array.IndexOf(target.peerReferences, peer.assembly) != -1));
+	}
+
+	private static string ComputeInputHash(CompilerOptions target)
+	{
+		using (SHA256 sha = SHA256.Create())
+		{
+			HashFile(sha, typeof(IkvmcCompiler).Assembly.Location);
+			HashFile(sha, runtimeAssembly ?? Path.Combine(Path.GetDirectoryName(typeof(IkvmcCompiler).Assembly.Location), "IKVM.Runtime.dll"));
+			foreach (string arg in target.commandLine)
+			{
+				HashString(sha, arg);
+				int colon = arg.IndexOf(':');
+				if (arg.StartsWith("-out:") || arg.StartsWith("-writeSuppressWarningsFile:"))
+				{
+					// the contents of output files (which the build itself writes) are not inputs
+				}
+				else if (arg.StartsWith("-resource:") || arg.StartsWith("-externalresource:"))
+				{
+					// the argument is <name>=<path>
+					string[] spec = arg.Substring(colon + 1).Split('=');
+					if (spec.Length == 2)
+					{
+						HashFile(sha, spec[1]);
+					}
+				}
+				else if (arg.StartsWith("-") && colon != -1)
+				{
+					HashFile(sha, arg.Substring(colon + 1));
+				}
+			}
+			foreach (Jar jar in target.jars)
+			{
+				HashString(sha, jar.Name);
+				foreach (Jar.Item item in jar)
+				{
+					HashString(sha, item.Name);
+					byte[] data = item.GetData();
+					if (data != null)
+					{
+						HashBytes(sha, data);
+					}
+				}
+			}
+			if (target.references != null)
+			{
+				foreach (Assembly asm in target.references)
+				{
+					HashFile(sha, asm.Location);
+				}
+			}
+			return GetHash(sha);
+		}
+	}
+
+	private static string GetHash(SHA256 sha)
+	{
+		sha.TransformFinalBlock(new byte[0], 0, 0);
+		return BitConverter.ToString(sha.Hash).Replace("-", "");
+	}
+
+	private static void HashString(SHA256 sha, string str)
+	{
+		HashBytes(sha, Encoding.UTF8.GetBytes(str));
+	}
+
+	private static void HashBytes(SHA256 sha, byte[] buf)
+	{
+		// include the length, to make sure that different splits of the same bytes hash differently
+		byte[] len = BitConverter.GetBytes(buf.Length);
+		sha.TransformBlock(len, 0, len.Length, null, 0);
+		sha.TransformBlock(buf, 0, buf.Length, null, 0);
+	}
+
+	private static void HashFile(SHA256 sha, string path)
+	{
+		try
+		{
+			if (File.Exists(path))
+			{
+				HashString(sha, path);
+				HashBytes(sha, File.ReadAllBytes(path));
+			}
+		}
+		catch (ArgumentException)
+		{
+			// not a valid path
+		}
+		catch (NotSupportedException)
+		{
+			// not a valid path
+		}
+	}
+
+	private static string GetBuildStampPath(CompilerOptions target)
+	{
+		return target.path.FullName + ".ikvmcstamp";
+	}
+
+	private static bool IsUpToDate(CompilerOptions target, string buildStamp)
+	{
+		if (target.path == null)
+		{
+			// the output file name will be derived from the input (after we've looked for a main class)
+			return false;
+		}
+		string stampPath = GetBuildStampPath(target);
+		return File.Exists(target.path.FullName) && File.Exists(stampPath) && File.ReadAllText(stampPath) == buildStamp;
+	}
+
+	// Returns the targets that have to be compiled, the others are reported as up to date. Targets that share a
+	// class loader or a suppress warnings file are only compiled together. The up to date targets that are
+	// referenced by a target that is compiled are referenced through their existing output file.
+	private static List<CompilerOptions> GetOutOfDateTargets(List<CompilerOptions> targets, Dictionary<CompilerOptions, string> buildStamps)
+	{
+		List<CompilerOptions> compile = new List<CompilerOptions>();
+		foreach (CompilerOptions target in targets)
+		{
+			if (!IsUpToDate(target, buildStamps[target]))
+			{
+				compile.Add(target);
+			}
+		}
+		for (int i = 0; i < compile.Count; i++)
+		{
+			foreach (CompilerOptions peer in targets)
+			{
+				if (!compile.Contains(peer)
+					&& (IsSameGroup(compile[i], peer) || (peer.sharedclassloader != null && ReferencesPeer(compile[i], peer))))
+				{
+					compile.Add(peer);
+				}
+			}
+		}
+		List<CompilerOptions> outOfDate = new List<CompilerOptions>();
+		foreach (CompilerOptions target in targets)
+		{
+			if (compile.Contains(target))
+			{
+				outOfDate.Add(target);
+			}
+			else
+			{
+				StaticCompiler.IssueMessage(target, Message.OutputIsUpToDate, target.path.ToString());
+				if (target.writeSuppressWarningsFile != null)
+				{
+					// we don't compile this target, so the suppress warnings file written by the previous build still applies
+					string contents;
+					if (previousSuppressWarnings.TryGetValue(target.writeSuppressWarningsFile.FullName, out contents))
+					{
+						File.WriteAllText(target.writeSuppressWarningsFile.FullName, contents);
+					}
+				}
+			}
+		}
+		Dictionary<string, Assembly> cache = new Dictionary<string, Assembly>();
+		foreach (CompilerOptions target in outOfDate)
+		{
+			foreach (CompilerOptions peer in targets)
+			{
+				if (!compile.Contains(peer) && ReferencesPeer(target, peer))
+				{
+					if (!resolver.ResolveReference(cache, ref target.references, peer.path.FullName))
+					{
+						throw new FatalCompilerErrorException(Message.ReferenceNotFound, peer.path.FullName);
+					}
+				}
+			}
+		}
+		return outOfDate;
+	}
+
+	private static bool IsSameGroup(CompilerOptions target1, CompilerOptions target2)
+	{
+		return (target1.sharedclassloader != null && target1.sharedclassloader == target2.sharedclassloader)
+			|| (target1.writeSuppressWarningsFile != null && target2.writeSuppressWarningsFile != null
+				&& target1.writeSuppressWarningsFile.FullName == target2.writeSuppressWarningsFile.FullName);
+	}
+
 	static void loader_Warning(AssemblyResolver.WarningId warning, string message, string[] parameters)
 	{
 		switch (warning)
@@ -513,6 +765,11 @@ sealed class IkvmcCompiler
 		Console.Error.WriteLine("-privatepackage:<prefix>       Mark all classes with a package name starting");
 		Console.Error.WriteLine("                               with <prefix> as internal to the assembly");
 		Console.Error.WriteLine("-time                          Display timing statistics");
+#if NET_4_0
+		Console.Error.WriteLine("-parallel:<n>                  Parse class files on up to <n> threads");
+#endif
+		Console.Error.WriteLine("-incremental                   Only compile the targets whose inputs have");
+		Console.Error.WriteLine("                               changed since the last incremental build");
 		Console.Error.WriteLine("-classloader:<class>           Set custom class loader class for assembly");
 		Console.Error.WriteLine("-sharedclassloader             All targets below this level share a common");
 		Console.Error.WriteLine("                               class loader");
@@ -543,6 +800,10 @@ sealed class IkvmcCompiler
 		while(arglist.MoveNext())
 		{
 			string s = arglist.Current;
+			if(s != "{" && s != "}")
+			{
+				options.commandLine.Add(s);
+			}
 			if(s == "{")
 			{
 				if (!nonleaf)
@@ -898,6 +1159,22 @@ sealed class IkvmcCompiler
 				{
 					time = true;
 				}
+				else if(s == "-incremental")
+				{
+					// this is a global option
+					incremental = true;
+				}
+#if NET_4_0
+				else if(s.StartsWith("-parallel:"))
+				{
+					int parallel;
+					if (!Int32.TryParse(s.Substring(10), out parallel) || parallel < 1)
+					{
+						throw new FatalCompilerErrorException(Message.InvalidOptionSyntax, s);
+					}
+					options.parallel = parallel;
+				}
+#endif
 				else if(s.StartsWith("-classloader:"))
 				{
 					options.classLoader = s.Substring(13);
@@ -963,6 +1240,11 @@ sealed class IkvmcCompiler
 					options.writeSuppressWarningsFile = GetFileInfo(s.Substring(27));
 					try
 					{
+						if(options.writeSuppressWarningsFile.Exists)
+						{
+							// keep the old contents, so that we can put them back if the build turns out to be up to date (see -incremental)
+							previousSuppressWarnings[options.writeSuppressWarningsFile.FullName] = File.ReadAllText(options.writeSuppressWarningsFile.FullName);
+						}
 						options.writeSuppressWarningsFile.Delete();
 					}
 					catch(Exception x)
@@ -31,6 +31,9 @@ using System.Diagnostics;
 using System.Text.RegularExpressions;
 using System.Text;
 using System.Threading;
+#if NET_4_0
+using System.Threading.Tasks;
+#endif
 using System.Security.Permissions;
 using System.Security;
 using System.Runtime.CompilerServices;
@@ -45,6 +48,7 @@ namespace IKVM.Internal
 	sealed class CompilerClassLoader : ClassLoaderWrapper
 	{
 		private Dictionary<string, Jar.Item> classes;
+		private Dictionary<string, ParsedClass> parsedClasses;
 		private Dictionary<string, RemapperTypeWrapper> remapped = new Dictionary<string, RemapperTypeWrapper>();
 		private string assemblyName;
 		private string assemblyFile;
@@ -277,16 +281,26 @@ namespace IKVM.Internal
 				{
 					classes.Remove(name);
 					ClassFile f;
-					try
+					ParsedClass parsed;
+					if(parsedClasses != null && parsedClasses.TryGetValue(name, out parsed))
 					{
-						byte[] buf = itemRef.GetData();
-						f = new ClassFile(buf, 0, buf.Length, name, ClassFileParseOptions, null);
+						parsedClasses.Remove(name);
+						StaticCompiler.IssueDeferredMessages(parsed.messages);
+						f = parsed.classFile;
 					}
-					catch(ClassFormatError x)
+					else
 					{
-						StaticCompiler.SuppressWarning(options, Message.ClassNotFound, name);
-						StaticCompiler.IssueMessage(options, Message.ClassFormatError, name, x.Message);
-						return null;
+						try
+						{
+							byte[] buf = itemRef.GetData();
+							f = new ClassFile(buf, 0, buf.Length, name, ClassFileParseOptions, null);
+						}
+						catch(ClassFormatError x)
+						{
+							StaticCompiler.SuppressWarning(options, Message.ClassNotFound, name);
+							StaticCompiler.IssueMessage(options, Message.ClassFormatError, name, x.Message);
+							return null;
+						}
 					}
 					if(f.Name != name)
 					{
@@ -2972,6 +2986,12 @@ namespace IKVM.Internal
 			{
 				FakeTypes.Create(GetTypeWrapperFactory().ModuleBuilder, this);
 			}
+#if NET_4_0
+			if(options.parallel > 1)
+			{
+				ParseClassFiles();
+			}
+#endif
 			allwrappers = new List<TypeWrapper>();
 			foreach(string s in classesToCompile)
 			{
@@ -2996,6 +3016,80 @@ namespace IKVM.Internal
 			}
 		}
 
+		private sealed class ParsedClass
+		{
+			internal readonly ClassFile classFile;
+			internal readonly List<StaticCompiler.DeferredMessage> messages;
+
+			internal ParsedClass(ClassFile classFile, List<StaticCompiler.DeferredMessage> messages)
+			{
+				this.classFile = classFile;
+				this.messages = messages;
+			}
+		}
+
+#if NET_4_0
+		// Parses the class files (and inlines the JSR subroutines) on multiple threads. Everything else
+		// (loading, verification and emitting the types) still happens on the compiler thread, because
+		// that requires the class loader and the type builders. Class files that fail to parse are
+		// left alone here, so that the error is reported in the normal way when the class is loaded.
+		// The messages issued while parsing a class are buffered and issued when the class is loaded,
+		// so that they are reported in the same order (and subject to the same suppression) as
+		// when the class files are parsed on the compiler thread.
+		private void ParseClassFiles()
+		{
+			Tracer.Info(Tracer.Compiler, "Parsing class files on {0} threads", options.parallel);
+			List<KeyValuePair<string, Jar.Item>> items = new List<KeyValuePair<string, Jar.Item>>(classes);
+			ParsedClass[] parsed = new ParsedClass[items.Count];
+			ClassFileParseOptions parseOptions = ClassFileParseOptions;
+			ParallelOptions parallelOptions = new ParallelOptions();
+			parallelOptions.MaxDegreeOfParallelism = options.parallel;
+			Parallel.For(0, items.Count, parallelOptions, delegate(int i)
+			{
+				byte[] buf = items[i].Value.GetData();
+				if(buf == null)
+				{
+					return;
+				}
+				List<StaticCompiler.DeferredMessage> messages = new List<StaticCompiler.DeferredMessage>();
+				StaticCompiler.DeferMessages(messages);
+				try
+				{
+					ClassFile f = new ClassFile(buf, 0, buf.Length, items[i].Key, parseOptions, null);
+					if(f.MajorVersion < 51)
+					{
+						foreach(ClassFile.Method m in f.Methods)
+						{
+							if(m.HasJsr)
+							{
+								JsrInliner.InlineJsrs(f, m);
+							}
+						}
+					}
+					parsed[i] = new ParsedClass(f, messages);
+				}
+				catch(ClassFormatError)
+				{
+				}
+				catch(VerifyError)
+				{
+				}
+				finally
+				{
+					StaticCompiler.DeferMessages(null);
+				}
+			});
+			parsedClasses = new Dictionary<string, ParsedClass>();
+			for(int i = 0; i < parsed.Length; i++)
+			{
+				if(parsed[i] != null)
+				{
+					parsedClasses.Add(items[i].Key, parsed[i]);
+				}
+			}
+		}
+#endif
+
 		private void CompilePass2()
 		{
 			Tracer.Info(Tracer.Compiler, "Compiling class files (2)");
@@ -3503,12 +3597,15 @@ namespace IKVM.Internal
 		internal object[] assemblyAttributeAnnotations;
 		internal bool warningLevelHigh;
 		internal bool noParameterReflection;
+		internal int parallel = 1;
+		internal List<string> commandLine = new List<string>();	// the arguments that apply to this target (see ikvmc -incremental)
 
 		internal CompilerOptions Copy()
 		{
 			CompilerOptions copy = (CompilerOptions)MemberwiseClone();
 			copy.jars = Copy(jars);
 			copy.jarMap = new Dictionary<string, int>(jarMap);
+			copy.commandLine = new List<string>(commandLine);
 			if (props != null)
 			{
 				copy.props = new Dictionary<string, string>(props);
@@ -3614,6 +3711,7 @@ namespace IKVM.Internal
 		OutputFileIs = 2,
 		AutoAddRef = 3,
 		MainMethodFromManifest = 4,
+		OutputIsUpToDate = 5,
 		// This is were the warnings start
 		StartWarnings = 100,
 		ClassNotFound = 100,
@@ -3742,6 +3840,23 @@ namespace IKVM.Internal
 		internal static Assembly runtimeJniAssembly;
 		internal static CompilerOptions toplevel;
 		internal static int errorCount;
+		// see CompilerClassLoader.ParseClassFiles
+		[ThreadStatic]
+		private static List<DeferredMessage> deferredMessages;
+
+		internal sealed class DeferredMessage
+		{
+			internal readonly CompilerOptions options;
+			internal readonly Message msgId;
+			internal readonly string[] values;
+
+			internal DeferredMessage(CompilerOptions options, Message msgId, string[] values)
+			{
+				this.options = options;
+				this.msgId = msgId;
+				this.values = values;
+			}
+		}
 
 		internal static Universe Universe
 		{
@@ -3845,8 +3960,26 @@ namespace IKVM.Internal
 			IssueMessage(toplevel, msgId, values);
 		}
 
+		internal static void DeferMessages(List<DeferredMessage> list)
+		{
+			deferredMessages = list;
+		}
+
+		internal static void IssueDeferredMessages(List<DeferredMessage> list)
+		{
+			foreach (DeferredMessage msg in list)
+			{
+				IssueMessage(msg.options, msg.msgId, msg.values);
+			}
+		}
+
 		internal static void IssueMessage(CompilerOptions options, Message msgId, params string[] values)
 		{
+			if (deferredMessages != null)
+			{
+				deferredMessages.Add(new DeferredMessage(options, msgId, values));
+				return;
+			}
 			if (errorCount != 0 && msgId < Message.StartErrors && !options.warnaserror)
 			{
 				// don't display any warnings after we've emitted an error message
@@ -3885,6 +4018,9 @@ namespace IKVM.Internal
 				case Message.MainMethodFromManifest:
 					msg = "Using main class \"{0}\" based on jar manifest";
 					break;
+				case Message.OutputIsUpToDate:
+					msg = "Output file \"{0}\" is up to date";
+					break;
 				case Message.ClassNotFound:
 					msg = "Class \"{0}\" not found";
 					break;
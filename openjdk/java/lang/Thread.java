@@ -171,6 +171,7 @@ class Thread implements Runnable {
     private boolean timedWait;
     volatile Object parkLock;   // used by get/setParkLock in map.xml
     int parkState;              // used by cmpxchgParkState in map.xml
+    int parkSpins;              // used by get/setParkSpins in map.xml
     /* --- end IKVM specific state --- */
 
     private volatile char  name[];
@@ -55,7 +55,7 @@ public abstract class Reference<T>
             weakRef = new cli.System.WeakReference(referent, this instanceof PhantomReference);
             if (queue != null)
             {
-                queue.addToActiveList(this);
+                addCollectionSentinel(referent, this);
             }
             if (this instanceof Cleaner)
             {
@@ -133,5 +133,17 @@ public abstract class Reference<T>
         return weakRef == null;
     }
 
+    // called (on the finalizer thread) by the collection sentinel after the referent became unreachable
+    final boolean referentCollected()
+    {
+        if (isActive()) {
+            return false;
+        }
+        queue.enqueue(this);
+        return true;
+    }
+
     static native boolean noclassgc();
+
+    private static native void addCollectionSentinel(Object referent, Reference ref);
 }
@@ -28,37 +28,12 @@ public class ReferenceQueue<T>
 {
     static final ReferenceQueue ENQUEUED = new ReferenceQueue();
     static final ReferenceQueue NULL = new ReferenceQueue();
-    private volatile Link<T> activeHead;
     private volatile Reference<T> head;
     final Object lock = new Object();
-    volatile boolean waitingForGC;
-    
-    private final class GCNotification {
-        protected void finalize() {
-            waitingForGC = false;
-            synchronized (lock) {
-                lock.notifyAll();
-            }
-        }
-    }
-
-    // NOTE a known problem with this approach is that the WeakReference will not be available
-    // after we've become only finalizer reachable
-    private static class Link<T> extends cli.System.WeakReference {
-        Link<T> next;
-       
-        Link(Reference<T> ref) {
-            super(ref);
-        }
-
-        Reference<T> get() {
-            return (Reference<T>)get_Target();
-        }
-    }
 
     public Reference<? extends T> poll()
     {
-        if (head == null && (activeHead == null || waitingForGC)) {
+        if (head == null) {
             return null;
         }
         synchronized (lock) {
@@ -68,18 +43,10 @@ public class ReferenceQueue<T>
 
     private Reference<? extends T> pollImpl()
     {
-        if (head == null) {
-            if (activeHead == null || waitingForGC) {
-                return null;
-            }
-            scanActiveList();
-            if (head == null) {
-                waitingForGC = true;
-                new GCNotification();
-                return null;
-            }
-        }
         Reference<T> ref = head;
+        if (ref == null) {
+            return null;
+        }
         head = ref.next;
         ref.next = null;
         ref.queue = NULL;
@@ -136,73 +103,12 @@ public class ReferenceQueue<T>
         synchronized (lock) {
             if (ref.queue != ENQUEUED && ref.queue != NULL) {
                 ref.queue = ENQUEUED;
-                
-                if (ref.isStrongOrNullRef()) {
-                    ref.next = head;
-                    head = ref;
-                    lock.notifyAll();
-                    return true;
-                }
-
-                Link<T> prev = null;
-                Link<T> curr = activeHead;
-            
-                while (curr != null) {
-                    if (curr.get() == ref) {
-                        if (prev == null) {
-                            activeHead = curr.next;
-                        } else {
-                            prev.next = curr.next;
-                        }
-                        ref.next = head;
-                        head = ref;
-                        lock.notifyAll();
-                        return true;
-                    }
-                    prev = curr;
-                    curr = curr.next;
-                }
-            }
-        }
-        return false;
-    }
-
-    final void addToActiveList(Reference<T> ref)
-    {
-        Link<T> link = new Link<T>(ref);
-        synchronized (lock) {
-            link.next = activeHead;
-            activeHead = link;
-            if (link.next == null) {
+                ref.next = head;
+                head = ref;
                 lock.notifyAll();
+                return true;
             }
         }
-    }
-
-    private void scanActiveList()
-    {
-        Link<T> prev = null;
-        Link<T> curr = activeHead;
-    
-        while (curr != null) {
-            Reference<T> ref = curr.get();
-            if (ref == null || !ref.isActive()) {
-                Link<T> next = curr.next;
-                if (prev == null) {
-                    activeHead = next;
-                } else {
-                    prev.next = next;
-                }
-                if (ref != null) {
-                    ref.next = head;
-                    ref.queue = ENQUEUED;
-                    head = ref;
-                }
-                curr = next;
-                continue;
-            }
-            prev = curr;
-            curr = curr.next;
-        }
+        return false;
     }
 }
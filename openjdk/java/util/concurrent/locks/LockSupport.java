@@ -131,6 +131,17 @@ public class LockSupport {
     private static native int cmpxchgParkState(Thread t, int newValue, int comparand);
     private static native Object getParkLock(Thread t);
     private static native void setParkLock(Thread t, Object obj);
+    private static native int getParkSpins(Thread t);
+    private static native void setParkSpins(Thread t, int spins);
+
+    // Before blocking on the park lock, a thread spins for a while waiting for a permit.
+    // The number of spins is adapted per thread: it is doubled when spinning obtained
+    // a permit and halved when the thread had to block anyway.
+    private static final boolean SPIN = Runtime.getRuntime().availableProcessors() > 1;
+    private static final int PARK_SPINS_MIN = 4;
+    private static final int PARK_SPINS_INITIAL = 64;
+    private static final int PARK_SPINS_MAX = 1024;
+    private static final int SPIN_WAIT_ITERATIONS = 20;
 
     /**
      * Makes available the permit for the given thread, if it
@@ -169,6 +180,24 @@ public class LockSupport {
             return;
         }
 
+        if (SPIN && !deadline)
+        {
+            long start = System.nanoTime();
+            if (spinForPermit(currentThread, start, nanos))
+            {
+                return;
+            }
+            if (nanos > 0)
+            {
+                // the time spent spinning counts against the timeout
+                nanos -= System.nanoTime() - start;
+                if (nanos <= 0)
+                {
+                    return;
+                }
+            }
+        }
+
         Object lock = getParkLock(currentThread);
         if (lock == null)
         {
@@ -204,6 +233,37 @@ public class LockSupport {
         }
     }
 
+    private static boolean spinForPermit(Thread currentThread, long start, long nanos)
+    {
+        int spins = getParkSpins(currentThread);
+        if (spins == 0)
+        {
+            spins = PARK_SPINS_INITIAL;
+        }
+        for (int i = 0; i < spins; i++)
+        {
+            cli.System.Threading.Thread.SpinWait(SPIN_WAIT_ITERATIONS);
+            if (cmpxchgParkState(currentThread, PARK_STATE_RUNNING, PARK_STATE_PERMIT) == PARK_STATE_PERMIT)
+            {
+                // we consumed a permit without blocking, so spinning pays off for this thread
+                setParkSpins(currentThread, Math.min(spins * 2, PARK_SPINS_MAX));
+                return true;
+            }
+            if (currentThread.isInterrupted())
+            {
+                // the blocking path deals with the interrupt
+                break;
+            }
+            if (nanos > 0 && System.nanoTime() - start >= nanos)
+            {
+                // timed out, which says nothing about whether spinning pays off
+                return false;
+            }
+        }
+        setParkSpins(currentThread, Math.max(spins / 2, PARK_SPINS_MIN));
+        return false;
+    }
+
     /**
      * Disables the current thread for thread scheduling purposes unless the
      * permit is available.
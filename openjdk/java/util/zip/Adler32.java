@@ -100,6 +100,12 @@ public class Adler32 implements Checksum
   /** largest prime smaller than 65536 */
   private static final int BASE = 65521;
 
+  /**
+   * Number of bytes that can be summed before s2 can overflow a (signed)
+   * int, rounded down to a multiple of 8.
+   */
+  private static final int NMAX = 3800;
+
   private int adler; //we do all in int.
 
   //Note that java doesn't have unsigned integers,
@@ -161,6 +167,9 @@ public class Adler32 implements Checksum
    */
   public void update (byte[] buf, int off, int len)
   {
+    if (off < 0 || len < 0 || off > buf.length - len)
+      throw new ArrayIndexOutOfBoundsException();
+
     //(By Per Bothner)
     int s1 = adler & 0xffff;
     int s2 = adler >>> 16;
@@ -170,10 +179,23 @@ public class Adler32 implements Checksum
         // We can defer the modulo operation:
         // s1 maximally grows from 65521 to 65521 + 255 * 3800
         // s2 maximally grows by 3800 * median(s1) = 2090079800 < 2^31
-        int n = 3800;
+        int n = NMAX;
         if (n > len)
           n = len;
         len -= n;
+        // unrolled by 8 (NMAX is a multiple of 8)
+        for (; n >= 8; n -= 8)
+          {
+            s1 += buf[off] & 0xFF; s2 += s1;
+            s1 += buf[off + 1] & 0xFF; s2 += s1;
+            s1 += buf[off + 2] & 0xFF; s2 += s1;
+            s1 += buf[off + 3] & 0xFF; s2 += s1;
+            s1 += buf[off + 4] & 0xFF; s2 += s1;
+            s1 += buf[off + 5] & 0xFF; s2 += s1;
+            s1 += buf[off + 6] & 0xFF; s2 += s1;
+            s1 += buf[off + 7] & 0xFF; s2 += s1;
+            off += 8;
+          }
         while (--n >= 0)
           {
             s1 = s1 + (buf[off++] & 0xFF);
@@ -183,23 +205,49 @@ public class Adler32 implements Checksum
         s2 %= BASE;
       }
 
-    /*Old implementation, borrowed from somewhere:
-    int n;
-    
-    while (len-- > 0) {
-
-      s1 = (s1 + (bs[offset++] & 0xff)) % BASE; 
-      s2 = (s2 + s1) % BASE;
-    }*/
-    
     adler = (s2 << 16) | s1;
   }
 
   public void update(java.nio.ByteBuffer buffer)
   {
-    byte[] buf = new byte[buffer.remaining()];
-    buffer.get(buf);
-    update(buf, 0, buf.length);
+    int pos = buffer.position();
+    int limit = buffer.limit();
+    if (pos > limit)
+      return;
+    if (buffer.hasArray())
+      {
+        update(buffer.array(), buffer.arrayOffset() + pos, limit - pos);
+      }
+    else
+      {
+        // read the buffer in place, eight bytes at a time
+        java.nio.ByteBuffer b = buffer.duplicate().order(java.nio.ByteOrder.LITTLE_ENDIAN);
+        int s1 = adler & 0xffff;
+        int s2 = adler >>> 16;
+        int i = pos;
+        while (i < limit)
+          {
+            int n = Math.min(NMAX, limit - i);
+            for (; n >= 8; n -= 8, i += 8)
+              {
+                long v = b.getLong(i);
+                for (int k = 0; k < 64; k += 8)
+                  {
+                    s1 += (int) (v >>> k) & 0xFF;
+                    s2 += s1;
+                  }
+              }
+            for (; n > 0; n--, i++)
+              {
+                s1 += b.get(i) & 0xFF;
+                s2 += s1;
+              }
+            s1 %= BASE;
+            s2 %= BASE;
+          }
+        adler = (s2 << 16) | s1;
+      }
+    buffer.position(limit);
   }
 
   /**
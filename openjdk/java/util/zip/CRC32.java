@@ -62,13 +62,17 @@ public class CRC32 implements Checksum
   /** The crc data checksum so far. */
   private int crc = 0;
 
-  /** The fast CRC table. Computed once when the CRC32 class is loaded. */
-  private static int[] crc_table = make_crc_table();
+  /**
+   * The slicing-by-8 CRC tables. Computed once when the CRC32 class is loaded.
+   * The first 256 entries are the classic byte-at-a-time table, entry
+   * k * 256 + n is the CRC of byte n followed by k zero bytes.
+   */
+  private static final int[] crc_table = make_crc_table();
 
-  /** Make the table for a fast CRC. */
+  /** Make the tables for a fast CRC. */
   private static int[] make_crc_table ()
   {
-    int[] crc_table = new int[256];
+    int[] crc_table = new int[8 * 256];
     for (int n = 0; n < 256; n++)
       {
         int c = n;
@@ -81,9 +85,27 @@ public class CRC32 implements Checksum
           }
         crc_table[n] = c;
       }
+    for (int n = 256; n < 8 * 256; n++)
+      {
+        int c = crc_table[n - 256];
+        crc_table[n] = crc_table[c & 0xff] ^ (c >>> 8);
+      }
     return crc_table;
   }
 
+  /**
+   * Updates the (inverted) crc c with eight little-endian bytes, passed
+   * as two ints.
+   */
+  private static int update8 (int[] t, int c, int lo, int hi)
+  {
+    c ^= lo;
+    return t[7 * 256 + (c & 0xff)] ^ t[6 * 256 + ((c >>> 8) & 0xff)]
+      ^ t[5 * 256 + ((c >>> 16) & 0xff)] ^ t[4 * 256 + (c >>> 24)]
+      ^ t[3 * 256 + (hi & 0xff)] ^ t[2 * 256 + ((hi >>> 8) & 0xff)]
+      ^ t[1 * 256 + ((hi >>> 16) & 0xff)] ^ t[hi >>> 24];
+  }
+
   /**
    * Returns the CRC32 data checksum computed so far.
    */
@@ -119,9 +141,22 @@ public class CRC32 implements Checksum
    */
   public void update (byte[] buf, int off, int len)
   {
+    if (off < 0 || len < 0 || off > buf.length - len)
+      throw new ArrayIndexOutOfBoundsException();
+    int[] t = crc_table;
     int c = ~crc;
+    while (len >= 8)
+      {
+        int lo = (buf[off] & 0xff) | (buf[off + 1] & 0xff) << 8
+          | (buf[off + 2] & 0xff) << 16 | buf[off + 3] << 24;
+        int hi = (buf[off + 4] & 0xff) | (buf[off + 5] & 0xff) << 8
+          | (buf[off + 6] & 0xff) << 16 | buf[off + 7] << 24;
+        c = update8(t, c, lo, hi);
+        off += 8;
+        len -= 8;
+      }
     while (--len >= 0)
-      c = crc_table[(c ^ buf[off++]) & 0xff] ^ (c >>> 8);
+      c = t[(c ^ buf[off++]) & 0xff] ^ (c >>> 8);
     crc = ~c;
   }
 
@@ -132,8 +167,30 @@ public class CRC32 implements Checksum
 
   public void update(java.nio.ByteBuffer buffer)
   {
-    byte[] buf = new byte[buffer.remaining()];
-    buffer.get(buf);
-    update(buf, 0, buf.length);
+    int pos = buffer.position();
+    int limit = buffer.limit();
+    if (pos > limit)
+      return;
+    if (buffer.hasArray())
+      {
+        update(buffer.array(), buffer.arrayOffset() + pos, limit - pos);
+      }
+    else
+      {
+        // read the buffer in place, eight bytes at a time
+        java.nio.ByteBuffer b = buffer.duplicate().order(java.nio.ByteOrder.LITTLE_ENDIAN);
+        int[] t = crc_table;
+        int c = ~crc;
+        int i = pos;
+        for (; limit - i >= 8; i += 8)
+          {
+            long v = b.getLong(i);
+            c = update8(t, c, (int) v, (int) (v >>> 32));
+          }
+        for (; i < limit; i++)
+          c = t[(c ^ b.get(i)) & 0xff] ^ (c >>> 8);
+        crc = ~c;
+      }
+    buffer.position(limit);
   }
 }
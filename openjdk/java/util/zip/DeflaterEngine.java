@@ -37,28 +37,40 @@ exception statement from your version. */
 
 package java.util.zip;
 
+import java.security.AccessController;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import sun.security.action.GetBooleanAction;
+
 final class DeflaterEngine implements DeflaterConstants
 {
   private static final int TOO_FAR = 4096;
 
-  private int ins_h;
+  /**
+   * If set, large inputs are split into segments that are compressed
+   * in parallel, see deflateParallel().
+   */
+  private static final boolean PARALLEL =
+    AccessController.doPrivileged(new GetBooleanAction("ikvm.zip.deflater.parallel"))
+    && ForkJoinPool.getCommonPoolParallelism() > 1;
+
+  /** The size of the segments that are compressed in parallel. */
+  private static final int SEGMENT_SIZE = 128 * 1024;
 
   /**
-   * Hashtable, hashing three characters to an index for window, so
-   * that window[index]..window[index+2] have this hash code.  
-   * Note that the array should really be unsigned short, so you need
-   * to and the values with 0xffff.
+   * Hashtable, hashing four characters to an index for window, so
+   * that window[index]..window[index+3] have this hash code.  
    */
-  private short[] head;
+  private int[] head;
 
   /**
    * prev[index & WMASK] points to the previous index that has the
    * same hash code as the string starting at index.  This way 
    * entries with the same hash code are in a linked list.
-   * Note that the array should really be unsigned short, so you need
-   * to and the values with 0xffff.
    */
-  private short[] prev;
+  private int[] prev;
 
   private int matchStart, matchLen;
   private boolean prevAvailable;
@@ -83,7 +95,7 @@ final class DeflaterEngine implements DeflaterConstants
    */
   private byte[] window;
 
-  private int strategy, max_chain, max_lazy, niceLength, goodLength;
+  private int level, strategy, max_chain, max_lazy, niceLength, goodLength;
 
   /** The current compression function. */
   private int comprFunc;
@@ -106,13 +118,20 @@ final class DeflaterEngine implements DeflaterConstants
   /** The adler checksum */
   private Adler32 adler;
 
+  /**
+   * The compressed segments produced by deflateParallel() that have
+   * not yet been written to pending, or null.
+   */
+  private byte[][] parallelOut;
+  private int parallelIndex, parallelPos;
+
   /* DEFLATE ALGORITHM:
    *
    * The uncompressed stream is inserted into the window array.  When
    * the window array is full the first half is thrown away and the
    * second half is copied to the beginning.
    *
-   * The head array is a hash table.  Three characters build a hash value
+   * The head array is a hash table.  Four characters build a hash value
    * and they the value points to the corresponding index in window of 
    * the last string with this hash.  The prev array implements a
    * linked list of matches with the same hash: prev[index & WMASK] points
@@ -127,9 +146,12 @@ final class DeflaterEngine implements DeflaterConstants
     huffman = new DeflaterHuffman(pending);
     adler = new Adler32();
 
-    window = new byte[2*WSIZE];
-    head   = new short[HASH_SIZE];
-    prev   = new short[WSIZE];
+    /* The extra byte is only read by insertString() at the very end
+     * of the window.
+     */
+    window = new byte[2*WSIZE + 1];
+    head   = new int[HASH_SIZE];
+    prev   = new int[WSIZE];
 
     /* We start at index 1, to avoid a implementation deficiency, that
      * we cannot build a repeat pattern at index 0.
@@ -143,6 +165,7 @@ final class DeflaterEngine implements DeflaterConstants
     adler.reset();
     clearHash();
     totalIn = 0;
+    parallelOut = null;
   }
   
   final void clearHash()
@@ -180,6 +203,7 @@ final class DeflaterEngine implements DeflaterConstants
 
   public void setLevel(int lvl)
   {
+    level = lvl;
     goodLength = DeflaterConstants.GOOD_LENGTH[lvl];
     max_lazy    = DeflaterConstants.MAX_LAZY[lvl];
     niceLength = DeflaterConstants.NICE_LENGTH[lvl];
@@ -199,7 +223,6 @@ final class DeflaterEngine implements DeflaterConstants
                                          strstart - blockStart, false);
                 blockStart = strstart;
               }
-            updateHash();
             break;
           case DEFLATE_FAST:
             if (strstart > blockStart)
@@ -226,36 +249,25 @@ final class DeflaterEngine implements DeflaterConstants
       }
   }
 
-  private void updateHash() {
-    if (DEBUGGING)
-      System.err.println("updateHash: "+strstart);
-    ins_h = (window[strstart] << HASH_SHIFT) ^ window[strstart + 1];
-  }    
-
   /**
    * Inserts the current string in the head hash and returns the previous
-   * value for this hash.
+   * value for this hash.  The hash is computed from the four characters
+   * at strstart, so that only strings that are likely to give a match
+   * of a useful length end up in the same chain.  If there are less
+   * than four characters of lookahead the last ones are stale, that
+   * only puts the string in a chain where it won't be found.
    */
   private int insertString() {
-    short match;
-    int hash = ((ins_h << HASH_SHIFT) ^ window[strstart + (MIN_MATCH -1)])
-      & HASH_MASK;
-
-    if (DEBUGGING)
-      {
-        if (hash != (((window[strstart] << (2*HASH_SHIFT))
-                      ^ (window[strstart + 1] << HASH_SHIFT)
-                      ^ (window[strstart + 2])) & HASH_MASK))
-          throw new InternalError("hash inconsistent: "+hash+"/"
-                                  +window[strstart]+","
-                                  +window[strstart+1]+","
-                                  +window[strstart+2]+","+HASH_SHIFT);
-      }
-
-    prev[strstart & WMASK] = match = head[hash];
-    head[hash] = (short) strstart;
-    ins_h = hash;
-    return match & 0xffff;
+    byte[] window = this.window;
+    int s = strstart;
+    int hash = (((window[s] & 0xff)
+                 | (window[s + 1] & 0xff) << 8
+                 | (window[s + 2] & 0xff) << 16
+                 | window[s + 3] << 24) * 0x9E3779B1) >>> (32 - HASH_BITS);
+    int match = head[hash];
+    prev[s & WMASK] = match;
+    head[hash] = s;
+    return match;
   }
 
   private void slideWindow()
@@ -265,21 +277,22 @@ final class DeflaterEngine implements DeflaterConstants
     strstart -= WSIZE;
     blockStart -= WSIZE;
     
-    /* Slide the hash table (could be avoided with 32 bit values
-     * at the expense of memory usage).
+    /* Slide the hash table.
      */
+    int[] head = this.head;
     for (int i = 0; i < HASH_SIZE; i++) 
       {
-        int m = head[i] & 0xffff;
-        head[i] = m >= WSIZE ? (short) (m - WSIZE) : 0;
+        int m = head[i];
+        head[i] = m >= WSIZE ? m - WSIZE : 0;
       }
 
     /* Slide the prev table.
      */
+    int[] prev = this.prev;
     for (int i = 0; i < WSIZE; i++) 
       {
-        int m = prev[i] & 0xffff;
-        prev[i] = m >= WSIZE ? (short) (m - WSIZE) : 0;
+        int m = prev[i];
+        prev[i] = m >= WSIZE ? m - WSIZE : 0;
       }
   }
 
@@ -315,9 +328,6 @@ final class DeflaterEngine implements DeflaterConstants
         totalIn  += more;
         lookahead += more;
       }
-
-    if (lookahead >= MIN_MATCH) 
-      updateHash();
   }
 
   /**
@@ -333,7 +343,8 @@ final class DeflaterEngine implements DeflaterConstants
   private boolean findLongestMatch(int curMatch) {
     int chainLength = this.max_chain;
     int niceLength = this.niceLength;
-    short[] prev = this.prev;
+    int[] prev = this.prev;
+    byte[] window = this.window;
     int scan  = this.strstart;
     int match;
     int best_end = this.strstart + matchLen;
@@ -386,8 +397,6 @@ final class DeflaterEngine implements DeflaterConstants
         ;
 
       if (scan > best_end) {
-//      if (DeflaterConstants.DEBUGGING && ins_h == 0)
-//        System.err.println("Found match: "+curMatch+"-"+(scan-strstart));
         matchStart = curMatch;
         best_end = scan;
         best_len = scan - strstart;
@@ -398,7 +407,7 @@ final class DeflaterEngine implements DeflaterConstants
         scan_end   = window[best_end];
       }
       scan = strstart;
-    } while ((curMatch = (prev[curMatch & WMASK] & 0xffff)) > limit
+    } while ((curMatch = prev[curMatch & WMASK]) > limit
              && --chainLength != 0);
 
     matchLen = Math.min(best_len, lookahead);
@@ -409,6 +418,14 @@ final class DeflaterEngine implements DeflaterConstants
     if (DeflaterConstants.DEBUGGING && strstart != 1)
       throw new IllegalStateException("strstart not 1");
     adler.update(buffer, offset, length);
+    loadDictionary(buffer, offset, length);
+  }
+
+  /**
+   * Puts the dictionary into the window and the hash table, without
+   * updating the checksum.
+   */
+  private void loadDictionary(byte[] buffer, int offset, int length) {
     if (length < MIN_MATCH)
       return;
     if (length > MAX_DIST) {
@@ -418,7 +435,6 @@ final class DeflaterEngine implements DeflaterConstants
 
     System.arraycopy(buffer, offset, window, strstart, length);
 
-    updateHash();
     length--;
     while (--length > 0)
       {
@@ -518,8 +534,6 @@ final class DeflaterEngine implements DeflaterConstants
             else
               {
                 strstart += matchLen;
-                if (lookahead >= MIN_MATCH - 1)
-                  updateHash();
               }
             matchLen = MIN_MATCH - 1;
             if (!full)
@@ -646,8 +660,133 @@ final class DeflaterEngine implements DeflaterConstants
     return true;
   } 
 
+  /**
+   * Compresses the input in segments of SEGMENT_SIZE bytes on the
+   * fork-join pool, as pigz does.  Each segment is compressed by its
+   * own engine with the preceding 32K of input as dictionary and ends
+   * with an empty stored block, so that the segments can simply be
+   * concatenated.  This is only called when nothing is buffered in the
+   * window; the current block is terminated in the same way, and the
+   * window is restarted with the last 32K of the segments as history.
+   */
+  private void deflateParallel()
+  {
+    int count = (inputEnd - inputOff) / SEGMENT_SIZE;
+    Segment[] segments = new Segment[count];
+    int dictStart = Math.max(strstart - MAX_DIST, 1);
+    segments[0] = new Segment(level, strategy, window, dictStart,
+                              strstart - dictStart, inputBuf, inputOff);
+    for (int i = 1; i < count; i++)
+      {
+        int off = inputOff + i * SEGMENT_SIZE;
+        segments[i] = new Segment(level, strategy, inputBuf, off - MAX_DIST,
+                                  MAX_DIST, inputBuf, off);
+      }
+    ForkJoinTask.invokeAll(segments);
+
+    int len = count * SEGMENT_SIZE;
+    adler.update(inputBuf, inputOff, len);
+    inputOff += len;
+    totalIn += len;
+
+    huffman.flushStoredBlock(window, strstart, 0, false);
+    clearHash();
+    loadDictionary(inputBuf, inputOff - MAX_DIST, MAX_DIST);
+
+    parallelOut = new byte[count][];
+    for (int i = 0; i < count; i++)
+      parallelOut[i] = segments[i].join();
+    parallelIndex = parallelPos = 0;
+  }
+
+  /**
+   * Copies as much of the output of deflateParallel() to pending as
+   * fits.
+   */
+  private boolean writeParallelOutput()
+  {
+    while (parallelOut != null)
+      {
+        byte[] segment = parallelOut[parallelIndex];
+        int len = Math.min(segment.length - parallelPos,
+                           PENDING_BUF_SIZE - pending.end);
+        if (len == 0)
+          break;
+        pending.writeBlock(segment, parallelPos, len);
+        parallelPos += len;
+        if (parallelPos == segment.length)
+          {
+            parallelPos = 0;
+            if (++parallelIndex == parallelOut.length)
+              parallelOut = null;
+          }
+      }
+    return true;
+  }
+
+  private static final class Segment extends RecursiveTask<byte[]>
+  {
+    private final int level, strategy;
+    private final byte[] dict;
+    private final int dictOff, dictLen;
+    private final byte[] input;
+    private final int inputOff;
+
+    Segment(int level, int strategy, byte[] dict, int dictOff, int dictLen,
+            byte[] input, int inputOff)
+    {
+      this.level = level;
+      this.strategy = strategy;
+      this.dict = dict;
+      this.dictOff = dictOff;
+      this.dictLen = dictLen;
+      this.input = input;
+      this.inputOff = inputOff;
+    }
+
+    protected byte[] compute()
+    {
+      DeflaterPending pending = new DeflaterPending();
+      DeflaterEngine engine = new DeflaterEngine(pending);
+      engine.setStrategy(strategy);
+      engine.setLevel(level);
+      engine.loadDictionary(dict, dictOff, dictLen);
+      engine.setInput(input, inputOff, SEGMENT_SIZE);
+
+      byte[] out = new byte[SEGMENT_SIZE / 2];
+      int outLen = 0;
+      boolean more;
+      do
+        {
+          more = engine.deflate(true, false);
+          if (!more)
+            engine.huffman.flushStoredBlock(engine.window, engine.strstart,
+                                            0, false);
+          while (!pending.isFlushed())
+            {
+              if (outLen == out.length)
+                out = Arrays.copyOf(out, out.length * 2);
+              outLen += pending.flush(out, outLen, out.length - outLen);
+            }
+        }
+      while (more);
+      return Arrays.copyOf(out, outLen);
+    }
+  }
+
   public boolean deflate(boolean flush, boolean finish) 
   {
+    if (parallelOut != null)
+      return writeParallelOutput();
+
+    if (PARALLEL && comprFunc != DEFLATE_STORED
+        && lookahead == 0 && strstart == blockStart && !prevAvailable
+        && inputEnd - inputOff >= 2 * SEGMENT_SIZE)
+      {
+        deflateParallel();
+        return writeParallelOutput();
+      }
+
     boolean progress;
     do
       {
@@ -687,6 +826,6 @@ final class DeflaterEngine implements DeflaterConstants
 
   public final boolean needsInput()
   {
-    return inputEnd == inputOff;
+    return inputEnd == inputOff && parallelOut == null;
   }
 }
@@ -96,6 +96,27 @@ public class Inflater
     12, 12, 13, 13
   };
 
+  /* Base and extra bits of the length codes 257..285 and the distance
+   * codes 0..29 combined in one entry as (base << 4) | extra, for
+   * inflateFast.
+   */
+  private static final int LENGTH_CODES[] = new int[CPLENS.length];
+  private static final int DIST_CODES[] = new int[CPDIST.length];
+
+  static
+  {
+    for (int i = 0; i < LENGTH_CODES.length; i++)
+      LENGTH_CODES[i] = (CPLENS[i] << 4) | CPLEXT[i];
+    for (int i = 0; i < DIST_CODES.length; i++)
+      DIST_CODES[i] = (CPDIST[i] << 4) | CPDEXT[i];
+  }
+
+  /* inflateFast needs this many bytes of input to refill its bit buffer */
+  private static final int FAST_MIN_INPUT = 8;
+
+  /* The longest match, inflateFast needs this much free output space */
+  private static final int MAX_MATCH = 258;
+
   /* This are the state in which the inflater can be.  */
   private static final int DECODE_HEADER           = 0;
   private static final int DECODE_DICT             = 1;
@@ -513,6 +534,11 @@ public class Inflater
         switch (mode)
           {
           case DECODE_HUFFMAN:
+            if (inflateFast())
+              return true;
+            free = outputWindow.getFreeSpace();
+            if (free < 258)
+              return true;
             /* This is the inner loop so it is optimized a bit */
             while (((symbol = litlenTree.getSymbol(input)) & ~0xff) == 0)
               {
@@ -591,6 +617,134 @@ public class Inflater
     return true;
   }
 
+  /**
+   * Decodes huffman encoded symbols as long as there is enough input
+   * and output space that no symbol can hit the end of either.  This is
+   * modelled after zlib's inflate_fast: the input is read into a 64 bit
+   * bit buffer a byte at a time, and the trees and windows are accessed
+   * directly.  decodeHuffman() handles the symbols at the edges.
+   * @return true if the current block ends.
+   * @exception DataFormatException if deflated stream is invalid.
+   */
+  private boolean inflateFast () throws DataFormatException
+  {
+    StreamManipulator in = input;
+    byte[] inBuf = in.window;
+    int inPos = in.window_start;
+    int inLast = in.window_end - FAST_MIN_INPUT;
+    if (inPos > inLast)
+      return false;
+    int inStart = inPos;
+    int bits = in.bits_in_buffer;
+    long hold = in.buffer & ((1L << bits) - 1);
+
+    OutputWindow out = outputWindow;
+    byte[] window = out.window;
+    int end = out.window_end;
+    int filled = out.window_filled;
+    int maxFilled = OutputWindow.WINDOW_SIZE - MAX_MATCH;
+
+    short[] litlen = litlenTree.tree;
+    short[] dist = distTree.tree;
+    boolean endOfBlock = false;
+
+    /* A length and distance pair needs at most 15+5+15+13 = 48 bits,
+     * after a refill there are at least 57 bits in the buffer.
+     */
+    while (inPos <= inLast && filled <= maxFilled)
+      {
+        while (bits <= 56)
+          {
+            hold |= (long) (inBuf[inPos++] & 0xff) << bits;
+            bits += 8;
+          }
+
+        int symbol = litlen[(int) hold & 511];
+        if (symbol < 0)
+          symbol = litlen[-(symbol >> 4)
+                          | (((int) hold & ((1 << (symbol & 15)) - 1)) >> 9)];
+        hold >>>= symbol & 15;
+        bits -= symbol & 15;
+        symbol >>= 4;
+
+        if (symbol < 256)
+          {
+            window[end++] = (byte) symbol;
+            end &= OutputWindow.WINDOW_MASK;
+            filled++;
+            continue;
+          }
+        if (symbol == 256)
+          {
+            endOfBlock = true;
+            break;
+          }
+        if (symbol - 257 >= LENGTH_CODES.length)
+          throw new DataFormatException("Illegal rep length code");
+        int code = LENGTH_CODES[symbol - 257];
+        int extra = code & 15;
+        int len = (code >> 4) + ((int) hold & ((1 << extra) - 1));
+        hold >>>= extra;
+        bits -= extra;
+
+        symbol = dist[(int) hold & 511];
+        if (symbol < 0)
+          symbol = dist[-(symbol >> 4)
+                        | (((int) hold & ((1 << (symbol & 15)) - 1)) >> 9)];
+        hold >>>= symbol & 15;
+        bits -= symbol & 15;
+        symbol >>= 4;
+        if (symbol >= DIST_CODES.length)
+          throw new DataFormatException("Illegal rep dist code");
+        code = DIST_CODES[symbol];
+        extra = code & 15;
+        int d = (code >> 4) + ((int) hold & ((1 << extra) - 1));
+        hold >>>= extra;
+        bits -= extra;
+
+        filled += len;
+        int from = (end - d) & OutputWindow.WINDOW_MASK;
+        int border = OutputWindow.WINDOW_SIZE - len;
+        if (from <= border && end < border)
+          end = OutputWindow.copyOverlapping(window, from, end, len, d);
+        else
+          {
+            while (len-- > 0)
+              {
+                window[end++] = window[from++];
+                end &= OutputWindow.WINDOW_MASK;
+                from &= OutputWindow.WINDOW_MASK;
+              }
+          }
+      }
+
+    /* Give the whole bytes that were read ahead back to the input, but
+     * keep the number of bytes left in the input even, see peekBits.
+     */
+    int unused = Math.min(bits >> 3, inPos - inStart);
+    inPos -= unused;
+    bits -= unused << 3;
+    if (((in.window_end - inPos) & 1) != 0)
+      {
+        inPos++;
+        bits += 8;
+      }
+    in.window_start = inPos;
+    in.buffer = (int) (hold & ((1L << bits) - 1));
+    in.bits_in_buffer = bits;
+
+    out.window_end = end;
+    out.window_filled = filled;
+
+    if (endOfBlock)
+      {
+        distTree = null;
+        litlenTree = null;
+        mode = DECODE_BLOCKS;
+      }
+    return endOfBlock;
+  }
+
   /**
    * Decodes the adler checksum after the deflate stream.
    * @return false if more input is needed. 
@@ -41,7 +41,8 @@ class InflaterHuffmanTree
 {
   private static final int MAX_BITLEN = 15;
 
-  private short[] tree;
+  // Also used directly by Inflater.inflateFast().
+  short[] tree;
 
   static InflaterHuffmanTree defLitLenTree, defDistTree;
 
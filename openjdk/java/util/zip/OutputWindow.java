@@ -48,12 +48,13 @@ package java.util.zip;
  */
 class OutputWindow
 {
-  private static final int WINDOW_SIZE = 1 << 15;
-  private static final int WINDOW_MASK = WINDOW_SIZE - 1;
+  static final int WINDOW_SIZE = 1 << 15;
+  static final int WINDOW_MASK = WINDOW_SIZE - 1;
 
-  private byte[] window = new byte[WINDOW_SIZE]; //The window is 2^15 bytes
-  private int window_end  = 0;
-  private int window_filled = 0;
+  // The fields are also used directly by Inflater.inflateFast().
+  final byte[] window = new byte[WINDOW_SIZE]; //The window is 2^15 bytes
+  int window_end  = 0;
+  int window_filled = 0;
 
   public void write(int abyte)
   {
@@ -82,23 +83,39 @@ class OutputWindow
     int border = WINDOW_SIZE - len;
     if (rep_start <= border && window_end < border)
       {
-        if (len <= dist)
-          {
-            System.arraycopy(window, rep_start, window, window_end, len);
-            window_end += len;
-          }
-        else
-          {
-            /* We have to copy manually, since the repeat pattern overlaps.
-             */
-            while (len-- > 0)
-              window[window_end++] = window[rep_start++];
-          }
+        window_end = copyOverlapping(window, rep_start, window_end, len, dist);
       }
     else
       slowRepeat(rep_start, len, dist);
   }
 
+  /**
+   * Copies len bytes starting dist bytes before end to end, the
+   * regions must not wrap around the end of the window.  If the
+   * regions overlap the bytes are copied in chunks of increasing
+   * size, each chunk repeats the pattern written so far.
+   *
+   * @return the new end.
+   */
+  static int copyOverlapping(byte[] window, int rep_start, int end, int len, int dist)
+  {
+    if (len <= dist)
+      {
+        System.arraycopy(window, rep_start, window, end, len);
+        return end + len;
+      }
+    int chunk = dist;
+    while (len > 0)
+      {
+        int count = Math.min(chunk, len);
+        System.arraycopy(window, rep_start, window, end, count);
+        end += count;
+        len -= count;
+        chunk += count;
+      }
+    return end;
+  }
+
   public int copyStored(StreamManipulator input, int len)
   {
     len = Math.min(Math.min(len, WINDOW_SIZE - window_filled), 
@@ -45,14 +45,21 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.RandomAccessFile;
-import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Enumeration;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import static java.util.zip.ZipConstants64.*;
+import sun.nio.ch.FileChannelImpl;
 
 /**
  * This class represents a Zip archive.  You can ask for the contained
@@ -92,8 +99,32 @@ public class ZipFile implements ZipConstants, Closeable
   // File from which zip entries are read.
   private final RandomAccessFile raf;
 
-  // The entries of this zip file when initialized and not yet closed.
-  private LinkedHashMap<String, ZipEntry> entries;
+  // Channel of raf, all reads use positional reads on this channel so
+  // that streams of different entries can be read concurrently.
+  private final FileChannel ch;
+
+  // The raw central directory. ZipEntry objects are only created when
+  // an entry is requested, the lookups go through the hash table below.
+  private byte[] cen;
+
+  // Offset in cen of each central directory record, in directory order.
+  private int[] entryPos;
+
+  // Number of records in cen.
+  private int total;
+
+  // Open addressing hash table of the entry names, each slot contains
+  // the index of the entry plus one, or zero if the slot is empty.
+  private int[] table;
+
+  // Entries added by ClassStubZipEntry.expandIkvmClasses, or null.
+  private LinkedHashMap<String, ZipEntry> stubEntries;
+
+  // Index of the entry replaced by the class stubs, or -1.
+  private int hiddenEntry = -1;
+
+  // Name of the entry listing the classes of an ikvmc compiled jar.
+  private static final String IKVM_CLASS_LIST = "--ikvm-classes--/";
 
   private boolean closed = false;
   final boolean hasLocHeader;
@@ -189,6 +220,10 @@ public class ZipFile implements ZipConstants, Closeable
     if ((mode & OPEN_DELETE) != 0)
       file.deleteOnExit();
     this.raf = new RandomAccessFile(file, "r");
+    this.ch = raf.getChannel();
+    // an interrupt of one reader must not close the channel for all of them
+    if (ch instanceof FileChannelImpl)
+      ((FileChannelImpl)ch).setUninterruptible();
     this.name = file.getPath();
     this.charset = charset;
     this.hasLocHeader = raf.length() >= 4 && raf.readInt() == (int)((LOCSIG << 24) | ((LOCSIG & 0xFF00) << 8) | ((LOCSIG & 0xFF0000) >> 8) | (LOCSIG >> 24));
@@ -198,7 +233,7 @@ public class ZipFile implements ZipConstants, Closeable
     try 
       {
         readEntries();
-        ClassStubZipEntry.expandIkvmClasses(this, entries);
+        expandIkvmClasses();
         valid = true;
       }
     catch (EOFException _)
@@ -230,9 +265,10 @@ public class ZipFile implements ZipConstants, Closeable
   }
 
   /**
-   * Read the central directory of a zip file and fill the entries
-   * array.  This is called exactly once when first needed. It is called
-   * while holding the lock on <code>raf</code>.
+   * Read the central directory of a zip file and build the name index.
+   * This is called exactly once from the constructor.  The records
+   * are validated here, but ZipEntry objects are only created when
+   * they are requested.
    *
    * @exception IOException if a i/o error occured.
    * @exception ZipException if the central directory is malformed 
@@ -272,51 +308,228 @@ public class ZipFile implements ZipConstants, Closeable
     if (centralOffset > pos - centralSize)
       throw new ZipException("invalid END header (bad central directory offset)");
 
-    entries = new LinkedHashMap<String, ZipEntry> (count+count/2);
-    inp.seek(pos - centralSize);
-    
-    while (inp.position() <= pos - CENHDR)
+    if (centralSize > Integer.MAX_VALUE)
+      throw new ZipException("invalid END header (central directory too large)");
+
+    byte[] cen = new byte[(int) centralSize];
+    readFully(pos - centralSize, cen, 0, cen.length);
+
+    int[] entryPos = new int[Math.max(count, 16)];
+    int total = 0;
+    int off = 0;
+    while (off <= cen.length - CENHDR)
       {
-        if (inp.readLeInt() != CENSIG)
+        if (get32(cen, off) != CENSIG)
           throw new ZipException("invalid CEN header (bad signature)");
-
-        inp.skip(4);
-        int flags = inp.readLeUnsignedShort();
-        if ((flags & 1) != 0)
+        if ((get16(cen, off + CENFLG) & 1) != 0)
           throw new ZipException("invalid CEN header (encrypted entry)");
-        int method = inp.readLeUnsignedShort();
+        int method = get16(cen, off + CENHOW);
         if (method != ZipEntry.STORED && method != ZipEntry.DEFLATED)
           throw new ZipException("invalid CEN header (bad compression method)");
-        ZipEntry entry = new ZipEntry();
-        entry.flag = flags;
-        entry.method = method;
-        entry.dostime = inp.readLeUnsignedInt();
-        entry.crc = inp.readLeUnsignedInt();
-        entry.csize = inp.readLeUnsignedInt();
-        entry.size = inp.readLeUnsignedInt();
-        int nameLen = inp.readLeUnsignedShort();
-        int extraLen = inp.readLeUnsignedShort();
-        int commentLen = inp.readLeUnsignedShort();
-        inp.skip(8);
-        entry.offset = inp.readLeUnsignedInt();
-        entry.name = inp.readString(nameLen, (flags & EFS) != 0);
-
-        if (extraLen > 0)
-          {
-            byte[] extra = new byte[extraLen];
-            inp.readFully(extra);
-            entry.setExtra0(extra, false);
-            readZip64ExtraField(entry, extra);
-          }
-        if (commentLen > 0)
-          {
-            entry.comment = inp.readString(commentLen, (flags & EFS) != 0);
-          }
-        entries.put(entry.name, entry);
+        if (total == entryPos.length)
+          entryPos = Arrays.copyOf(entryPos, total * 2);
+        entryPos[total++] = off;
+        off += CENHDR + get16(cen, off + CENNAM) + get16(cen, off + CENEXT)
+          + get16(cen, off + CENCOM);
       }
 
-    if (inp.position() != pos)
+    if (off != cen.length)
       throw new ZipException("invalid CEN header (bad header size)");
+
+    // size the table to be at most half full, the entries are inserted
+    // in reverse so that the last of several entries with the same name
+    // is found first
+    int tableSize = Integer.highestOneBit(Math.max(total, 8)) * 4;
+    int[] table = new int[tableSize];
+    for (int i = total - 1; i >= 0; i--)
+      {
+        int p = entryPos[i];
+        int slot = hash(cen, p + CENHDR, get16(cen, p + CENNAM)) & (tableSize - 1);
+        while (table[slot] != 0)
+          slot = (slot + 1) & (tableSize - 1);
+        table[slot] = i + 1;
+      }
+
+    this.cen = cen;
+    this.entryPos = entryPos;
+    this.total = total;
+    this.table = table;
+  }
+
+  /**
+   * Replaces the class list entry of an ikvmc compiled jar that lives
+   * in the virtual file system by stub entries for its classes.
+   */
+  private void expandIkvmClasses()
+  {
+    int index = getEntryIndex(IKVM_CLASS_LIST);
+    if (index == -1)
+      return;
+    LinkedHashMap<String, ZipEntry> map = new LinkedHashMap<String, ZipEntry>();
+    map.put(IKVM_CLASS_LIST, getEntryAt(index));
+    ClassStubZipEntry.expandIkvmClasses(this, map);
+    if (!map.containsKey(IKVM_CLASS_LIST))
+      {
+        hiddenEntry = index;
+        stubEntries = map;
+      }
+  }
+
+  /**
+   * Reads len bytes at the given file position.  This does not use
+   * or change the file pointer of raf, so it needs no locking.
+   */
+  private void readFully(long position, byte[] buf, int off, int len)
+    throws IOException
+  {
+    ByteBuffer bb = ByteBuffer.wrap(buf, off, len);
+    while (bb.hasRemaining())
+      {
+        if (ch.read(bb, position + bb.position() - off) < 0)
+          throw new EOFException();
+      }
+  }
+
+  private static int get16(byte[] b, int off)
+  {
+    return (b[off] & 0xFF) | ((b[off + 1] & 0xFF) << 8);
+  }
+
+  private static int get32(byte[] b, int off)
+  {
+    return get16(b, off) | (get16(b, off + 2) << 16);
+  }
+
+  private static long get32u(byte[] b, int off)
+  {
+    return get32(b, off) & 0xffffffffL;
+  }
+
+  private static int hash(byte[] b, int off, int len)
+  {
+    int h = 0;
+    for (int end = off + len; off < end; off++)
+      h = 31 * h + b[off];
+    // spread the bits, the low bits are used to index the table
+    return h ^ (h >>> 16);
+  }
+
+  /**
+   * Returns the index of the entry with the given (encoded) name, or -1.
+   *
+   * @param efs if this is not null, only entries with (efs == true) or
+   * without (efs == false) the EFS flag are considered
+   */
+  private int getEntryIndex(byte[] name, Boolean efs)
+  {
+    byte[] cen = this.cen;
+    int[] table = this.table;
+    int mask = table.length - 1;
+    int slot = hash(name, 0, name.length) & mask;
+    for (int i; (i = table[slot]) != 0; slot = (slot + 1) & mask)
+      {
+        int p = entryPos[i - 1];
+        if (get16(cen, p + CENNAM) == name.length
+            && (efs == null || efs.booleanValue() == ((get16(cen, p + CENFLG) & EFS) != 0))
+            && regionEquals(cen, p + CENHDR, name))
+          return i - 1;
+      }
+    return -1;
+  }
+
+  private static boolean regionEquals(byte[] b, int off, byte[] name)
+  {
+    for (int i = 0; i < name.length; i++)
+      if (b[off + i] != name[i])
+        return false;
+    return true;
+  }
+
+  /**
+   * Returns the index of the entry with the given name, or -1.
+   */
+  private int getEntryIndex(String name)
+  {
+    int index;
+    if (charset == StandardCharsets.UTF_8)
+      {
+        index = getEntryIndex(name.getBytes(StandardCharsets.UTF_8), null);
+      }
+    else
+      {
+        // names of entries with the EFS flag are always UTF-8 encoded
+        index = getEntryIndex(name.getBytes(charset), Boolean.FALSE);
+        if (index == -1)
+          index = getEntryIndex(name.getBytes(StandardCharsets.UTF_8), Boolean.TRUE);
+      }
+    return index == hiddenEntry ? -1 : index;
+  }
+
+  /**
+   * Creates a new ZipEntry for the central directory record with the
+   * given index.
+   */
+  private ZipEntry getEntryAt(int index)
+  {
+    byte[] cen = this.cen;
+    int p = entryPos[index];
+    int flags = get16(cen, p + CENFLG);
+    boolean utf8 = (flags & EFS) != 0;
+    int nameLen = get16(cen, p + CENNAM);
+    int extraLen = get16(cen, p + CENEXT);
+    int commentLen = get16(cen, p + CENCOM);
+    ZipEntry entry = new ZipEntry();
+    entry.flag = flags;
+    entry.method = get16(cen, p + CENHOW);
+    entry.dostime = get32u(cen, p + CENTIM);
+    entry.crc = get32u(cen, p + CENCRC);
+    entry.csize = get32u(cen, p + CENSIZ);
+    entry.size = get32u(cen, p + CENLEN);
+    entry.offset = get32u(cen, p + CENOFF);
+    p += CENHDR;
+    entry.name = decodeChars(cen, p, nameLen, utf8);
+    p += nameLen;
+    if (extraLen > 0)
+      {
+        byte[] extra = Arrays.copyOfRange(cen, p, p + extraLen);
+        entry.setExtra0(extra, false);
+        readZip64ExtraField(entry, extra);
+        p += extraLen;
+      }
+    if (commentLen > 0)
+      {
+        entry.comment = decodeChars(cen, p, commentLen, utf8);
+      }
+    return entry;
+  }
+
+  /**
+   * Decode chars from byte buffer using charset encoding.  This
+   * operation is performance-critical since a jar file contains a
+   * large number of strings for the name of each file in the
+   * archive.  This routine therefore avoids using the expensive
+   * utf8Decoder when decoding is straightforward.
+   *
+   * @param buffer the buffer that contains the encoded character
+   *        data
+   * @param pos the index in buffer of the first byte of the encoded
+   *        data
+   * @param length the length of the encoded data in number of
+   *        bytes.
+   *
+   * @return a String that contains the decoded characters.
+   */
+  private String decodeChars(byte[] buffer, int pos, int length, boolean utf8)
+  {
+    if (!utf8 && charset != StandardCharsets.UTF_8)
+      return new String(buffer, pos, length, charset);
+
+    for (int i = pos; i < pos + length; i++)
+      {
+        if (buffer[i] <= 0)
+          return new String(buffer, pos, length, StandardCharsets.UTF_8);
+      }
+    return new String(buffer, 0, pos, length);
   }
 
   private static void readZip64ExtraField(ZipEntry entry, byte[] extra)
@@ -387,7 +600,10 @@ public class ZipFile implements ZipConstants, Closeable
     synchronized (raf)
       {
         closed = true;
-        entries = null;
+        cen = null;
+        entryPos = null;
+        table = null;
+        stubEntries = null;
         raf.close();
       }
   }
@@ -409,13 +625,14 @@ public class ZipFile implements ZipConstants, Closeable
   public Enumeration<? extends ZipEntry> entries()
   {
     checkClosed();
-    return new ZipEntryEnumeration(entries.values().iterator());
+    return new ZipEntryIterator();
   }
 
   public Stream<? extends ZipEntry> stream()
   {
     checkClosed();
-    return entries.values().stream();
+    return StreamSupport.stream(Spliterators.spliterator(new ZipEntryIterator(), size(),
+        Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.IMMUTABLE | Spliterator.NONNULL), false);
   }
 
   /**
@@ -430,11 +647,27 @@ public class ZipFile implements ZipConstants, Closeable
   public ZipEntry getEntry(String name)
   {
     checkClosed();
-    ZipEntry entry = entries.get(name);
+    ZipEntry entry = getEntry0(name);
     // If we didn't find it, maybe it's a directory.
     if (entry == null && !name.endsWith("/"))
-      entry = entries.get(name + '/');
-    return entry != null ? (ZipEntry)entry.clone() : null;
+      entry = getEntry0(name + '/');
+    return entry;
+  }
+
+  /**
+   * Returns a new ZipEntry for the entry with exactly the given name,
+   * or null.
+   */
+  private ZipEntry getEntry0(String name)
+  {
+    if (stubEntries != null)
+      {
+        ZipEntry entry = stubEntries.get(name);
+        if (entry != null)
+          return (ZipEntry)entry.clone();
+      }
+    int index = getEntryIndex(name);
+    return index == -1 ? null : getEntryAt(index);
   }
 
   /**
@@ -463,12 +696,17 @@ public class ZipFile implements ZipConstants, Closeable
   {
     checkClosed();
 
-    final ZipEntry zipEntry = entries.get(entry.getName());
-    if (zipEntry == null)
-      return null;
+    if (stubEntries != null)
+      {
+        ZipEntry stub = stubEntries.get(entry.getName());
+        if (stub != null)
+          return ((ClassStubZipEntry)stub).getInputStream();
+      }
 
-    if (zipEntry instanceof ClassStubZipEntry)
-      return ((ClassStubZipEntry)zipEntry).getInputStream();
+    int index = getEntryIndex(entry.getName());
+    if (index == -1)
+      return null;
+    final ZipEntry zipEntry = getEntryAt(index);
 
     PartialInputStream inp = new PartialInputStream(1024) {
         void lazyInitialSeek() throws IOException {
@@ -535,7 +773,10 @@ public class ZipFile implements ZipConstants, Closeable
   public int size()
   {
     checkClosed();
-    return entries.size();
+    int size = total;
+    if (stubEntries != null)
+      size += stubEntries.size() - 1;
+    return size;
   }
 
   /**
@@ -562,26 +803,45 @@ public class ZipFile implements ZipConstants, Closeable
       }
   }
 
-  private static class ZipEntryEnumeration implements Enumeration<ZipEntry>
+  private class ZipEntryIterator implements Enumeration<ZipEntry>, Iterator<ZipEntry>
   {
-    private final Iterator<ZipEntry> elements;
+    private int index;
+    private Iterator<ZipEntry> stubs;
 
-    public ZipEntryEnumeration(Iterator<ZipEntry> elements)
+    ZipEntryIterator()
     {
-      this.elements = elements;
+      if (stubEntries != null)
+        stubs = stubEntries.values().iterator();
     }
 
     public boolean hasMoreElements()
     {
-      return elements.hasNext();
+      return hasNext();
     }
 
     public ZipEntry nextElement()
     {
+      return next();
+    }
+
+    public boolean hasNext()
+    {
+      checkClosed();
+      if (index == hiddenEntry)
+        index++;
+      return index < total || (stubs != null && stubs.hasNext());
+    }
+
+    public ZipEntry next()
+    {
+      if (!hasNext())
+        throw new NoSuchElementException();
+      if (index < total)
+        return getEntryAt(index++);
       /* We return a clone, just to be safe that the user doesn't
        * change the entry.  
        */
-      return (ZipEntry) (elements.next().clone());
+      return (ZipEntry) (stubs.next().clone());
     }
   }
 
@@ -647,19 +907,15 @@ public class ZipFile implements ZipConstants, Closeable
       if (closed)
         throw new ZipException("ZipFile closed");
 
-      synchronized (raf)
+      long len = end - bufferOffset;
+      if (len == 0 && dummyByteCount > 0)
         {
-          long len = end - bufferOffset;
-          if (len == 0 && dummyByteCount > 0)
-            {
-              buffer[0] = 0;
-              dummyByteCount = 0;
-            }
-          else
-            {
-              raf.seek(bufferOffset);
-              raf.readFully(buffer, 0, (int) Math.min(buffer.length, len));
-            }
+          buffer[0] = 0;
+          dummyByteCount = 0;
+        }
+      else
+        {
+          ZipFile.this.readFully(bufferOffset, buffer, 0, (int) Math.min(buffer.length, len));
         }
     }
     
@@ -833,59 +1089,22 @@ public class ZipFile implements ZipConstants, Closeable
       return readLeUnsignedInt() | (readLeUnsignedInt() << 32);
     }
 
-    /**
-     * Decode chars from byte buffer using charset encoding.  This
-     * operation is performance-critical since a jar file contains a
-     * large number of strings for the name of each file in the
-     * archive.  This routine therefore avoids using the expensive
-     * utf8Decoder when decoding is straightforward.
-     *
-     * @param buffer the buffer that contains the encoded character
-     *        data
-     * @param pos the index in buffer of the first byte of the encoded
-     *        data
-     * @param length the length of the encoded data in number of
-     *        bytes.
-     *
-     * @return a String that contains the decoded characters.
-     */
-    private String decodeChars(byte[] buffer, int pos, int length, boolean utf8)
-      throws IOException
-    {
-      if (!utf8 && charset != StandardCharsets.UTF_8)
-        return new String(buffer, pos, length, charset);
-
-      for (int i = pos; i < pos + length; i++)
-        {
-          if (buffer[i] <= 0)
-            return new String(buffer, pos, length, "UTF-8");
-        }
-      return new String(buffer, 0, pos, length);
-    }
-
     String readString(int length, boolean utf8) throws IOException
     {
       if (length > end - (bufferOffset + pos))
         throw new EOFException();
 
-      String result = null;
-      try
+      String result;
+      if (buffer.length - pos >= length)
         {
-          if (buffer.length - pos >= length)
-            {
-              result = decodeChars(buffer, pos, length, utf8);
-              pos += length;
-            }
-          else
-            {
-              byte[] b = new byte[length];
-              readFully(b);
-              result = decodeChars(b, 0, length, utf8);
-            }
+          result = decodeChars(buffer, pos, length, utf8);
+          pos += length;
         }
-      catch (UnsupportedEncodingException uee)
+      else
         {
-          throw new AssertionError(uee);
+          byte[] b = new byte[length];
+          readFully(b);
+          result = decodeChars(b, 0, length, utf8);
         }
       return result;
     }
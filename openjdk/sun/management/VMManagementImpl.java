@@ -54,7 +54,9 @@ class VMManagementImpl implements VMManagement {
     private static boolean bootClassPathSupport;
     private static boolean objectMonitorUsageSupport;
     private static boolean synchronizerUsageSupport;
-    private static boolean threadAllocatedMemorySupport;
+    // GC.GetAllocatedBytesForCurrentThread only exists on newer versions of the CLR
+    private static boolean threadAllocatedMemorySupport =
+        ikvm.runtime.Util.getInstanceTypeFromClass(cli.System.GC.class).GetMethod("GetAllocatedBytesForCurrentThread") != null;
     private static boolean gcNotificationSupport;
     private static boolean remoteDiagnosticCommandsSupport;
 
@@ -108,7 +110,7 @@ class VMManagementImpl implements VMManagement {
     }
 
     public boolean isThreadAllocatedMemoryEnabled() {
-        return false;
+        return threadAllocatedMemorySupport;
     }
 
     // Class Loading Subsystem
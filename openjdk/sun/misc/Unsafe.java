@@ -33,7 +33,7 @@ import ikvm.lang.Internal;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.security.ProtectionDomain;
-import java.util.ArrayList;
+import java.util.Arrays;
 
 public final class Unsafe
 {
@@ -42,7 +42,11 @@ public final class Unsafe
     // NOTE sun.corba.Bridge actually access this field directly (via reflection),
     // so the name must match the JDK name.
     private static final Unsafe theUnsafe = new Unsafe();
-    private static final ArrayList<Field> fields = new ArrayList<Field>();
+    // the field ids are indexes into this array, it is only replaced (never modified
+    // below fieldCount) while holding fieldsLock, so getField() doesn't have to lock
+    private static volatile Field[] fields = new Field[16];
+    private static int fieldCount;
+    private static final Object fieldsLock = new Object();
 
     private Unsafe() { }
 
@@ -93,10 +97,17 @@ public final class Unsafe
     static int allocateUnsafeFieldId(Field original)
     {
         Field copy = copyFieldAndMakeAccessible(original);
-        synchronized(fields)
+        synchronized(fieldsLock)
         {
-            int id = fields.size();
-            fields.add(copy);
+            int id = fieldCount;
+            Field[] copies = fields;
+            if (id == copies.length)
+            {
+                copies = Arrays.copyOf(copies, id * 2);
+            }
+            copies[id] = copy;
+            fields = copies;
+            fieldCount = id + 1;
             return id;
         }
     }
@@ -131,70 +142,24 @@ public final class Unsafe
 
     static Field getField(long offset)
     {
-        synchronized(fields)
+        Field field = fields[(int)offset];
+        if (field == null)
         {
-            return fields.get((int)offset);
+            throw new ArrayIndexOutOfBoundsException((int)offset);
         }
+        return field;
     }
 
     public final native boolean compareAndSwapObject(Object obj, long offset, Object expect, Object update);
 
-    public void putObjectVolatile(Object obj, long offset, Object newValue)
-    {
-        if(obj instanceof Object[])
-        {
-            synchronized(this)
-            {
-                ((Object[])obj)[(int)offset] = newValue;
-            }
-        }
-        else
-        {
-            Field field = getField(offset);
-            synchronized(field)
-            {
-                try
-                {
-                    field.set(obj, newValue);
-                }
-                catch(IllegalAccessException x)
-                {
-                    throw (InternalError)new InternalError().initCause(x);
-                }
-            }
-        }
-    }
+    public native void putObjectVolatile(Object obj, long offset, Object newValue);
 
     public void putOrderedObject(Object obj, long offset, Object newValue)
     {
         putObjectVolatile(obj, offset, newValue);
     }
 
-    public Object getObjectVolatile(Object obj, long offset)
-    {
-        if(obj instanceof Object[])
-        {
-            synchronized(this)
-            {
-                return ((Object[])obj)[(int)offset];
-            }
-        }
-        else
-        {
-            Field field = getField(offset);
-            synchronized(field)
-            {
-                try
-                {
-                    return field.get(obj);
-                }
-                catch(IllegalAccessException x)
-                {
-                    throw (InternalError)new InternalError().initCause(x);
-                }
-            }
-        }
-    }
+    public native Object getObjectVolatile(Object obj, long offset);
 
     private static native short ReadInt16(Object obj, long offset);
     private static native int ReadInt32(Object obj, long offset);
@@ -205,121 +170,25 @@ public final class Unsafe
 
     public final native boolean compareAndSwapInt(Object obj, long offset, int expect, int update);
 
-    public void putIntVolatile(Object obj, long offset, int newValue)
-    {
-        if (obj instanceof cli.System.Array)
-        {
-            synchronized(this)
-            {
-                WriteInt32(obj, offset, newValue);
-            }
-        }
-        else
-        {
-            Field field = getField(offset);
-            synchronized(field)
-            {
-                try
-                {
-                    field.setInt(obj, newValue);
-                }
-                catch(IllegalAccessException x)
-                {
-                    throw (InternalError)new InternalError().initCause(x);
-                }
-            }
-        }
-    }
+    public native void putIntVolatile(Object obj, long offset, int newValue);
 
     public void putOrderedInt(Object obj, long offset, int newValue)
     {
         putIntVolatile(obj, offset, newValue);
     }
 
-    public int getIntVolatile(Object obj, long offset)
-    {
-        if (obj instanceof cli.System.Array)
-        {
-            synchronized(this)
-            {
-                return ReadInt32(obj, offset);
-            }
-        }
-        else
-        {
-            Field field = getField(offset);
-            synchronized(field)
-            {
-                try
-                {
-                    return field.getInt(obj);
-                }
-                catch(IllegalAccessException x)
-                {
-                    throw (InternalError)new InternalError().initCause(x);
-                }
-            }
-        }
-    }
+    public native int getIntVolatile(Object obj, long offset);
 
     public final native boolean compareAndSwapLong(Object obj, long offset, long expect, long update);
 
-    public void putLongVolatile(Object obj, long offset, long newValue)
-    {
-        if (obj instanceof cli.System.Array)
-        {
-            synchronized(this)
-            {
-                WriteInt64(obj, offset, newValue);
-            }
-        }
-        else
-        {
-            Field field = getField(offset);
-            synchronized(field)
-            {
-                try
-                {
-                    field.setLong(obj, newValue);
-                }
-                catch(IllegalAccessException x)
-                {
-                    throw (InternalError)new InternalError().initCause(x);
-                }
-            }
-        }
-    }
+    public native void putLongVolatile(Object obj, long offset, long newValue);
 
     public void putOrderedLong(Object obj, long offset, long newValue)
     {
         putLongVolatile(obj, offset, newValue);
     }
 
-    public long getLongVolatile(Object obj, long offset)
-    {
-        if (obj instanceof cli.System.Array)
-        {
-            synchronized(this)
-            {
-                return ReadInt64(obj, offset);
-            }
-        }
-        else
-        {
-            Field field = getField(offset);
-            synchronized(field)
-            {
-                try
-                {
-                    return field.getLong(obj);
-                }
-                catch(IllegalAccessException x)
-                {
-                    throw (InternalError)new InternalError().initCause(x);
-                }
-            }
-        }
-    }
+    public native long getLongVolatile(Object obj, long offset);
 
     public void putBoolean(Object obj, long offset, boolean newValue)
     {
@@ -340,10 +209,7 @@ public final class Unsafe
         }
     }
 
-    public void putBooleanVolatile(Object obj, long offset, boolean newValue)
-    {
-        putBoolean(obj, offset, newValue);
-    }
+    public native void putBooleanVolatile(Object obj, long offset, boolean newValue);
 
     public boolean getBoolean(Object obj, long offset)
     {
@@ -364,10 +230,7 @@ public final class Unsafe
         }
     }
 
-    public boolean getBooleanVolatile(Object obj, long offset)
-    {
-        return getBoolean(obj, offset);
-    }
+    public native boolean getBooleanVolatile(Object obj, long offset);
 
     public void putByte(Object obj, long offset, byte newValue)
     {
@@ -388,10 +251,7 @@ public final class Unsafe
         }
     }
 
-    public void putByteVolatile(Object obj, long offset, byte newValue)
-    {
-        putByte(obj, offset, newValue);
-    }
+    public native void putByteVolatile(Object obj, long offset, byte newValue);
 
     public byte getByte(Object obj, long offset)
     {
@@ -412,10 +272,7 @@ public final class Unsafe
         }
     }
 
-    public byte getByteVolatile(Object obj, long offset)
-    {
-        return getByte(obj, offset);
-    }
+    public native byte getByteVolatile(Object obj, long offset);
 
     public void putChar(Object obj, long offset, char newValue)
     {
@@ -436,10 +293,7 @@ public final class Unsafe
         }
     }
 
-    public void putCharVolatile(Object obj, long offset, char newValue)
-    {
-        putChar(obj, offset, newValue);
-    }
+    public native void putCharVolatile(Object obj, long offset, char newValue);
 
     public char getChar(Object obj, long offset)
     {
@@ -460,10 +314,7 @@ public final class Unsafe
         }
     }
 
-    public char getCharVolatile(Object obj, long offset)
-    {
-        return getChar(obj, offset);
-    }
+    public native char getCharVolatile(Object obj, long offset);
 
     public void putShort(Object obj, long offset, short newValue)
     {
@@ -484,10 +335,7 @@ public final class Unsafe
         }
     }
 
-    public void putShortVolatile(Object obj, long offset, short newValue)
-    {
-        putShort(obj, offset, newValue);
-    }
+    public native void putShortVolatile(Object obj, long offset, short newValue);
 
     public short getShort(Object obj, long offset)
     {
@@ -508,10 +356,7 @@ public final class Unsafe
         }
     }
 
-    public short getShortVolatile(Object obj, long offset)
-    {
-        return getShort(obj, offset);
-    }
+    public native short getShortVolatile(Object obj, long offset);
 
     public void putInt(Object obj, long offset, int newValue)
     {
@@ -570,10 +415,7 @@ public final class Unsafe
         }
     }
 
-    public void putFloatVolatile(Object obj, long offset, float newValue)
-    {
-        putFloat(obj, offset, newValue);
-    }
+    public native void putFloatVolatile(Object obj, long offset, float newValue);
 
     public float getFloat(Object obj, long offset)
     {
@@ -594,10 +436,7 @@ public final class Unsafe
         }
     }
 
-    public float getFloatVolatile(Object obj, long offset)
-    {
-        return getFloat(obj, offset);
-    }
+    public native float getFloatVolatile(Object obj, long offset);
 
     public void putLong(Object obj, long offset, long newValue)
     {
@@ -656,13 +495,7 @@ public final class Unsafe
         }
     }
 
-    public void putDoubleVolatile(Object obj, long offset, double newValue)
-    {
-        synchronized (this)
-        {
-            putDouble(obj, offset, newValue);
-        }
-    }
+    public native void putDoubleVolatile(Object obj, long offset, double newValue);
 
     public double getDouble(Object obj, long offset)
     {
@@ -683,13 +516,7 @@ public final class Unsafe
         }
     }
 
-    public double getDoubleVolatile(Object obj, long offset)
-    {
-        synchronized (this)
-        {
-            return getDouble(obj, offset);
-        }
-    }
+    public native double getDoubleVolatile(Object obj, long offset);
 
     public void putObject(Object obj, long offset, Object newValue)
     {
@@ -43,8 +43,21 @@ public class DefaultSelectorProvider {
 
     /**
      * Returns the default SelectorProvider.
+     *
+     * The epoll based selector is used where it is available, unless the
+     * ikvm.nio.ch.selector property is set to "select" to force the
+     * Socket.Select based implementation.
      */
     public static SelectorProvider create() {
+        String selector = java.security.AccessController.doPrivileged(
+            new sun.security.action.GetPropertyAction("ikvm.nio.ch.selector", ""));
+        if (!selector.equals("select") && EPollSelectorImpl.isAvailable()) {
+            return new SelectorProviderImpl() {
+                public AbstractSelector openSelector() throws IOException {
+                    return new EPollSelectorImpl(this);
+                }
+            };
+        }
         return new SelectorProviderImpl() {
             public AbstractSelector openSelector() throws IOException {
                 return new DotNetSelectorImpl(this);
@@ -0,0 +1,436 @@
+/*
+  Copyright (C) 2026 agent
+
+  This software is provided 'as-is', without any express or implied
+  warranty.  In no event will the authors be held liable for any damages
+  arising from the use of this software.
+
+  Permission is granted to anyone to use this software for any purpose,
+  including commercial applications, and to alter it and redistribute it
+  freely, subject to the following restrictions:
+
+  1. The origin of this software must not be misrepresented; you must not
+     claim that you wrote the original software. If you use this software
+     in a product, an acknowledgment in the product documentation would be
+     appreciated but is not required.
+  2. Altered source versions must be plainly marked as such, and must not be
+     misrepresented as being the original software.
+  3. This notice may not be removed or altered from any source distribution.
+
+  Jeroen Frijters
+  jeroen@frijters.net
+
+*/
+
+package sun.nio.ch;
+
+import cli.System.IntPtr;
+import cli.System.Net.Sockets.Socket;
+import cli.System.Runtime.InteropServices.DllImportAttribute;
+import cli.System.Runtime.InteropServices.Marshal;
+import java.io.IOException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.Pipe;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.Selector;
+import java.nio.channels.spi.SelectorProvider;
+import java.util.HashMap;
+import java.util.Iterator;
+
+/*
+ * Linux epoll based Selector. Unlike DotNetSelectorImpl (which rebuilds the
+ * Socket.Select lists on every call) the interest set lives in the kernel and
+ * is updated incrementally from putEventOps, so the cost of a select is
+ * proportional to the number of ready channels, not registered channels.
+ */
+final class EPollSelectorImpl extends SelectorImpl
+{
+    private static final int EPOLL_CTL_ADD = 1;
+    private static final int EPOLL_CTL_DEL = 2;
+    private static final int EPOLL_CTL_MOD = 3;
+
+    private static final int EPOLLIN = 0x001;
+    private static final int EPOLLOUT = 0x004;
+    private static final int EPOLLERR = 0x008;
+    private static final int EPOLLHUP = 0x010;
+
+    private static final int EINTR = 4;
+    private static final int EPOLL_CLOEXEC = 0x80000;
+
+    // struct epoll_event is packed on x86 and x64, but naturally aligned elsewhere
+    private static final int SIZEOF_EPOLLEVENT;
+    private static final int DATA_OFFSET;
+    static
+    {
+        String arch = System.getProperty("os.arch", "");
+        if (arch.equals("amd64") || arch.equals("x86_64") || arch.equals("x86") || arch.equals("i386"))
+        {
+            SIZEOF_EPOLLEVENT = 12;
+            DATA_OFFSET = 4;
+        }
+        else
+        {
+            SIZEOF_EPOLLEVENT = 16;
+            DATA_OFFSET = 8;
+        }
+    }
+
+    // maximum number of events returned by a single epoll_wait
+    private static final int MAX_EVENTS = 1024;
+
+    private static Boolean available;
+
+    private int epfd;
+    private final IntPtr eventBuffer;
+    private final IntPtr ctlBuffer;
+
+    // Pipe used as a wakeup object.
+    private final Pipe wakeupPipe;
+
+    // Socket corresponding to source and sink
+    private final Socket wakeupSourceFd, wakeupSinkFd;
+    private final int wakeupSourceHandle;
+
+    // Lock for interrupt triggering and clearing
+    private final Object interruptLock = new Object();
+    private volatile boolean interruptTriggered = false;
+
+    // Lock for the epoll_ctl updates, these can come from any thread
+    private final Object updateLock = new Object();
+
+    // class for fdMap entries
+    private final static class MapEntry
+    {
+        final SelectionKeyImpl ski;
+        final int fd;
+        int registeredEvents;
+        MapEntry(SelectionKeyImpl ski, int fd)
+        {
+            this.ski = ski;
+            this.fd = fd;
+        }
+    }
+    private final HashMap<Integer, MapEntry> fdMap = new HashMap<Integer, MapEntry>();
+    // the fd is looked up by key, because the socket of a deregistered key may already be closed
+    private final HashMap<SelectionKeyImpl, MapEntry> keyMap = new HashMap<SelectionKeyImpl, MapEntry>();
+
+    @cli.System.Security.SecuritySafeCriticalAttribute.Annotation
+    EPollSelectorImpl(SelectorProvider sp) throws IOException
+    {
+        super(sp);
+        epfd = epoll_create1(EPOLL_CLOEXEC);
+        if (epfd < 0)
+        {
+            throw new IOException("epoll_create1 failed (errno " + Marshal.GetLastWin32Error() + ")");
+        }
+        eventBuffer = Marshal.AllocHGlobal(MAX_EVENTS * SIZEOF_EPOLLEVENT);
+        ctlBuffer = Marshal.AllocHGlobal(SIZEOF_EPOLLEVENT);
+        wakeupPipe = Pipe.open();
+        wakeupSourceFd = ((SelChImpl)wakeupPipe.source()).getFD().getSocket();
+
+        // Disable the Nagle algorithm so that the wakeup is more immediate
+        SinkChannelImpl sink = (SinkChannelImpl)wakeupPipe.sink();
+        (sink.sc).socket().setTcpNoDelay(true);
+        wakeupSinkFd = ((SelChImpl)sink).getFD().getSocket();
+        wakeupSourceHandle = wakeupSourceFd.get_Handle().ToInt32();
+        ctl(EPOLL_CTL_ADD, wakeupSourceHandle, EPOLLIN);
+    }
+
+    // Returns true if epoll is usable on the current platform.
+    @cli.System.Security.SecuritySafeCriticalAttribute.Annotation
+    static synchronized boolean isAvailable()
+    {
+        if (available == null)
+        {
+            boolean result = false;
+            try
+            {
+                if (ikvm.internal.Util.WINDOWS)
+                {
+                    return false;
+                }
+                if (false) throw new cli.System.DllNotFoundException();
+                if (false) throw new cli.System.EntryPointNotFoundException();
+                int fd = epoll_create1(EPOLL_CLOEXEC);
+                if (fd >= 0)
+                {
+                    closeFd(fd);
+                    result = true;
+                }
+            }
+            catch (cli.System.DllNotFoundException _)
+            {
+            }
+            catch (cli.System.EntryPointNotFoundException _)
+            {
+            }
+            finally
+            {
+                available = Boolean.valueOf(result);
+            }
+        }
+        return available.booleanValue();
+    }
+
+    @cli.System.Security.SecuritySafeCriticalAttribute.Annotation
+    protected int doSelect(long timeout) throws IOException
+    {
+        if (epfd < 0)
+            throw new ClosedSelectorException();
+        processDeregisterQueue();
+        if (interruptTriggered)
+        {
+            resetWakeupSocket();
+            return 0;
+        }
+
+        int count;
+        try
+        {
+            begin();
+            int millis = timeout < 0 ? -1 : (int)Math.min(Integer.MAX_VALUE, timeout);
+            count = epoll_wait(epfd, eventBuffer, MAX_EVENTS, millis);
+            if (count < 0)
+            {
+                int errno = Marshal.GetLastWin32Error();
+                if (errno != EINTR)
+                {
+                    throw new IOException("epoll_wait failed (errno " + errno + ")");
+                }
+                count = 0;
+            }
+        }
+        finally
+        {
+            end();
+        }
+        processDeregisterQueue();
+        int updated = updateSelectedKeys(count);
+        // Done with epoll_wait(). Set wakeupSocket to nonsignaled for the next run.
+        resetWakeupSocket();
+        return updated;
+    }
+
+    private int updateSelectedKeys(int count)
+    {
+        int numKeysUpdated = 0;
+        for (int i = 0; i < count; i++)
+        {
+            int offset = i * SIZEOF_EPOLLEVENT;
+            int events = Marshal.ReadInt32(eventBuffer, offset);
+            int fd = Marshal.ReadInt32(eventBuffer, offset + DATA_OFFSET);
+            if (fd == wakeupSourceHandle)
+            {
+                synchronized (interruptLock)
+                {
+                    interruptTriggered = true;
+                }
+                continue;
+            }
+            MapEntry me = fdMap.get(fd);
+            // If me is null, the key was deregistered in the previous
+            // processDeregisterQueue.
+            if (me == null)
+                continue;
+            SelectionKeyImpl sk = me.ski;
+            int rOps = toPollOps(events);
+            if (selectedKeys.contains(sk))
+            {
+                if (sk.channel.translateAndUpdateReadyOps(rOps, sk))
+                {
+                    numKeysUpdated++;
+                }
+            }
+            else
+            {
+                sk.channel.translateAndSetReadyOps(rOps, sk);
+                if ((sk.nioReadyOps() & sk.nioInterestOps()) != 0)
+                {
+                    selectedKeys.add(sk);
+                    numKeysUpdated++;
+                }
+            }
+        }
+        return numKeysUpdated;
+    }
+
+    private static int toPollOps(int events)
+    {
+        int ops = 0;
+        if ((events & EPOLLIN) != 0)
+            ops |= Net.POLLIN;
+        if ((events & EPOLLOUT) != 0)
+            ops |= Net.POLLOUT | Net.POLLCONN;
+        if ((events & EPOLLERR) != 0)
+            ops |= Net.POLLERR;
+        if ((events & EPOLLHUP) != 0)
+            ops |= Net.POLLHUP;
+        return ops;
+    }
+
+    private static int toEPollEvents(int ops)
+    {
+        int events = 0;
+        if ((ops & Net.POLLIN) != 0)
+            events |= EPOLLIN;
+        if ((ops & (Net.POLLOUT | Net.POLLCONN)) != 0)
+            events |= EPOLLOUT;
+        return events;
+    }
+
+    public void putEventOps(SelectionKeyImpl ski, int ops)
+    {
+        synchronized (updateLock)
+        {
+            if (epfd < 0)
+                throw new ClosedSelectorException();
+            MapEntry me = keyMap.get(ski);
+            if (me == null)
+                return;
+            int events = toEPollEvents(ops);
+            if (events == me.registeredEvents)
+                return;
+            if (me.registeredEvents == 0)
+            {
+                ctl(EPOLL_CTL_ADD, me.fd, events);
+            }
+            else if (events == 0)
+            {
+                ctl(EPOLL_CTL_DEL, me.fd, 0);
+            }
+            else
+            {
+                ctl(EPOLL_CTL_MOD, me.fd, events);
+            }
+            me.registeredEvents = events;
+        }
+    }
+
+    @cli.System.Security.SecuritySafeCriticalAttribute.Annotation
+    private void ctl(int op, int fd, int events)
+    {
+        // updateLock (or the constructor) guards ctlBuffer
+        Marshal.WriteInt32(ctlBuffer, 0, events);
+        Marshal.WriteInt64(ctlBuffer, DATA_OFFSET, fd & 0xFFFFFFFFL);
+        // failures are ignored, the socket may already have been closed
+        // (which implicitly removes it from the epoll set)
+        epoll_ctl(epfd, op, fd, ctlBuffer);
+    }
+
+    @cli.System.Security.SecuritySafeCriticalAttribute.Annotation
+    protected void implClose() throws IOException
+    {
+        if (epfd >= 0)
+        {
+            // prevent further wakeup
+            synchronized (interruptLock)
+            {
+                interruptTriggered = true;
+            }
+            wakeupPipe.sink().close();
+            wakeupPipe.source().close();
+            synchronized (updateLock)
+            {
+                closeFd(epfd);
+                epfd = -1;
+                Marshal.FreeHGlobal(eventBuffer);
+                Marshal.FreeHGlobal(ctlBuffer);
+            }
+            for (Iterator<MapEntry> it = fdMap.values().iterator(); it.hasNext(); )
+            { // Deregister channels
+                SelectionKeyImpl ski = it.next().ski;
+                it.remove();
+                keyMap.remove(ski);
+                deregister(ski);
+                SelectableChannel selch = ski.channel();
+                if (!selch.isOpen() && !selch.isRegistered())
+                    ((SelChImpl)selch).kill();
+            }
+            selectedKeys = null;
+        }
+    }
+
+    protected void implRegister(SelectionKeyImpl ski)
+    {
+        if (epfd < 0)
+            throw new ClosedSelectorException();
+        int fd = ski.getSocket().get_Handle().ToInt32();
+        synchronized (updateLock)
+        {
+            MapEntry me = new MapEntry(ski, fd);
+            fdMap.put(fd, me);
+            keyMap.put(ski, me);
+        }
+        keys.add(ski);
+    }
+
+    protected void implDereg(SelectionKeyImpl ski) throws IOException
+    {
+        synchronized (updateLock)
+        {
+            MapEntry me = keyMap.remove(ski);
+            // if the socket was closed, its fd may since have been reused by a channel registered
+            // later, in that case we must leave the fd (and its epoll registration) alone
+            if (me != null && fdMap.get(me.fd) == me)
+            {
+                fdMap.remove(me.fd);
+                if (me.registeredEvents != 0 && epfd >= 0)
+                {
+                    ctl(EPOLL_CTL_DEL, me.fd, 0);
+                }
+            }
+        }
+        keys.remove(ski);
+        selectedKeys.remove(ski);
+        deregister(ski);
+        SelectableChannel selch = ski.channel();
+        if (!selch.isOpen() && !selch.isRegistered())
+        {
+            ((SelChImpl)selch).kill();
+        }
+    }
+
+    public Selector wakeup()
+    {
+        synchronized (interruptLock)
+        {
+            if (!interruptTriggered)
+            {
+                setWakeupSocket();
+                interruptTriggered = true;
+            }
+        }
+        return this;
+    }
+
+    // Sets wakeup socket to a signaled state.
+    private void setWakeupSocket() {
+        wakeupSinkFd.Send(new byte[1]);
+    }
+
+    // Sets wakeup socket to a non-signaled state.
+    private void resetWakeupSocket() {
+        synchronized (interruptLock)
+        {
+            if (interruptTriggered == false)
+                return;
+            while (wakeupSourceFd.get_Available() > 0)
+            {
+                wakeupSourceFd.Receive(new byte[1]);
+            }
+            interruptTriggered = false;
+        }
+    }
+
+    @DllImportAttribute.Annotation(value="libc", SetLastError=true)
+    private static native int epoll_create1(int flags);
+
+    @DllImportAttribute.Annotation(value="libc", SetLastError=true)
+    private static native int epoll_ctl(int epfd, int op, int fd, IntPtr event);
+
+    @DllImportAttribute.Annotation(value="libc", SetLastError=true)
+    private static native int epoll_wait(int epfd, IntPtr events, int maxevents, int timeout);
+
+    @DllImportAttribute.Annotation(value="libc", EntryPoint="close", SetLastError=true)
+    private static native int closeFd(int fd);
+}
@@ -33,6 +33,7 @@ import java.io.FileDescriptor;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.MappedByteBuffer;
+import java.nio.channels.AsynchronousCloseException;
 import java.nio.channels.ClosedByInterruptException;
 import java.nio.channels.ClosedChannelException;
 import java.nio.channels.FileChannel;
@@ -82,6 +83,10 @@ public class FileChannelImpl
     // Lock for operations involving position and size
     private final Object positionLock = new Object();
 
+    // Set by users, such as ZipFile, that share the channel between
+    // threads and must not have it closed when one of them is interrupted
+    private volatile boolean uninterruptible;
+
     private FileChannelImpl(FileDescriptor fd, String path, boolean readable,
                             boolean writable, boolean append, Object parent)
     {
@@ -110,6 +115,22 @@ public class FileChannelImpl
         return new FileChannelImpl(fd, path, readable, writable, append, parent);
     }
 
+    public void setUninterruptible() {
+        uninterruptible = true;
+    }
+
+    private void beginBlocking() {
+        if (!uninterruptible)
+            begin();
+    }
+
+    private void endBlocking(boolean completed)
+        throws AsynchronousCloseException
+    {
+        if (!uninterruptible)
+            end(completed);
+    }
+
     private void ensureOpen() throws IOException {
         if (!isOpen())
             throw new ClosedChannelException();
@@ -156,7 +177,7 @@ public class FileChannelImpl
             int n = 0;
             int ti = -1;
             try {
-                begin();
+                beginBlocking();
                 ti = threads.add();
                 if (!isOpen())
                     return 0;
@@ -166,7 +187,7 @@ public class FileChannelImpl
                 return IOStatus.normalize(n);
             } finally {
                 threads.remove(ti);
-                end(n > 0);
+                endBlocking(n > 0);
                 assert IOStatus.check(n);
             }
         }
@@ -184,7 +205,7 @@ public class FileChannelImpl
             long n = 0;
             int ti = -1;
             try {
-                begin();
+                beginBlocking();
                 ti = threads.add();
                 if (!isOpen())
                     return 0;
@@ -194,7 +215,7 @@ public class FileChannelImpl
                 return IOStatus.normalize(n);
             } finally {
                 threads.remove(ti);
-                end(n > 0);
+                endBlocking(n > 0);
                 assert IOStatus.check(n);
             }
         }
@@ -208,7 +229,7 @@ public class FileChannelImpl
             int n = 0;
             int ti = -1;
             try {
-                begin();
+                beginBlocking();
                 ti = threads.add();
                 if (!isOpen())
                     return 0;
@@ -218,7 +239,7 @@ public class FileChannelImpl
                 return IOStatus.normalize(n);
             } finally {
                 threads.remove(ti);
-                end(n > 0);
+                endBlocking(n > 0);
                 assert IOStatus.check(n);
             }
         }
@@ -236,7 +257,7 @@ public class FileChannelImpl
             long n = 0;
             int ti = -1;
             try {
-                begin();
+                beginBlocking();
                 ti = threads.add();
                 if (!isOpen())
                     return 0;
@@ -246,7 +267,7 @@ public class FileChannelImpl
                 return IOStatus.normalize(n);
             } finally {
                 threads.remove(ti);
-                end(n > 0);
+                endBlocking(n > 0);
                 assert IOStatus.check(n);
             }
         }
@@ -260,7 +281,7 @@ public class FileChannelImpl
             long p = -1;
             int ti = -1;
             try {
-                begin();
+                beginBlocking();
                 ti = threads.add();
                 if (!isOpen())
                     return 0;
@@ -271,7 +292,7 @@ public class FileChannelImpl
                 return IOStatus.normalize(p);
             } finally {
                 threads.remove(ti);
-                end(p > -1);
+                endBlocking(p > -1);
                 assert IOStatus.check(p);
             }
         }
@@ -285,7 +306,7 @@ public class FileChannelImpl
             long p = -1;
             int ti = -1;
             try {
-                begin();
+                beginBlocking();
                 ti = threads.add();
                 if (!isOpen())
                     return null;
@@ -295,7 +316,7 @@ public class FileChannelImpl
                 return this;
             } finally {
                 threads.remove(ti);
-                end(p > -1);
+                endBlocking(p > -1);
                 assert IOStatus.check(p);
             }
         }
@@ -307,7 +328,7 @@ public class FileChannelImpl
             long s = -1;
             int ti = -1;
             try {
-                begin();
+                beginBlocking();
                 ti = threads.add();
                 if (!isOpen())
                     return -1;
@@ -317,7 +338,7 @@ public class FileChannelImpl
                 return IOStatus.normalize(s);
             } finally {
                 threads.remove(ti);
-                end(s > -1);
+                endBlocking(s > -1);
                 assert IOStatus.check(s);
             }
         }
@@ -334,7 +355,7 @@ public class FileChannelImpl
             long p = -1;
             int ti = -1;
             try {
-                begin();
+                beginBlocking();
                 ti = threads.add();
                 if (!isOpen())
                     return null;
@@ -377,7 +398,7 @@ public class FileChannelImpl
                 return this;
             } finally {
                 threads.remove(ti);
-                end(rv > -1);
+                endBlocking(rv > -1);
                 assert IOStatus.check(rv);
             }
         }
@@ -388,7 +409,7 @@ public class FileChannelImpl
         int rv = -1;
         int ti = -1;
         try {
-            begin();
+            beginBlocking();
             ti = threads.add();
             if (!isOpen())
                 return;
@@ -397,11 +418,125 @@ public class FileChannelImpl
             } while ((rv == IOStatus.INTERRUPTED) && isOpen());
         } finally {
             threads.remove(ti);
-            end(rv > -1);
+            endBlocking(rv > -1);
             assert IOStatus.check(rv);
         }
     }
 
+    // -- Transfers --
+
+    // Maximum size to map when using a mapped buffer
+    private static final long MAPPED_TRANSFER_SIZE = 8L*1024L*1024L;
+
+    // Size of the heap buffer used when neither a direct nor a mapped
+    // transfer is possible, can be tuned with ikvm.nio.ch.transferSize
+    private static final int TRANSFER_SIZE = getTransferSize();
+
+    private static int getTransferSize() {
+        String s = AccessController.doPrivileged(
+            new GetPropertyAction("ikvm.nio.ch.transferSize"));
+        if (s != null) {
+            try {
+                int size = Integer.parseInt(s);
+                if (size > 0)
+                    return size;
+            } catch (NumberFormatException _) {
+            }
+        }
+        return 64 * 1024;
+    }
+
+    // Set to false if sendfile is not available
+    private static volatile boolean transferSupported = !win32;
+
+    private long transferToDirectly(long position, int icount,
+                                    WritableByteChannel target)
+        throws IOException
+    {
+        if (!transferSupported)
+            return IOStatus.UNSUPPORTED;
+
+        // sendfile is only used for blocking sockets, because the socket
+        // may be in non-blocking mode only from the .NET point of view
+        if (!(target instanceof SocketChannelImpl))
+            return IOStatus.UNSUPPORTED_CASE;
+        FileDescriptor targetFD = ((SelChImpl)target).getFD();
+        if (!targetFD.isSocketBlocking())
+            return IOStatus.UNSUPPORTED_CASE;
+
+        long n = -1;
+        int ti = -1;
+        try {
+            beginBlocking();
+            ti = threads.add();
+            if (!isOpen())
+                return -1;
+            do {
+                n = transferTo0(fd, position, icount, targetFD);
+            } while ((n == IOStatus.INTERRUPTED) && isOpen());
+            if (n == IOStatus.UNSUPPORTED) {
+                // Don't bother trying again
+                transferSupported = false;
+                return IOStatus.UNSUPPORTED;
+            }
+            if (n == IOStatus.UNSUPPORTED_CASE) {
+                return IOStatus.UNSUPPORTED_CASE;
+            }
+            return IOStatus.normalize(n);
+        } finally {
+            threads.remove(ti);
+            endBlocking(n > -1);
+        }
+    }
+
+    private long transferToTrustedChannel(long position, long count,
+                                          WritableByteChannel target)
+        throws IOException
+    {
+        boolean isSelChImpl = (target instanceof SelChImpl);
+        if (!((target instanceof FileChannelImpl) || isSelChImpl))
+            return IOStatus.UNSUPPORTED;
+
+        // Trusted target: Use a mapped buffer
+        long remaining = count;
+        while (remaining > 0L) {
+            long size = Math.min(remaining, MAPPED_TRANSFER_SIZE);
+            try {
+                MappedByteBuffer dbb = map(MapMode.READ_ONLY, position, size);
+                try {
+                    // ## Bug: Closing this channel will not terminate the write
+                    int n = target.write(dbb);
+                    assert n >= 0;
+                    remaining -= n;
+                    if (isSelChImpl) {
+                        // one attempt to write to selectable channel
+                        break;
+                    }
+                    assert n > 0;
+                    position += n;
+                } finally {
+                    unmap(dbb);
+                }
+            } catch (ClosedByInterruptException e) {
+                // target closed by interrupt as ClosedByInterruptException needs
+                // to be thrown after closing this channel.
+                assert !target.isOpen();
+                try {
+                    close();
+                } catch (Throwable suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+                throw e;
+            } catch (IOException ioe) {
+                // Only throw exception if no bytes have been written
+                if (remaining == count)
+                    throw ioe;
+                break;
+            }
+        }
+        return count - remaining;
+    }
+
     private long transferToArbitraryChannel(long position, int icount,
                                             WritableByteChannel target)
         throws IOException
@@ -456,6 +591,16 @@ public class FileChannelImpl
         if ((sz - position) < icount)
             icount = (int)(sz - position);
 
+        long n;
+
+        // Attempt a direct transfer, if the kernel supports it
+        if ((n = transferToDirectly(position, icount, target)) >= 0)
+            return n;
+
+        // Attempt a mapped transfer, but only to trusted channel types
+        if ((n = transferToTrustedChannel(position, icount, target)) >= 0)
+            return n;
+
         // Slow path for untrusted targets
         return transferToArbitraryChannel(position, icount, target);
     }
@@ -466,11 +611,37 @@ public class FileChannelImpl
     {
         if (!src.readable)
             throw new NonReadableChannelException();
-        return transferFromArbitraryChannel(src, position, count);
+        synchronized (src.positionLock) {
+            long pos = src.position();
+            long max = Math.min(count, src.size() - pos);
+
+            long remaining = max;
+            long p = pos;
+            while (remaining > 0L) {
+                long size = Math.min(remaining, MAPPED_TRANSFER_SIZE);
+                // ## Bug: Closing this channel will not terminate the write
+                MappedByteBuffer bb = src.map(MapMode.READ_ONLY, p, size);
+                try {
+                    long n = write(bb, position);
+                    assert n > 0;
+                    p += n;
+                    position += n;
+                    remaining -= n;
+                } catch (IOException ioe) {
+                    // Only throw exception if no bytes have been written
+                    if (remaining == max)
+                        throw ioe;
+                    break;
+                } finally {
+                    unmap(bb);
+                }
+            }
+            long nwritten = max - remaining;
+            src.position(pos + nwritten);
+            return nwritten;
+        }
     }
 
-    private static final int TRANSFER_SIZE = 8192;
-
     private long transferFromArbitraryChannel(ReadableByteChannel src,
                                               long position, long count)
         throws IOException
@@ -532,7 +703,7 @@ public class FileChannelImpl
         if (!readable)
             throw new NonReadableChannelException();
         ensureOpen();
-        if (nd.needsPositionLock()) {
+        if (nd.needsPositionLock(fd)) {
             synchronized (positionLock) {
                 return readInternal(dst, position);
             }
@@ -542,11 +713,11 @@ public class FileChannelImpl
     }
 
     private int readInternal(ByteBuffer dst, long position) throws IOException {
-        assert !nd.needsPositionLock() || Thread.holdsLock(positionLock);
+        assert !nd.needsPositionLock(fd) || Thread.holdsLock(positionLock);
         int n = 0;
         int ti = -1;
         try {
-            begin();
+            beginBlocking();
             ti = threads.add();
             if (!isOpen())
                 return -1;
@@ -556,7 +727,7 @@ public class FileChannelImpl
             return IOStatus.normalize(n);
         } finally {
             threads.remove(ti);
-            end(n > 0);
+            endBlocking(n > 0);
             assert IOStatus.check(n);
         }
     }
@@ -569,7 +740,7 @@ public class FileChannelImpl
         if (!writable)
             throw new NonWritableChannelException();
         ensureOpen();
-        if (nd.needsPositionLock()) {
+        if (nd.needsPositionLock(fd)) {
             synchronized (positionLock) {
                 return writeInternal(src, position);
             }
@@ -579,11 +750,11 @@ public class FileChannelImpl
     }
 
     private int writeInternal(ByteBuffer src, long position) throws IOException {
-        assert !nd.needsPositionLock() || Thread.holdsLock(positionLock);
+        assert !nd.needsPositionLock(fd) || Thread.holdsLock(positionLock);
         int n = 0;
         int ti = -1;
         try {
-            begin();
+            beginBlocking();
             ti = threads.add();
             if (!isOpen())
                 return -1;
@@ -593,7 +764,7 @@ public class FileChannelImpl
             return IOStatus.normalize(n);
         } finally {
             threads.remove(ti);
-            end(n > 0);
+            endBlocking(n > 0);
             assert IOStatus.check(n);
         }
     }
@@ -697,7 +868,7 @@ public class FileChannelImpl
         long addr = -1;
         int ti = -1;
         try {
-            begin();
+            beginBlocking();
             ti = threads.add();
             if (!isOpen())
                 return null;
@@ -781,7 +952,7 @@ public class FileChannelImpl
             }
         } finally {
             threads.remove(ti);
-            end(IOStatus.checkAll(addr));
+            endBlocking(IOStatus.checkAll(addr));
         }
     }
 
@@ -877,7 +1048,7 @@ public class FileChannelImpl
         boolean completed = false;
         int ti = -1;
         try {
-            begin();
+            beginBlocking();
             ti = threads.add();
             if (!isOpen())
                 return null;
@@ -900,7 +1071,7 @@ public class FileChannelImpl
                 flt.remove(fli);
             threads.remove(ti);
             try {
-                end(completed);
+                endBlocking(completed);
             } catch (ClosedByInterruptException e) {
                 throw new FileLockInterruptionException();
             }
@@ -1130,6 +1301,58 @@ public class FileChannelImpl
         return 0;
     }
 
+    // Transfers from src to dst, or returns -2 if kernel can't do that
+    @cli.System.Security.SecuritySafeCriticalAttribute.Annotation
+    private static long transferTo0(FileDescriptor src, long position, long count, FileDescriptor dst)
+    {
+        final int EINTR = 4;
+        final int ENOSYS = 38;
+        FileStream fs = (FileStream)src.getStream();
+        cli.System.Net.Sockets.Socket socket = dst.getSocket();
+        if (fs == null || socket == null)
+        {
+            return IOStatus.UNSUPPORTED_CASE;
+        }
+        long[] offset = { position };
+        long n;
+        try
+        {
+            if (false) throw new cli.System.DllNotFoundException();
+            if (false) throw new cli.System.EntryPointNotFoundException();
+            n = sendfile(socket.get_Handle(), fs.get_SafeFileHandle(), offset, IntPtr.op_Explicit(count)).ToInt64();
+        }
+        catch (cli.System.DllNotFoundException
+            | cli.System.EntryPointNotFoundException _)
+        {
+            return IOStatus.UNSUPPORTED;
+        }
+        finally
+        {
+            cli.System.GC.KeepAlive(fs);
+            cli.System.GC.KeepAlive(socket);
+        }
+        if (n < 0)
+        {
+            int errno = cli.System.Runtime.InteropServices.Marshal.GetLastWin32Error();
+            switch (errno)
+            {
+                case EINTR:
+                    return IOStatus.INTERRUPTED;
+                case ENOSYS:
+                    return IOStatus.UNSUPPORTED;
+                default:
+                    // this includes EAGAIN, the runtime may have put the
+                    // underlying socket in non-blocking mode, so we let
+                    // the mapped transfer deal with it
+                    return IOStatus.UNSUPPORTED_CASE;
+            }
+        }
+        return n;
+    }
+
+    @DllImportAttribute.Annotation(value="libc", EntryPoint="sendfile64", SetLastError=true)
+    private static native IntPtr sendfile(IntPtr out_fd, SafeFileHandle in_fd, long[] offset, IntPtr count);
+
     // Sets or reports this file's position
     // If offset is -1, the current position is returned
     // otherwise the position is set to offset
@@ -31,9 +31,12 @@ import cli.Microsoft.Win32.SafeHandles.SafeFileHandle;
 import cli.System.IntPtr;
 import cli.System.IO.FileStream;
 import cli.System.Runtime.InteropServices.DllImportAttribute;
+import cli.System.Runtime.InteropServices.GCHandle;
+import cli.System.Runtime.InteropServices.GCHandleType;
 import cli.System.Runtime.InteropServices.StructLayoutAttribute;
 import cli.System.Runtime.InteropServices.LayoutKind;
 import cli.System.Runtime.InteropServices.Marshal;
+import static ikvm.internal.Util.MACOSX;
 import static ikvm.internal.Util.WINDOWS;
 
 class FileDispatcherImpl extends FileDispatcher
@@ -54,18 +57,112 @@ class FileDispatcherImpl extends FileDispatcher
 
     @Override
     boolean needsPositionLock() {
-        return true;
+        // On Windows a positional ReadFile/WriteFile on a synchronous handle
+        // still moves the file pointer, so positional I/O is emulated by
+        // seeking (and restoring the position) under the position lock.
+        // In append mode pwrite ignores the offset on Linux, so we do the same.
+        return WINDOWS || append;
+    }
+
+    @Override
+    boolean needsPositionLock(FileDescriptor fd) {
+        // pread/pwrite need an OS file handle, streams that aren't a FileStream
+        // (e.g. VFS files backed by a MemoryStream) use the seek emulation
+        return needsPositionLock() || !(fd.getStream() instanceof FileStream);
+    }
+
+    private int preadEmulated(FileDescriptor fd, byte[] buf, int offset, int length, long position) throws IOException {
+        long prevpos = fd.getFilePointer();
+        try {
+            fd.seek(position);
+            return read(fd, buf, offset, length);
+        } finally {
+            fd.seek(prevpos);
+        }
+    }
+
+    private int pwriteEmulated(FileDescriptor fd, byte[] buf, int offset, int length, long position) throws IOException {
+        long prevpos = fd.getFilePointer();
+        try {
+            fd.seek(position);
+            return write(fd, buf, offset, length);
+        } finally {
+            fd.seek(prevpos);
+        }
     }
 
     int read(FileDescriptor fd, byte[] buf, int offset, int length) throws IOException {
         return fd.readBytes(buf, offset, length);
     }
 
+    @cli.System.Security.SecuritySafeCriticalAttribute.Annotation
+    int pread(FileDescriptor fd, byte[] buf, int offset, int length, long position) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        cli.System.IO.Stream stream = fd.getStream();
+        if (!(stream instanceof FileStream)) {
+            return preadEmulated(fd, buf, offset, length, position);
+        }
+        FileStream fs = (FileStream)stream;
+        GCHandle h = GCHandle.Alloc(buf, GCHandleType.wrap(GCHandleType.Pinned));
+        try {
+            long n;
+            do {
+                IntPtr p = IntPtr.Add(h.AddrOfPinnedObject(), offset);
+                n = MACOSX
+                    ? pread_darwin(fs.get_SafeFileHandle(), p, IntPtr.op_Explicit(length), position).ToInt64()
+                    : pread64(fs.get_SafeFileHandle(), p, IntPtr.op_Explicit(length), position).ToInt64();
+            } while (n < 0 && Marshal.GetLastWin32Error() == EINTR);
+            if (n < 0) {
+                throw new IOException("pread failed (errno " + Marshal.GetLastWin32Error() + ")");
+            }
+            return n == 0 ? IOStatus.EOF : (int)n;
+        } finally {
+            h.Free();
+            cli.System.GC.KeepAlive(fs);
+        }
+    }
+
     int write(FileDescriptor fd, byte[] buf, int offset, int length) throws IOException {
         fd.writeBytes(buf, offset, length);
         return length;
     }
 
+    @cli.System.Security.SecuritySafeCriticalAttribute.Annotation
+    int pwrite(FileDescriptor fd, byte[] buf, int offset, int length, long position) throws IOException {
+        cli.System.IO.Stream stream = fd.getStream();
+        if (!(stream instanceof FileStream)) {
+            return pwriteEmulated(fd, buf, offset, length, position);
+        }
+        FileStream fs = (FileStream)stream;
+        GCHandle h = GCHandle.Alloc(buf, GCHandleType.wrap(GCHandleType.Pinned));
+        try {
+            int written = 0;
+            while (written < length) {
+                IntPtr p = IntPtr.Add(h.AddrOfPinnedObject(), offset + written);
+                IntPtr count = IntPtr.op_Explicit(length - written);
+                long n = MACOSX
+                    ? pwrite_darwin(fs.get_SafeFileHandle(), p, count, position + written).ToInt64()
+                    : pwrite64(fs.get_SafeFileHandle(), p, count, position + written).ToInt64();
+                if (n < 0) {
+                    if (Marshal.GetLastWin32Error() == EINTR) {
+                        continue;
+                    }
+                    throw new IOException("pwrite failed (errno " + Marshal.GetLastWin32Error() + ")");
+                }
+                if (n == 0) {
+                    break;
+                }
+                written += (int)n;
+            }
+            return written;
+        } finally {
+            h.Free();
+            cli.System.GC.KeepAlive(fs);
+        }
+    }
+
     long read(FileDescriptor fd, ByteBuffer[] bufs, int offset, int length) throws IOException {
         long totalRead = 0;
         try
@@ -298,6 +395,21 @@ class FileDispatcherImpl extends FileDispatcher
         return new FileDescriptor();
     }
 
+    private static final int EINTR = 4;
+
+    @DllImportAttribute.Annotation(value="libc", SetLastError=true)
+    private static native IntPtr pread64(SafeFileHandle fd, IntPtr buf, IntPtr count, long offset);
+
+    @DllImportAttribute.Annotation(value="libc", SetLastError=true)
+    private static native IntPtr pwrite64(SafeFileHandle fd, IntPtr buf, IntPtr count, long offset);
+
+    // Darwin has a 64-bit off_t and no pread64/pwrite64 aliases
+    @DllImportAttribute.Annotation(value="libc", EntryPoint="pread", SetLastError=true)
+    private static native IntPtr pread_darwin(SafeFileHandle fd, IntPtr buf, IntPtr count, long offset);
+
+    @DllImportAttribute.Annotation(value="libc", EntryPoint="pwrite", SetLastError=true)
+    private static native IntPtr pwrite_darwin(SafeFileHandle fd, IntPtr buf, IntPtr count, long offset);
+
     @DllImportAttribute.Annotation(value="kernel32", SetLastError=true)
     private static native int LockFileEx(SafeFileHandle hFile, int dwFlags, int dwReserved, int nNumberOfBytesToLockLow, int nNumberOfBytesToLockHigh, OVERLAPPED lpOverlapped);
 
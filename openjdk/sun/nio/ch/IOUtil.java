@@ -74,8 +74,9 @@ public class IOUtil {
         if (dst.isReadOnly())
             throw new IllegalArgumentException("Read-only buffer");
 
-        if (position != -1)
+        if (position != -1 && nd.needsPositionLock(fd))
         {
+            // no positional read available, emulate it while holding the position lock
             long prevpos = fd.getFilePointer();
             try
             {
@@ -91,7 +92,7 @@ public class IOUtil {
         if (dst.hasArray())
         {
             byte[] buf = dst.array();
-            int len = nd.read(fd, buf, dst.arrayOffset() + dst.position(), dst.remaining());
+            int len = read(fd, buf, dst.arrayOffset() + dst.position(), dst.remaining(), position, nd);
             if (len > 0)
             {
                 dst.position(dst.position() + len);
@@ -100,8 +101,9 @@ public class IOUtil {
         }
         else
         {
-            byte[] buf = new byte[dst.remaining()];
-            int len = nd.read(fd, buf, 0, buf.length);
+            // read at most one temporary array full, a short read is fine
+            byte[] buf = Util.getTemporaryArray();
+            int len = read(fd, buf, 0, Math.min(buf.length, dst.remaining()), position, nd);
             if (len > 0)
             {
                 dst.put(buf, 0, len);
@@ -110,6 +112,15 @@ public class IOUtil {
         }
     }
 
+    private static int read(FileDescriptor fd, byte[] buf, int offset, int length, long position,
+                            NativeDispatcher nd)
+        throws IOException
+    {
+        return position == -1
+            ? nd.read(fd, buf, offset, length)
+            : nd.pread(fd, buf, offset, length, position);
+    }
+
     static long read(FileDescriptor fd, ByteBuffer[] bufs, int offset, int length, NativeDispatcher nd)
         throws IOException
     {
@@ -120,8 +131,9 @@ public class IOUtil {
                      NativeDispatcher nd)
         throws IOException
     {
-        if (position != -1)
+        if (position != -1 && nd.needsPositionLock(fd))
         {
+            // no positional write available, emulate it while holding the position lock
             long prevpos = fd.getFilePointer();
             try
             {
@@ -137,7 +149,7 @@ public class IOUtil {
         if (src.hasArray())
         {
             byte[] buf = src.array();
-            int len = nd.write(fd, buf, src.arrayOffset() + src.position(), src.remaining());
+            int len = write(fd, buf, src.arrayOffset() + src.position(), src.remaining(), position, nd);
             if (len > 0)
             {
                 src.position(src.position() + len);
@@ -146,19 +158,39 @@ public class IOUtil {
         }
         else
         {
-            int pos = src.position();
-            byte[] buf = new byte[src.remaining()];
-            src.get(buf);
-            src.position(pos);
-            int len = nd.write(fd, buf, 0, buf.length);
-            if (len > 0)
+            byte[] buf = Util.getTemporaryArray();
+            int total = 0;
+            while (src.hasRemaining())
             {
+                int pos = src.position();
+                int chunk = Math.min(buf.length, src.remaining());
+                src.get(buf, 0, chunk);
+                src.position(pos);
+                int len = write(fd, buf, 0, chunk, position == -1 ? -1 : position + total, nd);
+                if (len <= 0)
+                {
+                    return total == 0 ? len : total;
+                }
                 src.position(pos + len);
+                total += len;
+                if (len < chunk)
+                {
+                    break;
+                }
             }
-            return len;
+            return total;
         }
     }
 
+    private static int write(FileDescriptor fd, byte[] buf, int offset, int length, long position,
+                             NativeDispatcher nd)
+        throws IOException
+    {
+        return position == -1
+            ? nd.write(fd, buf, offset, length)
+            : nd.pwrite(fd, buf, offset, length, position);
+    }
+
     static long write(FileDescriptor fd, ByteBuffer[] bufs, NativeDispatcher nd)
         throws IOException
     {
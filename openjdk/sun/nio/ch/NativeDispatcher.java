@@ -45,8 +45,24 @@ abstract class NativeDispatcher
         return false;
     }
 
+    /**
+     * Returns {@code true} if pread/pwrite on {@code fd} needs to be
+     * synchronized with position sensitive methods.
+     */
+    boolean needsPositionLock(FileDescriptor fd) {
+        return needsPositionLock();
+    }
+
+    int pread(FileDescriptor fd, byte[] buf, int offset, int length, long position) throws IOException {
+        throw new IOException("Operation Unsupported");
+    }
+
     abstract int write(FileDescriptor fd, byte[] buf, int offset, int length) throws IOException;
 
+    int pwrite(FileDescriptor fd, byte[] buf, int offset, int length, long position) throws IOException {
+        throw new IOException("Operation Unsupported");
+    }
+
     abstract long read(FileDescriptor fd, ByteBuffer[] bufs, int offset, int length) throws IOException;
 
     abstract long write(FileDescriptor fd, ByteBuffer[] bufs, int offset, int length) throws IOException;
@@ -182,6 +182,28 @@ public class Util {
     }
 
 
+    // -- Temporary arrays --
+
+    // Size of the per-thread array that is used to copy data to and from
+    // buffers that are not backed by an accessible array
+    static final int TEMP_ARRAY_SIZE = 64 * 1024;
+
+    private static final ThreadLocal<byte[]> tempArray = new ThreadLocal<byte[]>() {
+        @Override
+        protected byte[] initialValue() {
+            return new byte[TEMP_ARRAY_SIZE];
+        }
+    };
+
+    /**
+     * Returns the calling thread's temporary array. The array must not be
+     * used across calls that may themselves use the temporary array.
+     */
+    static byte[] getTemporaryArray() {
+        return tempArray.get();
+    }
+
+
     // -- Bug compatibility --
 
     private static volatile String bugLevel = null;
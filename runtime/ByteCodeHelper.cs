@@ -764,6 +764,25 @@ namespace IKVM.Runtime
 #endif // !FIRST_PASS
 		}
 
+		[DebuggerStepThroughAttribute]
+		public static void fill<T>(T[] a, T val)
+		{
+			// fill a small prefix element by element and then double it with Array.Copy,
+			// which for primitive arrays is a memmove
+			int len = a.Length;
+			int pos = Math.Min(len, 16);
+			for(int i = 0; i < pos; i++)
+			{
+				a[i] = val;
+			}
+			while(pos < len)
+			{
+				int count = Math.Min(pos, len - pos);
+				Array.Copy(a, 0, a, pos, count);
+				pos += count;
+			}
+		}
+
 		[HideFromJava]
 		public static void VerboseCastFailure(RuntimeTypeHandle typeHandle, object obj)
 		{
@@ -3295,6 +3295,10 @@ namespace IKVM.Internal
 				{
 					return code.hasJsr;
 				}
+				set
+				{
+					code.hasJsr = value;
+				}
 			}
 
 			private struct Code
@@ -7359,9 +7359,10 @@ namespace IKVM.Internal
 
 		internal ikvm.@internal.CallerID GetCallerID()
 		{
-			for (int i = 0; ; )
+			Java_sun_reflect_Reflection.StackWalker walker = new Java_sun_reflect_Reflection.StackWalker(0);
+			for (; ; )
 			{
-				MethodBase method = new StackFrame(i++, false).GetMethod();
+				MethodBase method = walker.Next();
 				if (method == null)
 				{
 #if !FIRST_PASS
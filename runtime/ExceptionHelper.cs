@@ -49,6 +49,12 @@ namespace IKVM.Internal
 		private static readonly Exception NOT_REMAPPED = new Exception();
 		private static readonly Exception[] EMPTY_THROWABLE_ARRAY = new Exception[0];
 		private static readonly bool cleanStackTrace = JVM.SafeGetEnvironmentVariable("IKVM_DISABLE_STACKTRACE_CLEANING") == null;
+		// Asking the CLR for file and line information makes it load the symbols of every method on the stack,
+		// which dominates the cost of creating an exception. Line numbers of Java code normally come from the
+		// line number tables the compiler embeds (see GetLineNumber), so by default we only capture the raw
+		// frames (method and IL offset) and resolve them when the stack trace is requested.
+		// The symbols are only needed for code compiled with debug info, so we keep using them when we emit symbols.
+		internal static readonly bool captureFileInfo = JVM.SafeGetEnvironmentVariable("IKVM_STACKTRACE_FILE_INFO") != null || JVM.EmitSymbols;
 #if !FIRST_PASS
 		private static readonly ikvm.@internal.WeakIdentityMap exceptions = new ikvm.@internal.WeakIdentityMap();
 
@@ -81,10 +87,10 @@ namespace IKVM.Internal
 			[HideFromJava]
 			internal ExceptionInfoHelper(Exception x, bool captureAdditionalStackTrace)
 			{
-				tracePart1 = new StackTrace(x, true);
+				tracePart1 = new StackTrace(x, captureFileInfo);
 				if (captureAdditionalStackTrace)
 				{
-					tracePart2 = new StackTrace(true);
+					tracePart2 = new StackTrace(captureFileInfo);
 				}
 			}
 
@@ -752,7 +758,7 @@ namespace IKVM.Internal
 #if !FIRST_PASS
 			lock (x)
 			{
-				ExceptionInfoHelper eih = new ExceptionInfoHelper(null, new StackTrace(true));
+				ExceptionInfoHelper eih = new ExceptionInfoHelper(null, new StackTrace(captureFileInfo));
 				IDictionary data = x.Data;
 				if (data != null && !data.IsReadOnly)
 				{
@@ -881,8 +887,8 @@ namespace IKVM.Internal
 				{
 					if (!unused && t.tracePart1 == null && t.tracePart2 == null && t.stackTrace == Throwable.UNASSIGNED_STACK)
 					{
-						t.tracePart1 = new StackTrace(org, true);
-						t.tracePart2 = new StackTrace(true);
+						t.tracePart1 = new StackTrace(org, captureFileInfo);
+						t.tracePart2 = new StackTrace(captureFileInfo);
 					}
 					if (t != org)
 					{
@@ -27,6 +27,7 @@ using System.Diagnostics;
 using System.Text;
 using System.Reflection;
 using System.Runtime.InteropServices;
+using System.Threading;
 using IKVM.Internal;
 
 // Java type JNI aliases
@@ -649,25 +650,128 @@ namespace IKVM.Runtime
 
 	static class GlobalRefs
 	{
-		internal static System.Collections.ArrayList globalRefs = new System.Collections.ArrayList();
-		internal static readonly object weakRefLock = new object();
-		internal static GCHandle[] weakRefs = new GCHandle[16];
+		internal static readonly HandleTable<object> globalRefs = new HandleTable<object>();
+		internal static readonly HandleTable<GCHandle> weakRefs = new HandleTable<GCHandle>();
 
 		internal static object Unwrap(int i)
 		{
 			i = -i;
 			if ((i & (1 << 30)) != 0)
 			{
-				lock (GlobalRefs.weakRefLock)
+				return weakRefs[i - (1 << 30)].Target;
+			}
+			else
+			{
+				return globalRefs[i - 1];
+			}
+		}
+
+		// A handle table is a list of fixed size segments (that never move once allocated) and
+		// a lock-free free list, so that lookups don't need a lock and adding or removing a handle
+		// only needs a CAS. A lock is only taken when a new segment is allocated.
+		internal sealed class HandleTable<T>
+		{
+			private const int SegmentBits = 10;
+			private const int SegmentSize = 1 << SegmentBits;
+			private const int SegmentMask = SegmentSize - 1;
+			private readonly object segmentLock = new object();
+			private volatile Segment[] segments = new Segment[0];
+			// the high 32 bits are a version number (to prevent ABA), the low 32 bits are the index + 1 of the first free slot
+			private long freeList;
+			private int highWater;
+
+			private sealed class Segment
+			{
+				internal readonly T[] values = new T[SegmentSize];
+				// index + 1 of the next free slot, only meaningful while the slot is on the free list
+				internal readonly int[] next = new int[SegmentSize];
+				// 1 while the slot is on the free list, set with a CAS so that a slot can't be freed twice
+				internal readonly int[] free = new int[SegmentSize];
+			}
+
+			internal T this[int index]
+			{
+				get { return segments[index >> SegmentBits].values[index & SegmentMask]; }
+			}
+
+			internal int Add(T value)
+			{
+				int index = PopFree();
+				if (index < 0)
 				{
-					return GlobalRefs.weakRefs[i - (1 << 30)].Target;
+					index = Interlocked.Increment(ref highWater) - 1;
+					EnsureSegment(index >> SegmentBits);
 				}
+				Segment segment = segments[index >> SegmentBits];
+				segment.values[index & SegmentMask] = value;
+				Thread.VolatileWrite(ref segment.free[index & SegmentMask], 0);
+				return index;
 			}
-			else
+
+			internal T Remove(int index)
 			{
-				lock (GlobalRefs.globalRefs)
+				Segment segment = segments[index >> SegmentBits];
+				if (Interlocked.CompareExchange(ref segment.free[index & SegmentMask], 1, 0) != 0)
 				{
-					return GlobalRefs.globalRefs[i - 1];
+					// deleting a handle twice (or a stale handle) must not put the slot on the free list again,
+					// because then two later Add calls would return the same slot
+					Debug.Assert(false, "Handle deleted twice");
+					return default(T);
+				}
+				T value = segment.values[index & SegmentMask];
+				segment.values[index & SegmentMask] = default(T);
+				for (; ; )
+				{
+					long head = Interlocked.Read(ref freeList);
+					segment.next[index & SegmentMask] = (int)head;
+					long newHead = (((head >> 32) + 1) << 32) | (uint)(index + 1);
+					if (Interlocked.CompareExchange(ref freeList, newHead, head) == head)
+					{
+						return value;
+					}
+				}
+			}
+
+			private int PopFree()
+			{
+				for (; ; )
+				{
+					long head = Interlocked.Read(ref freeList);
+					int index = (int)head - 1;
+					if (index < 0)
+					{
+						return -1;
+					}
+					int next = segments[index >> SegmentBits].next[index & SegmentMask];
+					long newHead = (((head >> 32) + 1) << 32) | (uint)next;
+					if (Interlocked.CompareExchange(ref freeList, newHead, head) == head)
+					{
+						return index;
+					}
+				}
+			}
+
+			private void EnsureSegment(int segmentIndex)
+			{
+				Segment[] segs = segments;
+				if (segmentIndex < segs.Length && segs[segmentIndex] != null)
+				{
+					return;
+				}
+				lock (segmentLock)
+				{
+					segs = segments;
+					if (segmentIndex >= segs.Length)
+					{
+						Segment[] tmp = new Segment[Math.Max(segmentIndex + 1, segs.Length * 2)];
+						Array.Copy(segs, tmp, segs.Length);
+						segs = tmp;
+					}
+					if (segs[segmentIndex] == null)
+					{
+						segs[segmentIndex] = new Segment();
+					}
+					segments = segs;
 				}
 			}
 		}
@@ -1246,6 +1350,8 @@ namespace IKVM.Runtime
 		private GCHandle* pinHandles;
 		private int pinHandleMaxCount;
 		private int pinHandleInUseCount;
+		// when set, Get<Primitive>ArrayElements pins the array and returns the address of the array itself, instead of a copy
+		private static readonly bool pinArrayElements = JVM.SafeGetEnvironmentVariable("IKVM_JNI_PIN_ARRAY_ELEMENTS") != null;
 
 		static JNIEnv()
 		{
@@ -1830,19 +1936,7 @@ namespace IKVM.Runtime
 			{
 				return IntPtr.Zero;
 			}
-			lock(GlobalRefs.globalRefs)
-			{
-				int index = GlobalRefs.globalRefs.IndexOf(null);
-				if(index >= 0)
-				{
-					GlobalRefs.globalRefs[index] = o;
-				}
-				else
-				{
-					index = GlobalRefs.globalRefs.Add(o);
-				}
-				return (IntPtr)(-(index + 1));
-			}
+			return (IntPtr)(-(GlobalRefs.globalRefs.Add(o) + 1));
 		}
 
 		internal static void DeleteGlobalRef(JNIEnv* pEnv, jobject obj)
@@ -1850,10 +1944,7 @@ namespace IKVM.Runtime
 			int i = obj.ToInt32();
 			if(i < 0)
 			{
-				lock(GlobalRefs.globalRefs)
-				{
-					GlobalRefs.globalRefs[(-i) - 1] = null;
-				}
+				GlobalRefs.globalRefs.Remove((-i) - 1);
 				return;
 			}
 			if(i > 0)
@@ -2953,21 +3044,26 @@ namespace IKVM.Runtime
 		internal static jbyte* GetByteArrayElements(JNIEnv* pEnv, jbyteArray array, jboolean* isCopy)
 		{
 			byte[] b = (byte[])pEnv->UnwrapRef(array);
-			jbyte* p = (jbyte*)(void*)JniMem.Alloc(b.Length * 1);
-			for(int i = 0; i < b.Length; i++)
+			if(pinArrayElements)
 			{
-				p[i] = (jbyte)b[i];
+				return (jbyte*)PinArrayElements(pEnv, b, isCopy);
 			}
+			IntPtr buf = JniMem.Alloc(b.Length * 1);
+			Marshal.Copy(b, 0, buf, b.Length);
 			if(isCopy != null)
 			{
 				*isCopy = JNI_TRUE;
 			}
-			return p;
+			return (jbyte*)(void*)buf;
 		}
 
 		internal static jchar* GetCharArrayElements(JNIEnv* pEnv, jcharArray array, jboolean* isCopy)
 		{
 			char[] b = (char[])pEnv->UnwrapRef(array);
+			if(pinArrayElements)
+			{
+				return (jchar*)PinArrayElements(pEnv, b, isCopy);
+			}
 			IntPtr buf = JniMem.Alloc(b.Length * 2);
 			Marshal.Copy(b, 0, buf, b.Length);
 			if(isCopy != null)
@@ -2980,6 +3076,10 @@ namespace IKVM.Runtime
 		internal static jshort* GetShortArrayElements(JNIEnv* pEnv, jshortArray array, jboolean* isCopy)
 		{
 			short[] b = (short[])pEnv->UnwrapRef(array);
+			if(pinArrayElements)
+			{
+				return (jshort*)PinArrayElements(pEnv, b, isCopy);
+			}
 			IntPtr buf = JniMem.Alloc(b.Length * 2);
 			Marshal.Copy(b, 0, buf, b.Length);
 			if(isCopy != null)
@@ -2992,6 +3092,10 @@ namespace IKVM.Runtime
 		internal static jint* GetIntArrayElements(JNIEnv* pEnv, jintArray array, jboolean* isCopy)
 		{
 			int[] b = (int[])pEnv->UnwrapRef(array);
+			if(pinArrayElements)
+			{
+				return (jint*)PinArrayElements(pEnv, b, isCopy);
+			}
 			IntPtr buf = JniMem.Alloc(b.Length * 4);
 			Marshal.Copy(b, 0, buf, b.Length);
 			if(isCopy != null)
@@ -3004,6 +3108,10 @@ namespace IKVM.Runtime
 		internal static jlong* GetLongArrayElements(JNIEnv* pEnv, jlongArray array, jboolean* isCopy)
 		{
 			long[] b = (long[])pEnv->UnwrapRef(array);
+			if(pinArrayElements)
+			{
+				return (jlong*)PinArrayElements(pEnv, b, isCopy);
+			}
 			IntPtr buf = JniMem.Alloc(b.Length * 8);
 			Marshal.Copy(b, 0, buf, b.Length);
 			if(isCopy != null)
@@ -3016,6 +3124,10 @@ namespace IKVM.Runtime
 		internal static jfloat* GetFloatArrayElements(JNIEnv* pEnv, jfloatArray array, jboolean* isCopy)
 		{
 			float[] b = (float[])pEnv->UnwrapRef(array);
+			if(pinArrayElements)
+			{
+				return (jfloat*)PinArrayElements(pEnv, b, isCopy);
+			}
 			IntPtr buf = JniMem.Alloc(b.Length * 4);
 			Marshal.Copy(b, 0, buf, b.Length);
 			if(isCopy != null)
@@ -3028,6 +3140,10 @@ namespace IKVM.Runtime
 		internal static jdouble* GetDoubleArrayElements(JNIEnv* pEnv, jdoubleArray array, jboolean* isCopy)
 		{
 			double[] b = (double[])pEnv->UnwrapRef(array);
+			if(pinArrayElements)
+			{
+				return (jdouble*)PinArrayElements(pEnv, b, isCopy);
+			}
 			IntPtr buf = JniMem.Alloc(b.Length * 8);
 			Marshal.Copy(b, 0, buf, b.Length);
 			if(isCopy != null)
@@ -3055,13 +3171,15 @@ namespace IKVM.Runtime
 
 		internal static void ReleaseByteArrayElements(JNIEnv* pEnv, jbyteArray array, jbyte* elems, jint mode)
 		{
+			if(pinArrayElements)
+			{
+				UnpinArrayElements(pEnv, array, mode);
+				return;
+			}
 			if(mode == 0 || mode == JNI_COMMIT)
 			{
 				byte[] b = (byte[])pEnv->UnwrapRef(array);
-				for(int i = 0; i < b.Length; i++)
-				{
-					b[i] = (byte)elems[i];
-				}
+				Marshal.Copy((IntPtr)(void*)elems, b, 0, b.Length);
 			}
 			if(mode == 0 || mode == JNI_ABORT)
 			{
@@ -3071,6 +3189,11 @@ namespace IKVM.Runtime
 
 		internal static void ReleaseCharArrayElements(JNIEnv* pEnv, jcharArray array, jchar* elems, jint mode)
 		{
+			if(pinArrayElements)
+			{
+				UnpinArrayElements(pEnv, array, mode);
+				return;
+			}
 			if(mode == 0 || mode == JNI_COMMIT)
 			{
 				char[] b = (char[])pEnv->UnwrapRef(array);
@@ -3084,6 +3207,11 @@ namespace IKVM.Runtime
 
 		internal static void ReleaseShortArrayElements(JNIEnv* pEnv, jshortArray array, jshort* elems, jint mode)
 		{
+			if(pinArrayElements)
+			{
+				UnpinArrayElements(pEnv, array, mode);
+				return;
+			}
 			if(mode == 0 || mode == JNI_COMMIT)
 			{
 				short[] b = (short[])pEnv->UnwrapRef(array);
@@ -3097,6 +3225,11 @@ namespace IKVM.Runtime
 
 		internal static void ReleaseIntArrayElements(JNIEnv* pEnv, jintArray array, jint* elems, jint mode)
 		{
+			if(pinArrayElements)
+			{
+				UnpinArrayElements(pEnv, array, mode);
+				return;
+			}
 			if(mode == 0 || mode == JNI_COMMIT)
 			{
 				int[] b = (int[])pEnv->UnwrapRef(array);
@@ -3110,6 +3243,11 @@ namespace IKVM.Runtime
 
 		internal static void ReleaseLongArrayElements(JNIEnv* pEnv, jlongArray array, jlong* elems, jint mode)
 		{
+			if(pinArrayElements)
+			{
+				UnpinArrayElements(pEnv, array, mode);
+				return;
+			}
 			if(mode == 0 || mode == JNI_COMMIT)
 			{
 				long[] b = (long[])pEnv->UnwrapRef(array);
@@ -3123,6 +3261,11 @@ namespace IKVM.Runtime
 
 		internal static void ReleaseFloatArrayElements(JNIEnv* pEnv, jfloatArray array, jfloat* elems, jint mode)
 		{
+			if(pinArrayElements)
+			{
+				UnpinArrayElements(pEnv, array, mode);
+				return;
+			}
 			if(mode == 0 || mode == JNI_COMMIT)
 			{
 				float[] b = (float[])pEnv->UnwrapRef(array);
@@ -3136,6 +3279,11 @@ namespace IKVM.Runtime
 
 		internal static void ReleaseDoubleArrayElements(JNIEnv* pEnv, jdoubleArray array, jdouble* elems, jint mode)
 		{
+			if(pinArrayElements)
+			{
+				UnpinArrayElements(pEnv, array, mode);
+				return;
+			}
 			if(mode == 0 || mode == JNI_COMMIT)
 			{
 				double[] b = (double[])pEnv->UnwrapRef(array);
@@ -3169,13 +3317,9 @@ namespace IKVM.Runtime
 			try
 			{
 				byte[] b = (byte[])pEnv->UnwrapRef(array);
-				byte* p = (byte*)(void*)buf;
-				for(int i = 0; i < len; i++)
-				{
-					*p++ = b[start + i];
-				}
+				Marshal.Copy(b, start, buf, len);
 			}
-			catch(IndexOutOfRangeException)
+			catch(ArgumentOutOfRangeException)
 			{
 				SetPendingException(pEnv, new java.lang.ArrayIndexOutOfBoundsException());
 			}
@@ -3281,13 +3425,9 @@ namespace IKVM.Runtime
 			try
 			{
 				byte[] b = (byte[])pEnv->UnwrapRef(array);
-				byte* p = (byte*)(void*)buf;
-				for(int i = 0; i < len; i++)
-				{
-					b[start + i] = *p++;
-				}
+				Marshal.Copy(buf, b, start, len);
 			}
-			catch(IndexOutOfRangeException)
+			catch(ArgumentOutOfRangeException)
 			{
 				SetPendingException(pEnv, new java.lang.ArrayIndexOutOfBoundsException());
 			}
@@ -3595,6 +3735,55 @@ namespace IKVM.Runtime
 			}
 		}
 
+		// the pins made by Get<Primitive>ArrayElements are process wide (and not in the per-JNIEnv pin handles),
+		// because the matching Release<Primitive>ArrayElements may be called on a different thread
+		private sealed class PinnedArray
+		{
+			internal GCHandle handle;
+			internal int count;
+		}
+
+		private static readonly Dictionary<object, PinnedArray> pinnedArrays = new Dictionary<object, PinnedArray>();
+
+		private static void* PinArrayElements(JNIEnv* pEnv, object array, jboolean* isCopy)
+		{
+			if(isCopy != null)
+			{
+				*isCopy = JNI_FALSE;
+			}
+			lock(pinnedArrays)
+			{
+				PinnedArray pin;
+				if(!pinnedArrays.TryGetValue(array, out pin))
+				{
+					pin = new PinnedArray();
+					pin.handle = GCHandle.Alloc(array, GCHandleType.Pinned);
+					pinnedArrays.Add(array, pin);
+				}
+				pin.count++;
+				return (void*)pin.handle.AddrOfPinnedObject();
+			}
+		}
+
+		private static void UnpinArrayElements(JNIEnv* pEnv, jarray array, jint mode)
+		{
+			// native code has been working on the array itself, so there is nothing to copy back (or to abort),
+			// JNI_COMMIT means that the elements remain in use, so we only unpin for the other modes
+			if(mode != JNI_COMMIT)
+			{
+				object obj = pEnv->UnwrapRef(array);
+				lock(pinnedArrays)
+				{
+					PinnedArray pin;
+					if(pinnedArrays.TryGetValue(obj, out pin) && --pin.count == 0)
+					{
+						pinnedArrays.Remove(obj);
+						pin.handle.Free();
+					}
+				}
+			}
+		}
+
 		internal static void* GetPrimitiveArrayCritical(JNIEnv* pEnv, jarray array, jboolean* isCopy)
 		{
 			if(isCopy != null)
@@ -3630,23 +3819,7 @@ namespace IKVM.Runtime
 			{
 				return IntPtr.Zero;
 			}
-			lock(GlobalRefs.weakRefLock)
-			{
-				for(int i = 0; i < GlobalRefs.weakRefs.Length; i++)
-				{
-					if(!GlobalRefs.weakRefs[i].IsAllocated)
-					{
-						GlobalRefs.weakRefs[i] = GCHandle.Alloc(o, GCHandleType.WeakTrackResurrection);
-						return (IntPtr)(- (i | (1 << 30)));
-					}
-				}
-				int len = GlobalRefs.weakRefs.Length;
-				GCHandle[] tmp = new GCHandle[len * 2];
-				Array.Copy(GlobalRefs.weakRefs, 0, tmp, 0, len);
-				tmp[len] = GCHandle.Alloc(o, GCHandleType.WeakTrackResurrection);
-				GlobalRefs.weakRefs = tmp;
-				return (IntPtr)(- (len | (1 << 30)));
-			}
+			return (IntPtr)(-(GlobalRefs.weakRefs.Add(GCHandle.Alloc(o, GCHandleType.WeakTrackResurrection)) | (1 << 30)));
 		}
 
 		internal static void DeleteWeakGlobalRef(JNIEnv* pEnv, jweak obj)
@@ -3656,9 +3829,10 @@ namespace IKVM.Runtime
 			{
 				i = -i;
 				i -= (1 << 30);
-				lock(GlobalRefs.weakRefLock)
+				GCHandle handle = GlobalRefs.weakRefs.Remove(i);
+				if (handle.IsAllocated)
 				{
-					GlobalRefs.weakRefs[i].Free();
+					handle.Free();
 				}
 			}
 			if(i > 0)
@@ -36,16 +36,18 @@ namespace IKVM.Internal
 		private readonly ClassFile.Method m;
 		private readonly JsrMethodAnalyzer ma;
 
-		internal static void InlineJsrs(ClassLoaderWrapper classLoader, MethodWrapper mw, ClassFile classFile, ClassFile.Method m)
+		// NOTE this only depends on the class file, so the static compiler can run it on multiple threads
+		internal static void InlineJsrs(ClassFile classFile, ClassFile.Method m)
 		{
 			JsrInliner inliner;
 			do
 			{
 				ClassFile.Method.Instruction[] codeCopy = (ClassFile.Method.Instruction[])m.Instructions.Clone();
 				InstructionFlags[] flags = new InstructionFlags[codeCopy.Length];
-				JsrMethodAnalyzer ma = new JsrMethodAnalyzer(mw, classFile, m, classLoader, flags);
+				JsrMethodAnalyzer ma = new JsrMethodAnalyzer(classFile, m, flags);
 				inliner = new JsrInliner(codeCopy, flags, m, ma);
 			} while (inliner.InlineJsrs());
+			m.HasJsr = false;
 		}
 
 		private JsrInliner(ClassFile.Method.Instruction[] codeCopy, InstructionFlags[] flags, ClassFile.Method m, JsrMethodAnalyzer ma)
@@ -336,7 +338,7 @@ namespace IKVM.Internal
 			private List<int>[] callsites;
 			private List<int>[] returnsites;
 
-			internal JsrMethodAnalyzer(MethodWrapper mw, ClassFile classFile, ClassFile.Method method, ClassLoaderWrapper classLoader, InstructionFlags[] flags)
+			internal JsrMethodAnalyzer(ClassFile classFile, ClassFile.Method method, InstructionFlags[] flags)
 			{
 				if (method.VerifyError != null)
 				{
@@ -383,22 +385,34 @@ namespace IKVM.Internal
 				{
 					thisType = null;
 				}
-				TypeWrapper[] argTypeWrappers = mw.GetParameters();
-				for (int i = 0; i < argTypeWrappers.Length; i++)
+				string sig = method.Signature;
+				for (int i = 1; sig[i] != ')'; i++)
 				{
-					TypeWrapper tw = argTypeWrappers[i];
 					SimpleType type;
-					if (tw.IsWidePrimitive)
+					switch (sig[i])
 					{
-						type = SimpleType.WidePrimitive;
-					}
-					else if (tw.IsPrimitive)
-					{
-						type = SimpleType.Primitive;
-					}
-					else
-					{
-						type = SimpleType.Object;
+						case 'J':
+						case 'D':
+							type = SimpleType.WidePrimitive;
+							break;
+						case 'L':
+							i = sig.IndexOf(';', i);
+							type = SimpleType.Object;
+							break;
+						case '[':
+							while (sig[i] == '[')
+							{
+								i++;
+							}
+							if (sig[i] == 'L')
+							{
+								i = sig.IndexOf(';', i);
+							}
+							type = SimpleType.Object;
+							break;
+						default:
+							type = SimpleType.Primitive;
+							break;
 					}
 					state[0].SetLocalType(firstNonArgLocalIndex++, type, -1);
 					if (type.IsWidePrimitive)
@@ -55,6 +55,7 @@ static class ByteCodeHelperMethods
 	internal static readonly MethodInfo arraycopy_primitive_4;
 	internal static readonly MethodInfo arraycopy_primitive_2;
 	internal static readonly MethodInfo arraycopy_primitive_1;
+	internal static readonly MethodInfo fill;
 	internal static readonly MethodInfo arraycopy;
 	internal static readonly MethodInfo DynamicCast;
 	internal static readonly MethodInfo DynamicAaload;
@@ -104,6 +105,7 @@ static class ByteCodeHelperMethods
 		arraycopy_primitive_4 = GetHelper(typeofByteCodeHelper, "arraycopy_primitive_4");
 		arraycopy_primitive_2 = GetHelper(typeofByteCodeHelper, "arraycopy_primitive_2");
 		arraycopy_primitive_1 = GetHelper(typeofByteCodeHelper, "arraycopy_primitive_1");
+		fill = GetHelper(typeofByteCodeHelper, "fill");
 		arraycopy = GetHelper(typeofByteCodeHelper, "arraycopy");
 		DynamicCast = GetHelper(typeofByteCodeHelper, "DynamicCast");
 		DynamicAaload = GetHelper(typeofByteCodeHelper, "DynamicAaload");
@@ -362,7 +364,7 @@ sealed class Compiler
 		{
 			if(classFile.MajorVersion < 51 && m.HasJsr)
 			{
-				JsrInliner.InlineJsrs(classLoader, mw, classFile, m);
+				JsrInliner.InlineJsrs(classFile, m);
 			}
 			MethodAnalyzer verifier = new MethodAnalyzer(host, clazz, mw, classFile, m, classLoader);
 			exceptions = MethodAnalyzer.UntangleExceptionBlocks(classFile, m);
@@ -177,6 +177,7 @@ namespace IKVM.Internal
 		private static readonly Type typeofFloatConverter = typeof(IKVM.Runtime.FloatConverter);
 		private static readonly Type typeofDoubleConverter = typeof(IKVM.Runtime.DoubleConverter);
 #endif
+		private static readonly Type typeofMath = JVM.Import(typeof(System.Math));
 
 		private static Dictionary<IntrinsicKey, Emitter> Register()
 		{
@@ -188,6 +189,26 @@ namespace IKVM.Internal
 			intrinsics.Add(new IntrinsicKey("java.lang.Double", "doubleToRawLongBits", "(D)J"), Double_doubleToRawLongBits);
 			intrinsics.Add(new IntrinsicKey("java.lang.Double", "longBitsToDouble", "(J)D"), Double_longBitsToDouble);
 			intrinsics.Add(new IntrinsicKey("java.lang.System", "arraycopy", "(Ljava.lang.Object;ILjava.lang.Object;II)V"), System_arraycopy);
+			intrinsics.Add(new IntrinsicKey("java.lang.Math", "sqrt", "(D)D"), Math_sqrt);
+			intrinsics.Add(new IntrinsicKey("java.lang.StrictMath", "sqrt", "(D)D"), Math_sqrt);
+			intrinsics.Add(new IntrinsicKey("java.lang.Math", "abs", "(I)I"), Math_abs_int);
+			intrinsics.Add(new IntrinsicKey("java.lang.Math", "abs", "(J)J"), Math_abs_long);
+			intrinsics.Add(new IntrinsicKey("java.lang.Math", "abs", "(F)F"), Math_abs_float);
+			intrinsics.Add(new IntrinsicKey("java.lang.Math", "abs", "(D)D"), Math_abs_double);
+			intrinsics.Add(new IntrinsicKey("java.lang.Math", "min", "(II)I"), Math_min_int);
+			intrinsics.Add(new IntrinsicKey("java.lang.Math", "min", "(JJ)J"), Math_min_long);
+			intrinsics.Add(new IntrinsicKey("java.lang.Math", "max", "(II)I"), Math_max_int);
+			intrinsics.Add(new IntrinsicKey("java.lang.Math", "max", "(JJ)J"), Math_max_long);
+			intrinsics.Add(new IntrinsicKey("java.util.Arrays", "fill", "([ZZ)V"), Arrays_fill);
+			intrinsics.Add(new IntrinsicKey("java.util.Arrays", "fill", "([BB)V"), Arrays_fill);
+			intrinsics.Add(new IntrinsicKey("java.util.Arrays", "fill", "([CC)V"), Arrays_fill);
+			intrinsics.Add(new IntrinsicKey("java.util.Arrays", "fill", "([SS)V"), Arrays_fill);
+			intrinsics.Add(new IntrinsicKey("java.util.Arrays", "fill", "([II)V"), Arrays_fill);
+			intrinsics.Add(new IntrinsicKey("java.util.Arrays", "fill", "([JJ)V"), Arrays_fill);
+			intrinsics.Add(new IntrinsicKey("java.util.Arrays", "fill", "([FF)V"), Arrays_fill);
+			intrinsics.Add(new IntrinsicKey("java.util.Arrays", "fill", "([DD)V"), Arrays_fill);
+			// Arrays.equals is not an intrinsic: without unsafe code (or a vectorized compare API, which .NET 4 lacks)
+			// a helper can only do the same element by element loop as the compiled Java code
 			intrinsics.Add(new IntrinsicKey("java.util.concurrent.atomic.AtomicReferenceFieldUpdater", "newUpdater", "(Ljava.lang.Class;Ljava.lang.Class;Ljava.lang.String;)Ljava.util.concurrent.atomic.AtomicReferenceFieldUpdater;"), AtomicReferenceFieldUpdater_newUpdater);
 #if STATIC_COMPILER
 			// String_toCharArray relies on globals, which aren't usable in dynamic mode
@@ -396,6 +417,117 @@ namespace IKVM.Internal
 			ilgen.Emit(OpCodes.Call, converterType.GetMethod(method));
 		}
 
+		private static bool Math_sqrt(EmitIntrinsicContext eic)
+		{
+			// System.Math.Sqrt is correctly rounded (and the CLR JIT turns it into a single instruction),
+			// so it is equivalent to both Math.sqrt and StrictMath.sqrt
+			eic.Emitter.Emit(OpCodes.Call, typeofMath.GetMethod("Sqrt", new Type[] { Types.Double }));
+			return true;
+		}
+
+		private static bool Math_abs_int(EmitIntrinsicContext eic)
+		{
+			EmitAbs(eic.Emitter, Types.Int32, 31);
+			return true;
+		}
+
+		private static bool Math_abs_long(EmitIntrinsicContext eic)
+		{
+			EmitAbs(eic.Emitter, Types.Int64, 63);
+			return true;
+		}
+
+		private static void EmitAbs(CodeEmitter ilgen, Type type, int shift)
+		{
+			// we can't use System.Math.Abs, because it throws an OverflowException for MinValue,
+			// so we emit the branch free (x ^ (x >> shift)) - (x >> shift) instead
+			CodeEmitterLocal sign = ilgen.UnsafeAllocTempLocal(type);
+			ilgen.Emit(OpCodes.Dup);
+			ilgen.EmitLdc_I4(shift);
+			ilgen.Emit(OpCodes.Shr);
+			ilgen.Emit(OpCodes.Dup);
+			ilgen.Emit(OpCodes.Stloc, sign);
+			ilgen.Emit(OpCodes.Xor);
+			ilgen.Emit(OpCodes.Ldloc, sign);
+			ilgen.Emit(OpCodes.Sub);
+		}
+
+		private static bool Math_abs_float(EmitIntrinsicContext eic)
+		{
+			eic.Emitter.Emit(OpCodes.Call, typeofMath.GetMethod("Abs", new Type[] { Types.Single }));
+			return true;
+		}
+
+		private static bool Math_abs_double(EmitIntrinsicContext eic)
+		{
+			eic.Emitter.Emit(OpCodes.Call, typeofMath.GetMethod("Abs", new Type[] { Types.Double }));
+			return true;
+		}
+
+		// note that we don't do the floating point versions of min and max,
+		// because System.Math.Min/Max don't order -0.0 and 0.0 the way Java does
+
+		private static bool Math_min_int(EmitIntrinsicContext eic)
+		{
+			eic.Emitter.Emit(OpCodes.Call, typeofMath.GetMethod("Min", new Type[] { Types.Int32, Types.Int32 }));
+			return true;
+		}
+
+		private static bool Math_min_long(EmitIntrinsicContext eic)
+		{
+			eic.Emitter.Emit(OpCodes.Call, typeofMath.GetMethod("Min", new Type[] { Types.Int64, Types.Int64 }));
+			return true;
+		}
+
+		private static bool Math_max_int(EmitIntrinsicContext eic)
+		{
+			eic.Emitter.Emit(OpCodes.Call, typeofMath.GetMethod("Max", new Type[] { Types.Int32, Types.Int32 }));
+			return true;
+		}
+
+		private static bool Math_max_long(EmitIntrinsicContext eic)
+		{
+			eic.Emitter.Emit(OpCodes.Call, typeofMath.GetMethod("Max", new Type[] { Types.Int64, Types.Int64 }));
+			return true;
+		}
+
+		private static bool Arrays_fill(EmitIntrinsicContext eic)
+		{
+			// the element type is the third character of the signature, e.g. "([II)V"
+			Type elementType;
+			switch (eic.Method.Signature[2])
+			{
+				case 'Z':
+					elementType = Types.Boolean;
+					break;
+				case 'B':
+					elementType = Types.Byte;
+					break;
+				case 'C':
+					elementType = Types.Char;
+					break;
+				case 'S':
+					elementType = Types.Int16;
+					break;
+				case 'I':
+					elementType = Types.Int32;
+					break;
+				case 'J':
+					elementType = Types.Int64;
+					break;
+				case 'F':
+					elementType = Types.Single;
+					break;
+				case 'D':
+					elementType = Types.Double;
+					break;
+				default:
+					return false;
+			}
+			eic.Emitter.Emit(OpCodes.Call, ByteCodeHelperMethods.fill.MakeGenericMethod(elementType));
+			return true;
+		}
+
 		private static bool System_arraycopy(EmitIntrinsicContext eic)
 		{
 			// if the array arguments on the stack are of a known array type, we can redirect to an optimized version of arraycopy.
@@ -35,7 +35,12 @@ static class Java_java_security_AccessController
 		return null;
 #else
 		List<java.security.ProtectionDomain> array = new List<java.security.ProtectionDomain>();
-		bool is_privileged = GetProtectionDomains(array, callerID, new StackTrace(1));
+		// if we're inside doPrivileged (i.e. we have a callerID) the walk stops at the doPrivileged frame,
+		// which is typically near the top of the stack, otherwise we need the whole stack
+		Java_sun_reflect_Reflection.StackWalker walker = callerID != null
+			? new Java_sun_reflect_Reflection.StackWalker(0)
+			: new Java_sun_reflect_Reflection.StackWalker(new StackTrace(1));
+		bool is_privileged = GetProtectionDomains(array, callerID, walker);
 		if (array.Count == 0)
 		{
 			if (is_privileged && context == null)
@@ -48,25 +53,28 @@ static class Java_java_security_AccessController
 	}
 
 #if !FIRST_PASS
-	private static bool GetProtectionDomains(List<java.security.ProtectionDomain> array, ikvm.@internal.CallerID callerID, StackTrace stack)
+	private static bool GetProtectionDomains(List<java.security.ProtectionDomain> array, ikvm.@internal.CallerID callerID, Java_sun_reflect_Reflection.StackWalker walker)
 	{
 		// first we have to skip all AccessController related frames, because we can be called from a doPrivileged implementation (not the privileged action)
 		// in which case we should ignore the doPrivileged frame
-		int skip = 0;
-		for (; skip < stack.FrameCount; skip++)
+		bool skipping = true;
+		java.security.ProtectionDomain previous_protection_domain = null;
+		// consecutive frames usually belong to the same type, so we remember the last lookup
+		Type previous_type = null;
+		java.security.ProtectionDomain previous_type_protection_domain = null;
+		for (MethodBase method; (method = walker.Next()) != null; )
 		{
-			Type type  = stack.GetFrame(skip).GetMethod().DeclaringType;
-			if (type != typeof(Java_java_security_AccessController) && type != typeof(java.security.AccessController))
+			if (skipping)
 			{
-				break;
+				Type type = method.DeclaringType;
+				if (type == typeof(Java_java_security_AccessController) || type == typeof(java.security.AccessController))
+				{
+					continue;
+				}
+				skipping = false;
 			}
-		}
-		java.security.ProtectionDomain previous_protection_domain = null;
-		for (int i = skip; i < stack.FrameCount; i++)
-		{
 			bool is_privileged = false;
 			java.security.ProtectionDomain protection_domain;
-			MethodBase method = stack.GetFrame(i).GetMethod();
 			if (method.DeclaringType == typeof(java.security.AccessController)
 				&& method.Name == "doPrivileged")
 			{
@@ -78,9 +86,15 @@ static class Java_java_security_AccessController
 			{
 				continue;
 			}
+			else if (method.DeclaringType == previous_type)
+			{
+				protection_domain = previous_type_protection_domain;
+			}
 			else
 			{
 				protection_domain = GetProtectionDomainFromType(method.DeclaringType);
+				previous_type = method.DeclaringType;
+				previous_type_protection_domain = protection_domain;
 			}
 
 			if (previous_protection_domain != protection_domain && protection_domain != null)
@@ -104,6 +118,11 @@ static class Java_java_security_AccessController
 		return acc;
 	}
 
+	// Statically compiled (and plain .NET) types get their protection domain from their assembly class loader,
+	// so we cache it per assembly. Dynamically compiled classes have their own protection domain and
+	// generic type instances belong to a different class loader than their assembly, so those aren't cached.
+	private static readonly Dictionary<Assembly, java.security.ProtectionDomain> assemblyProtectionDomains = new Dictionary<Assembly, java.security.ProtectionDomain>();
+
 	private static java.security.ProtectionDomain GetProtectionDomainFromType(Type type)
 	{
 		if (type == null
@@ -114,12 +133,28 @@ static class Java_java_security_AccessController
 		{
 			return null;
 		}
+		bool cacheable = !type.IsGenericType && !ReflectUtil.IsDynamicAssembly(type.Assembly);
+		java.security.ProtectionDomain pd;
+		if (cacheable)
+		{
+			lock (assemblyProtectionDomains)
+			{
+				if (assemblyProtectionDomains.TryGetValue(type.Assembly, out pd))
+				{
+					return pd;
+				}
+			}
+		}
 		TypeWrapper tw = ClassLoaderWrapper.GetWrapperFromType(type);
-		if (tw != null)
+		pd = tw == null ? null : Java_java_lang_Class.getProtectionDomain0(tw.ClassObject);
+		if (cacheable && tw != null && tw.GetClassLoader() is AssemblyClassLoader)
 		{
-			return Java_java_lang_Class.getProtectionDomain0(tw.ClassObject);
+			lock (assemblyProtectionDomains)
+			{
+				assemblyProtectionDomains[type.Assembly] = pd;
+			}
 		}
-		return null;
+		return pd;
 	}
 #endif
 
@@ -142,7 +177,7 @@ static class Java_java_security_AccessController
 		List<java.security.ProtectionDomain> list = new List<java.security.ProtectionDomain>();
 		while (lc != null)
 		{
-			if (GetProtectionDomains(list, lc.callerID, lc.stackTrace))
+			if (GetProtectionDomains(list, lc.callerID, new Java_sun_reflect_Reflection.StackWalker(lc.stackTrace)))
 			{
 				return CreateAccessControlContext(list, true, lc.context);
 			}
@@ -26,6 +26,7 @@ using System;
 using System.Collections.Generic;
 using System.IO;
 using System.Reflection;
+using System.Runtime.CompilerServices;
 using System.Security;
 using System.Security.Cryptography;
 using System.Security.Principal;
@@ -57,6 +58,108 @@ static class Java_java_lang_ref_Reference
 		return true;
 #endif
 	}
+
+#if !FIRST_PASS
+	// A Sentinel is finalized when its referent is no longer strongly reachable. It then hands the
+	// References that are still around over to their queues, so that enqueueing is driven by the GC
+	// instead of by the queue scanning all of its registered references.
+	private sealed class Sentinel
+	{
+		private WeakReference[] refs = new WeakReference[1];
+		private int count;
+
+		internal Sentinel()
+		{
+		}
+
+		internal Sentinel(java.lang.@ref.Reference reference)
+		{
+			refs[count++] = new WeakReference(reference);
+		}
+
+		internal void Add(java.lang.@ref.Reference reference)
+		{
+			lock (this)
+			{
+				if (count == refs.Length)
+				{
+					Prune();
+					if (count == refs.Length)
+					{
+						Array.Resize(ref refs, refs.Length * 2);
+					}
+				}
+				refs[count++] = new WeakReference(reference);
+			}
+		}
+
+		private void Prune()
+		{
+			int j = 0;
+			for (int i = 0; i < count; i++)
+			{
+				if (refs[i].IsAlive)
+				{
+					refs[j++] = refs[i];
+				}
+			}
+			Array.Clear(refs, j, count - j);
+			count = j;
+		}
+
+		~Sentinel()
+		{
+			if (Environment.HasShutdownStarted)
+			{
+				return;
+			}
+			try
+			{
+				lock (this)
+				{
+					int j = 0;
+					for (int i = 0; i < count; i++)
+					{
+						java.lang.@ref.Reference reference = (java.lang.@ref.Reference)refs[i].Target;
+						// a PhantomReference tracks resurrection, so its referent may still be
+						// finalizer reachable and we'll have to check again after the next GC
+						if (reference != null && !reference.referentCollected())
+						{
+							refs[j++] = refs[i];
+						}
+					}
+					Array.Clear(refs, j, count - j);
+					count = j;
+				}
+				if (count != 0)
+				{
+					GC.ReRegisterForFinalize(this);
+				}
+			}
+			catch
+			{
+				// we're running on the finalizer thread, so there's nobody to report this to
+			}
+		}
+	}
+
+#if CLASSGC
+	private static readonly ConditionalWeakTable<object, Sentinel> sentinels = new ConditionalWeakTable<object, Sentinel>();
+#endif
+#endif
+
+	public static void addCollectionSentinel(object referent, java.lang.@ref.Reference reference)
+	{
+#if !FIRST_PASS
+#if CLASSGC
+		sentinels.GetValue(referent, delegate { return new Sentinel(); }).Add(reference);
+#else
+		// without dependent handles we can't tie the sentinel to the referent's lifetime,
+		// so we let it check the reference after every GC until the referent is gone
+		new Sentinel(reference);
+#endif
+#endif
+	}
 }
 
 static class Java_java_util_logging_FileHandler
@@ -23,6 +23,7 @@
 */
 using System;
 using System.Reflection;
+using System.Threading;
 #if !FIRST_PASS
 using java.lang.management;
 #endif
@@ -55,50 +56,203 @@ static class Java_sun_management_GcInfoBuilder
 {
 	public static int getNumGcExtAttributes(object _this, object gc)
 	{
-		throw new NotSupportedException();
+		return 0;
 	}
 
 	public static void fillGcAttributeInfo(object _this, object gc, int numAttributes, string[] attributeNames, char[] types, string[] descriptions)
 	{
-		throw new NotSupportedException();
 	}
 
 	public static object getLastGcInfo0(object _this, object gc, int numExtAtts, object[] extAttValues, char[] extAttTypes, object[] before, object[] after)
 	{
-		throw new NotSupportedException();
+		// the CLR doesn't provide per collection information (start/end time, usage before/after),
+		// so we behave as if no collection has happened yet
+		return null;
+	}
+}
+
+static class Java_sun_management_GarbageCollectorImpl
+{
+	public static long getCollectionCount(object _this)
+	{
+		// GC.CollectionCount(n) includes the collections of the older generations,
+		// because those always collect the younger generations as well
+		int generation = Java_sun_management_MemoryImpl.GetGeneration(_this);
+		long count = GC.CollectionCount(generation);
+		if (generation < GC.MaxGeneration)
+		{
+			count -= GC.CollectionCount(generation + 1);
+		}
+		return count;
+	}
+
+	public static long getCollectionTime(object _this)
+	{
+		// the CLR doesn't expose the accumulated pause time
+		return -1;
+	}
+
+	public static void setNotificationEnabled(object _this, object gc, bool enabled)
+	{
+	}
+}
+
+static class Java_sun_management_MemoryManagerImpl
+{
+	public static object getMemoryPools0(object _this)
+	{
+		return Java_sun_management_MemoryImpl.getMemoryPools0();
+	}
+}
+
+static class Java_sun_management_MemoryPoolImpl
+{
+	public static object getUsage0(object _this)
+	{
+		return Java_sun_management_MemoryImpl.GetHeapUsage();
+	}
+
+	public static object getPeakUsage0(object _this)
+	{
+		return Java_sun_management_MemoryImpl.GetPeakHeapUsage();
+	}
+
+	public static object getCollectionUsage0(object _this)
+	{
+		// the usage after the last collection isn't available
+		return null;
+	}
+
+	public static void setUsageThreshold0(object _this, long current, long newThreshold)
+	{
+		// thresholds are not supported (the pool is constructed with -1 thresholds)
+	}
+
+	public static void setCollectionThreshold0(object _this, long current, long newThreshold)
+	{
+		// thresholds are not supported (the pool is constructed with -1 thresholds)
+	}
+
+	public static void resetPeakUsage0(object _this)
+	{
+		Java_sun_management_MemoryImpl.ResetPeakHeapUsage();
+	}
+
+	public static object getMemoryManagers0(object _this)
+	{
+		return Java_sun_management_MemoryImpl.getMemoryManagers0();
+	}
+
+	public static void setPoolUsageSensor(object _this, object s)
+	{
+	}
+
+	public static void setPoolCollectionSensor(object _this, object s)
+	{
 	}
 }
 
 static class Java_sun_management_MemoryImpl
 {
-	public static object getMemoryPools0()
+	// The CLR doesn't expose the sizes of the individual generations, so we have a single heap pool
+	// that is managed by a garbage collector for each generation.
+#if !FIRST_PASS
+	private static readonly object initLock = new object();
+	private static MemoryPoolMXBean[] pools;
+	private static MemoryManagerMXBean[] managers;
+#endif
+	private static long peakUsed;
+
+	private static void Init()
+	{
+#if !FIRST_PASS
+		lock (initLock)
+		{
+			if (managers == null)
+			{
+				pools = new MemoryPoolMXBean[] { new sun.management.MemoryPoolImpl("CLR Heap", true, -1, -1) };
+				MemoryManagerMXBean[] collectors = new MemoryManagerMXBean[GC.MaxGeneration + 1];
+				for (int i = 0; i < collectors.Length; i++)
+				{
+					collectors[i] = new sun.management.GarbageCollectorImpl("Gen " + i);
+				}
+				managers = collectors;
+			}
+		}
+#endif
+	}
+
+	internal static int GetGeneration(object gc)
+	{
+#if !FIRST_PASS
+		Init();
+		for (int i = 0; i < managers.Length; i++)
+		{
+			if (managers[i] == gc)
+			{
+				return i;
+			}
+		}
+#endif
+		throw new InvalidOperationException();
+	}
+
+	internal static object GetHeapUsage()
 	{
 #if FIRST_PASS
 		return null;
 #else
-		return new MemoryPoolMXBean[0];
+		long used = GC.GetTotalMemory(false);
+		long peak;
+		while (used > (peak = Interlocked.Read(ref peakUsed)) && Interlocked.CompareExchange(ref peakUsed, used, peak) != peak)
+		{
+		}
+		return new MemoryUsage(-1, used, used, -1);
 #endif
 	}
 
-	public static object getMemoryManagers0()
+	internal static object GetPeakHeapUsage()
 	{
 #if FIRST_PASS
 		return null;
 #else
-		return new MemoryManagerMXBean[0];
+		// the peak is sampled whenever the usage is queried
+		GetHeapUsage();
+		long peak = Interlocked.Read(ref peakUsed);
+		return new MemoryUsage(-1, peak, peak, -1);
 #endif
 	}
 
-	public static object getMemoryUsage0(object impl, bool heap)
+	internal static void ResetPeakHeapUsage()
+	{
+		Interlocked.Exchange(ref peakUsed, GC.GetTotalMemory(false));
+	}
+
+	public static object getMemoryPools0()
 	{
 #if FIRST_PASS
 		return null;
 #else
-		long mem = System.GC.GetTotalMemory(false);
-		return new MemoryUsage(-1, mem, mem, -1);
+		Init();
+		return pools.Clone();
 #endif
 	}
 
+	public static object getMemoryManagers0()
+	{
+#if FIRST_PASS
+		return null;
+#else
+		Init();
+		return managers.Clone();
+#endif
+	}
+
+	public static object getMemoryUsage0(object impl, bool heap)
+	{
+		return GetHeapUsage();
+	}
+
 	public static void setVerboseGC(object impl, bool value)
 	{
 	}
@@ -276,17 +430,32 @@ static class Java_sun_management_ThreadImpl
 #pragma warning restore 618
 	}
 
+	private static System.Diagnostics.ProcessThread GetCurrentProcessThread()
+	{
+		int currentId = GetCurrentThreadId();
+		System.Diagnostics.ProcessThreadCollection threads = System.Diagnostics.Process.GetCurrentProcess().Threads;
+		foreach (System.Diagnostics.ProcessThread t in threads) {
+			if (t.Id == currentId) {
+				return t;
+			}
+		}
+		return null;
+	}
+
+	private static bool IsCurrentThread(long id)
+	{
+#if FIRST_PASS
+		return false;
+#else
+		return id == java.lang.Thread.currentThread().getId();
+#endif
+	}
+
 	public static long getThreadTotalCpuTime0(long id)
 	{
         if (id == 0) {
-            int currentId = GetCurrentThreadId();
-            System.Diagnostics.ProcessThreadCollection threads = System.Diagnostics.Process.GetCurrentProcess().Threads;
-            foreach (System.Diagnostics.ProcessThread t in threads) {
-                if (t.Id == currentId) {
-                    return (long)(t.TotalProcessorTime.Ticks * 100);
-                }
-            }
-            return 0;
+            System.Diagnostics.ProcessThread t = GetCurrentProcessThread();
+            return t == null ? 0 : (long)(t.TotalProcessorTime.Ticks * 100);
         } else {
             throw new System.NotImplementedException("Only current Thread is supported.");
         }
@@ -294,22 +463,50 @@ static class Java_sun_management_ThreadImpl
 
 	public static void getThreadTotalCpuTime1(long[] ids, long[] result)
 	{
-		throw new System.NotImplementedException();
+		// ThreadImpl only passes other threads when isOtherThreadCpuTimeSupported() is true, which it isn't
+		for (int i = 0; i < ids.Length; i++)
+		{
+			result[i] = IsCurrentThread(ids[i]) ? getThreadTotalCpuTime0(0) : -1;
+		}
 	}
 
 	public static long getThreadUserCpuTime0(long id)
 	{
-		throw new System.NotImplementedException();
+        if (id == 0) {
+            System.Diagnostics.ProcessThread t = GetCurrentProcessThread();
+            return t == null ? 0 : (long)(t.UserProcessorTime.Ticks * 100);
+        } else {
+            throw new System.NotImplementedException("Only current Thread is supported.");
+        }
 	}
 
 	public static void getThreadUserCpuTime1(long[] ids, long[] result)
 	{
-		throw new System.NotImplementedException();
+		for (int i = 0; i < ids.Length; i++)
+		{
+			result[i] = IsCurrentThread(ids[i]) ? getThreadUserCpuTime0(0) : -1;
+		}
+	}
+
+	// GC.GetAllocatedBytesForCurrentThread only exists on newer versions of the CLR
+	// (and Func<long> isn't available before .NET 4, so we use our own delegate type)
+	private delegate long GetAllocatedBytesDelegate();
+	private static readonly GetAllocatedBytesDelegate getAllocatedBytesForCurrentThread = GetAllocatedBytesForCurrentThreadDelegate();
+
+	private static GetAllocatedBytesDelegate GetAllocatedBytesForCurrentThreadDelegate()
+	{
+		MethodInfo method = typeof(GC).GetMethod("GetAllocatedBytesForCurrentThread", BindingFlags.Static | BindingFlags.Public, null, Type.EmptyTypes, null);
+		return method == null ? null : (GetAllocatedBytesDelegate)Delegate.CreateDelegate(typeof(GetAllocatedBytesDelegate), method, false);
 	}
 
 	public static void getThreadAllocatedMemory1(long[] ids, long[] result)
 	{
-		throw new System.NotImplementedException();
+		// the CLR can only tell us the allocated bytes of the current thread, so for any
+		// other (live) thread we have to report -1, as if measurement were disabled
+		for (int i = 0; i < ids.Length; i++)
+		{
+			result[i] = getAllocatedBytesForCurrentThread != null && IsCurrentThread(ids[i]) ? getAllocatedBytesForCurrentThread() : -1;
+		}
 	}
 
 	public static void setThreadCpuTimeEnabled0(bool enable)
@@ -319,7 +516,7 @@ static class Java_sun_management_ThreadImpl
 
 	public static void setThreadAllocatedMemoryEnabled0(bool enable)
 	{
-		throw new System.NotImplementedException();
+		//ignoring, we need nothing to enable
 	}
 
 	public static void setThreadContentionMonitoringEnabled0(bool enable)
@@ -329,11 +526,14 @@ static class Java_sun_management_ThreadImpl
 
 	public static object findMonitorDeadlockedThreads0()
 	{
-		throw new System.NotImplementedException();
+		// the owner of a CLR monitor can't be queried, so we can't detect monitor deadlocks
+		return null;
 	}
 
 	public static object findDeadlockedThreads0()
 	{
+		// ThreadImpl only calls this when VMManagementImpl reports synchronizer usage support,
+		// which it doesn't, because the synchronizers a thread owns can't be enumerated
 		throw new System.NotImplementedException();
 	}
 
@@ -344,7 +544,30 @@ static class Java_sun_management_ThreadImpl
 
 	public static object dumpThreads0(long[] ids, bool lockedMonitors, bool lockedSynchronizers)
 	{
-		throw new System.NotImplementedException();
+#if FIRST_PASS
+		return null;
+#else
+		// lockedMonitors and lockedSynchronizers are always false here,
+		// because VMManagementImpl doesn't report object monitor or synchronizer usage support
+		bool allThreads = ids == null;
+		if (allThreads)
+		{
+			java.lang.Thread[] threads = (java.lang.Thread[])getThreads();
+			ids = new long[threads.Length];
+			for (int i = 0; i < threads.Length; i++)
+			{
+				ids[i] = threads[i].getId();
+			}
+		}
+		ThreadInfo[] result = new ThreadInfo[ids.Length];
+		getThreadInfo1(ids, -1, result);
+		if (allThreads)
+		{
+			// threads that terminated in the meantime don't have a ThreadInfo
+			result = Array.FindAll(result, delegate(ThreadInfo info) { return info != null; });
+		}
+		return result;
+#endif
 	}
 
 	public static void resetContentionTimes0(long tid)
@@ -648,6 +648,382 @@ static class Java_sun_misc_Unsafe
 #endif
 	}
 
+	private delegate T GetVolatileDelegate<T>(object obj);
+	private delegate void PutVolatileDelegate<T>(object obj, T value);
+	private static Delegate[] cacheGetVolatile = new Delegate[0];
+	private static Delegate[] cachePutVolatile = new Delegate[0];
+
+#if !FIRST_PASS
+	// returns null if the field type doesn't match T
+	private static GetVolatileDelegate<T> GetVolatileAccessor<T>(long offset)
+	{
+		Delegate accessor;
+		if (offset >= cacheGetVolatile.Length || (accessor = cacheGetVolatile[offset]) == null)
+		{
+			InterlockedResize(ref cacheGetVolatile, (int)offset + 1);
+			accessor = CreateVolatileAccessor(offset, false);
+			cacheGetVolatile[offset] = accessor;
+		}
+		return accessor as GetVolatileDelegate<T>;
+	}
+
+	// returns null if the field type doesn't match T
+	private static PutVolatileDelegate<T> PutVolatileAccessor<T>(long offset)
+	{
+		Delegate accessor;
+		if (offset >= cachePutVolatile.Length || (accessor = cachePutVolatile[offset]) == null)
+		{
+			InterlockedResize(ref cachePutVolatile, (int)offset + 1);
+			accessor = CreateVolatileAccessor(offset, true);
+			cachePutVolatile[offset] = accessor;
+		}
+		return accessor as PutVolatileDelegate<T>;
+	}
+
+	private static Delegate CreateVolatileAccessor(long fieldOffset, bool put)
+	{
+		FieldInfo field = GetFieldInfo(fieldOffset);
+		bool primitive = field.FieldType.IsPrimitive;
+		Type signatureType = primitive ? field.FieldType : typeof(object);
+		DynamicMethod dm = put
+			? new DynamicMethod("PutVolatile", null, new Type[] { typeof(object), signatureType }, field.DeclaringType)
+			: new DynamicMethod("GetVolatile", signatureType, new Type[] { typeof(object) }, field.DeclaringType);
+		ILGenerator ilgen = dm.GetILGenerator();
+		if (!field.IsStatic)
+		{
+			ilgen.Emit(OpCodes.Ldarg_0);
+			ilgen.Emit(OpCodes.Castclass, field.DeclaringType);
+		}
+		if (signatureType == typeof(long) || signatureType == typeof(double))
+		{
+			// use the same helpers as the compiler uses for volatile long and double fields, to make the access atomic
+			ilgen.Emit(field.IsStatic ? OpCodes.Ldsflda : OpCodes.Ldflda, field);
+			if (put)
+			{
+				ilgen.Emit(OpCodes.Ldarg_1);
+				ilgen.Emit(OpCodes.Call, typeof(IKVM.Runtime.ByteCodeHelper).GetMethod("VolatileWrite", new Type[] { signatureType.MakeByRefType(), signatureType }));
+			}
+			else
+			{
+				ilgen.Emit(OpCodes.Call, typeof(IKVM.Runtime.ByteCodeHelper).GetMethod("VolatileRead", new Type[] { signatureType.MakeByRefType() }));
+			}
+		}
+		else if (put)
+		{
+			ilgen.Emit(OpCodes.Ldarg_1);
+			if (!primitive)
+			{
+				ilgen.Emit(OpCodes.Castclass, field.FieldType);
+			}
+			ilgen.Emit(OpCodes.Volatile);
+			ilgen.Emit(field.IsStatic ? OpCodes.Stsfld : OpCodes.Stfld, field);
+			ilgen.Emit(OpCodes.Call, typeof(Thread).GetMethod("MemoryBarrier", Type.EmptyTypes));
+		}
+		else
+		{
+			ilgen.Emit(OpCodes.Volatile);
+			ilgen.Emit(field.IsStatic ? OpCodes.Ldsfld : OpCodes.Ldfld, field);
+		}
+		ilgen.Emit(OpCodes.Ret);
+		return dm.CreateDelegate((put ? typeof(PutVolatileDelegate<>) : typeof(GetVolatileDelegate<>)).MakeGenericType(signatureType));
+	}
+#endif
+
+	// the plain (non volatile) Unsafe accessors, used for arrays and for fields whose type doesn't match the accessor type
+	private delegate T PlainGetDelegate<T>(object thisUnsafe, object obj, long offset);
+	private delegate void PlainPutDelegate<T>(object thisUnsafe, object obj, long offset, T value);
+
+#if !FIRST_PASS
+	private static readonly PlainGetDelegate<object> plainGetObject = delegate(object thisUnsafe, object obj, long offset) { return ((sun.misc.Unsafe)thisUnsafe).getObject(obj, offset); };
+	private static readonly PlainPutDelegate<object> plainPutObject = delegate(object thisUnsafe, object obj, long offset, object value) { ((sun.misc.Unsafe)thisUnsafe).putObject(obj, offset, value); };
+	private static readonly PlainGetDelegate<int> plainGetInt = delegate(object thisUnsafe, object obj, long offset) { return ((sun.misc.Unsafe)thisUnsafe).getInt(obj, offset); };
+	private static readonly PlainPutDelegate<int> plainPutInt = delegate(object thisUnsafe, object obj, long offset, int value) { ((sun.misc.Unsafe)thisUnsafe).putInt(obj, offset, value); };
+	private static readonly PlainGetDelegate<long> plainGetLong = delegate(object thisUnsafe, object obj, long offset) { return ((sun.misc.Unsafe)thisUnsafe).getLong(obj, offset); };
+	private static readonly PlainPutDelegate<long> plainPutLong = delegate(object thisUnsafe, object obj, long offset, long value) { ((sun.misc.Unsafe)thisUnsafe).putLong(obj, offset, value); };
+	private static readonly PlainGetDelegate<bool> plainGetBoolean = delegate(object thisUnsafe, object obj, long offset) { return ((sun.misc.Unsafe)thisUnsafe).getBoolean(obj, offset); };
+	private static readonly PlainPutDelegate<bool> plainPutBoolean = delegate(object thisUnsafe, object obj, long offset, bool value) { ((sun.misc.Unsafe)thisUnsafe).putBoolean(obj, offset, value); };
+	private static readonly PlainGetDelegate<byte> plainGetByte = delegate(object thisUnsafe, object obj, long offset) { return ((sun.misc.Unsafe)thisUnsafe).getByte(obj, offset); };
+	private static readonly PlainPutDelegate<byte> plainPutByte = delegate(object thisUnsafe, object obj, long offset, byte value) { ((sun.misc.Unsafe)thisUnsafe).putByte(obj, offset, value); };
+	private static readonly PlainGetDelegate<char> plainGetChar = delegate(object thisUnsafe, object obj, long offset) { return ((sun.misc.Unsafe)thisUnsafe).getChar(obj, offset); };
+	private static readonly PlainPutDelegate<char> plainPutChar = delegate(object thisUnsafe, object obj, long offset, char value) { ((sun.misc.Unsafe)thisUnsafe).putChar(obj, offset, value); };
+	private static readonly PlainGetDelegate<short> plainGetShort = delegate(object thisUnsafe, object obj, long offset) { return ((sun.misc.Unsafe)thisUnsafe).getShort(obj, offset); };
+	private static readonly PlainPutDelegate<short> plainPutShort = delegate(object thisUnsafe, object obj, long offset, short value) { ((sun.misc.Unsafe)thisUnsafe).putShort(obj, offset, value); };
+	private static readonly PlainGetDelegate<float> plainGetFloat = delegate(object thisUnsafe, object obj, long offset) { return ((sun.misc.Unsafe)thisUnsafe).getFloat(obj, offset); };
+	private static readonly PlainPutDelegate<float> plainPutFloat = delegate(object thisUnsafe, object obj, long offset, float value) { ((sun.misc.Unsafe)thisUnsafe).putFloat(obj, offset, value); };
+	private static readonly PlainGetDelegate<double> plainGetDouble = delegate(object thisUnsafe, object obj, long offset) { return ((sun.misc.Unsafe)thisUnsafe).getDouble(obj, offset); };
+	private static readonly PlainPutDelegate<double> plainPutDouble = delegate(object thisUnsafe, object obj, long offset, double value) { ((sun.misc.Unsafe)thisUnsafe).putDouble(obj, offset, value); };
+
+	private static T GetVolatile<T>(object thisUnsafe, object obj, long offset, PlainGetDelegate<T> plainGet)
+	{
+		if (!(obj is Array))
+		{
+			GetVolatileDelegate<T> get = GetVolatileAccessor<T>(offset);
+			if (get != null)
+			{
+				return get(obj);
+			}
+		}
+		T value = plainGet(thisUnsafe, obj, offset);
+		Thread.MemoryBarrier();
+		return value;
+	}
+
+	private static void PutVolatile<T>(object thisUnsafe, object obj, long offset, T value, PlainPutDelegate<T> plainPut)
+	{
+		if (!(obj is Array))
+		{
+			PutVolatileDelegate<T> put = PutVolatileAccessor<T>(offset);
+			if (put != null)
+			{
+				put(obj, value);
+				return;
+			}
+		}
+		Thread.MemoryBarrier();
+		plainPut(thisUnsafe, obj, offset, value);
+		Thread.MemoryBarrier();
+	}
+#endif
+
+	public static object getObjectVolatile(object thisUnsafe, object obj, long offset)
+	{
+#if FIRST_PASS
+		return null;
+#else
+		Stats.Log("getObjectVolatile.", offset);
+		return GetVolatile(thisUnsafe, obj, offset, plainGetObject);
+#endif
+	}
+
+	public static void putObjectVolatile(object thisUnsafe, object obj, long offset, object newValue)
+	{
+#if !FIRST_PASS
+		Stats.Log("putObjectVolatile.", offset);
+		PutVolatile(thisUnsafe, obj, offset, newValue, plainPutObject);
+#endif
+	}
+
+	public static int getIntVolatile(object thisUnsafe, object obj, long offset)
+	{
+#if FIRST_PASS
+		return 0;
+#else
+		int[] array = obj as int[];
+		if (array != null && (offset & 3) == 0)
+		{
+			Stats.Log("getIntVolatile.array");
+			return Thread.VolatileRead(ref array[offset / 4]);
+		}
+		Stats.Log("getIntVolatile.", offset);
+		return GetVolatile(thisUnsafe, obj, offset, plainGetInt);
+#endif
+	}
+
+	public static void putIntVolatile(object thisUnsafe, object obj, long offset, int newValue)
+	{
+#if !FIRST_PASS
+		int[] array = obj as int[];
+		if (array != null && (offset & 3) == 0)
+		{
+			Stats.Log("putIntVolatile.array");
+			Interlocked.Exchange(ref array[offset / 4], newValue);
+			return;
+		}
+		Stats.Log("putIntVolatile.", offset);
+		PutVolatile(thisUnsafe, obj, offset, newValue, plainPutInt);
+#endif
+	}
+
+	public static long getLongVolatile(object thisUnsafe, object obj, long offset)
+	{
+#if FIRST_PASS
+		return 0;
+#else
+		long[] array = obj as long[];
+		if (array != null && (offset & 7) == 0)
+		{
+			Stats.Log("getLongVolatile.array");
+			return Interlocked.Read(ref array[offset / 8]);
+		}
+		else if (obj is Array)
+		{
+			Stats.Log("getLongVolatile.unaligned");
+			// unaligned or not the right array type, so we can't be atomic
+			lock (thisUnsafe)
+			{
+				return ReadInt64(obj, offset);
+			}
+		}
+		Stats.Log("getLongVolatile.", offset);
+		return GetVolatile(thisUnsafe, obj, offset, plainGetLong);
+#endif
+	}
+
+	public static void putLongVolatile(object thisUnsafe, object obj, long offset, long newValue)
+	{
+#if !FIRST_PASS
+		long[] array = obj as long[];
+		if (array != null && (offset & 7) == 0)
+		{
+			Stats.Log("putLongVolatile.array");
+			Interlocked.Exchange(ref array[offset / 8], newValue);
+			return;
+		}
+		else if (obj is Array)
+		{
+			Stats.Log("putLongVolatile.unaligned");
+			// unaligned or not the right array type, so we can't be atomic
+			lock (thisUnsafe)
+			{
+				WriteInt64(obj, offset, newValue);
+			}
+			return;
+		}
+		Stats.Log("putLongVolatile.", offset);
+		PutVolatile(thisUnsafe, obj, offset, newValue, plainPutLong);
+#endif
+	}
+
+	public static bool getBooleanVolatile(object thisUnsafe, object obj, long offset)
+	{
+#if FIRST_PASS
+		return false;
+#else
+		Stats.Log("getBooleanVolatile.", offset);
+		return GetVolatile(thisUnsafe, obj, offset, plainGetBoolean);
+#endif
+	}
+
+	public static void putBooleanVolatile(object thisUnsafe, object obj, long offset, bool newValue)
+	{
+#if !FIRST_PASS
+		Stats.Log("putBooleanVolatile.", offset);
+		PutVolatile(thisUnsafe, obj, offset, newValue, plainPutBoolean);
+#endif
+	}
+
+	public static byte getByteVolatile(object thisUnsafe, object obj, long offset)
+	{
+#if FIRST_PASS
+		return 0;
+#else
+		Stats.Log("getByteVolatile.", offset);
+		return GetVolatile(thisUnsafe, obj, offset, plainGetByte);
+#endif
+	}
+
+	public static void putByteVolatile(object thisUnsafe, object obj, long offset, byte newValue)
+	{
+#if !FIRST_PASS
+		Stats.Log("putByteVolatile.", offset);
+		PutVolatile(thisUnsafe, obj, offset, newValue, plainPutByte);
+#endif
+	}
+
+	public static char getCharVolatile(object thisUnsafe, object obj, long offset)
+	{
+#if FIRST_PASS
+		return '\0';
+#else
+		Stats.Log("getCharVolatile.", offset);
+		return GetVolatile(thisUnsafe, obj, offset, plainGetChar);
+#endif
+	}
+
+	public static void putCharVolatile(object thisUnsafe, object obj, long offset, char newValue)
+	{
+#if !FIRST_PASS
+		Stats.Log("putCharVolatile.", offset);
+		PutVolatile(thisUnsafe, obj, offset, newValue, plainPutChar);
+#endif
+	}
+
+	public static short getShortVolatile(object thisUnsafe, object obj, long offset)
+	{
+#if FIRST_PASS
+		return 0;
+#else
+		Stats.Log("getShortVolatile.", offset);
+		return GetVolatile(thisUnsafe, obj, offset, plainGetShort);
+#endif
+	}
+
+	public static void putShortVolatile(object thisUnsafe, object obj, long offset, short newValue)
+	{
+#if !FIRST_PASS
+		Stats.Log("putShortVolatile.", offset);
+		PutVolatile(thisUnsafe, obj, offset, newValue, plainPutShort);
+#endif
+	}
+
+	public static float getFloatVolatile(object thisUnsafe, object obj, long offset)
+	{
+#if FIRST_PASS
+		return 0;
+#else
+		Stats.Log("getFloatVolatile.", offset);
+		return GetVolatile(thisUnsafe, obj, offset, plainGetFloat);
+#endif
+	}
+
+	public static void putFloatVolatile(object thisUnsafe, object obj, long offset, float newValue)
+	{
+#if !FIRST_PASS
+		Stats.Log("putFloatVolatile.", offset);
+		PutVolatile(thisUnsafe, obj, offset, newValue, plainPutFloat);
+#endif
+	}
+
+	public static double getDoubleVolatile(object thisUnsafe, object obj, long offset)
+	{
+#if FIRST_PASS
+		return 0;
+#else
+		double[] array = obj as double[];
+		if (array != null && (offset & 7) == 0)
+		{
+			Stats.Log("getDoubleVolatile.array");
+			return Interlocked.CompareExchange(ref array[offset / 8], 0.0, 0.0);
+		}
+		else if (obj is Array)
+		{
+			Stats.Log("getDoubleVolatile.unaligned");
+			// unaligned or not the right array type, so we can't be atomic
+			lock (thisUnsafe)
+			{
+				return BitConverter.Int64BitsToDouble(ReadInt64(obj, offset));
+			}
+		}
+		Stats.Log("getDoubleVolatile.", offset);
+		return GetVolatile(thisUnsafe, obj, offset, plainGetDouble);
+#endif
+	}
+
+	public static void putDoubleVolatile(object thisUnsafe, object obj, long offset, double newValue)
+	{
+#if !FIRST_PASS
+		double[] array = obj as double[];
+		if (array != null && (offset & 7) == 0)
+		{
+			Stats.Log("putDoubleVolatile.array");
+			Interlocked.Exchange(ref array[offset / 8], newValue);
+			return;
+		}
+		else if (obj is Array)
+		{
+			Stats.Log("putDoubleVolatile.unaligned");
+			// unaligned or not the right array type, so we can't be atomic
+			lock (thisUnsafe)
+			{
+				WriteInt64(obj, offset, BitConverter.DoubleToInt64Bits(newValue));
+			}
+			return;
+		}
+		Stats.Log("putDoubleVolatile.", offset);
+		PutVolatile(thisUnsafe, obj, offset, newValue, plainPutDouble);
+#endif
+	}
+
 	abstract class Atomic
 	{
 		// NOTE we don't care that we keep the Type alive, because Unsafe should only be used inside the core class libraries
@@ -381,25 +381,54 @@ namespace IKVM.NativeCode.sun.nio.ch
 {
 	static class SocketDispatcher
 	{
+		// size of the per-thread array used for buffers that aren't backed by a managed array
+		// (this matches sun.nio.ch.Util.TEMP_ARRAY_SIZE)
+		private const int TempArraySize = 64 * 1024;
+
+		[ThreadStatic]
+		private static byte[] tempArray;
+
+		private static byte[] GetTemporaryArray()
+		{
+			byte[] buf = tempArray;
+			if (buf == null)
+			{
+				buf = tempArray = new byte[TempArraySize];
+			}
+			return buf;
+		}
+
 		public static long read(object nd, FileDescriptor fd, ByteBuffer[] bufs, int offset, int length)
 		{
 #if FIRST_PASS
 			return 0;
 #else
-			ByteBuffer[] altBufs = null;
+			byte[] temp = null;
+			int tempUsed = 0;
 			List<ArraySegment<byte>> list = new List<ArraySegment<byte>>(length);
 			for (int i = 0; i < length; i++)
 			{
 				ByteBuffer bb = bufs[i + offset];
-				if (!bb.hasArray())
+				if (bb.hasArray())
 				{
-					if (altBufs == null)
+					list.Add(new ArraySegment<byte>(bb.array(), bb.arrayOffset() + bb.position(), bb.remaining()));
+				}
+				else
+				{
+					// direct buffers are read into the temporary array, once that is full we
+					// stop adding buffers (a scattering read is allowed to read less)
+					if (temp == null)
+					{
+						temp = GetTemporaryArray();
+					}
+					int size = Math.Min(bb.remaining(), temp.Length - tempUsed);
+					if (size == 0 && bb.remaining() != 0)
 					{
-						altBufs = new ByteBuffer[bufs.Length];
+						break;
 					}
-					bb = altBufs[i + offset] = ByteBuffer.allocate(bb.remaining());
+					list.Add(new ArraySegment<byte>(temp, tempUsed, size));
+					tempUsed += size;
 				}
-				list.Add(new ArraySegment<byte>(bb.array(), bb.arrayOffset() + bb.position(), bb.remaining()));
 			}
 			int count;
 			try
@@ -422,16 +451,14 @@ namespace IKVM.NativeCode.sun.nio.ch
 				throw new global::java.net.SocketException("Socket is closed");
 			}
 			int total = count;
-			for (int i = 0; total > 0 && i < length; i++)
+			for (int i = 0; total > 0 && i < list.Count; i++)
 			{
 				ByteBuffer bb = bufs[i + offset];
-				ByteBuffer abb;
-				int consumed = Math.Min(total, bb.remaining());
-				if (altBufs != null && (abb = altBufs[i + offset]) != null)
+				ArraySegment<byte> segment = list[i];
+				int consumed = Math.Min(total, segment.Count);
+				if (segment.Array == temp)
 				{
-					abb.position(consumed);
-					abb.flip();
-					bb.put(abb);
+					bb.put(temp, segment.Offset, consumed);
 				}
 				else
 				{
@@ -448,25 +475,43 @@ namespace IKVM.NativeCode.sun.nio.ch
 #if FIRST_PASS
 			return 0;
 #else
-			ByteBuffer[] altBufs = null;
+			byte[] temp = null;
+			int tempUsed = 0;
 			List<ArraySegment<byte>> list = new List<ArraySegment<byte>>(length);
 			for (int i = 0; i < length; i++)
 			{
 				ByteBuffer bb = bufs[i + offset];
-				if (!bb.hasArray())
+				if (bb.hasArray())
 				{
-					if (altBufs == null)
+					list.Add(new ArraySegment<byte>(bb.array(), bb.arrayOffset() + bb.position(), bb.remaining()));
+				}
+				else
+				{
+					// direct buffers are copied into the temporary array while they fit,
+					// larger ones still require a private copy
+					if (temp == null)
 					{
-						altBufs = new ByteBuffer[bufs.Length];
+						temp = GetTemporaryArray();
 					}
-					ByteBuffer abb = ByteBuffer.allocate(bb.remaining());
 					int pos = bb.position();
-					abb.put(bb);
+					int size = bb.remaining();
+					byte[] buf;
+					int bufOffset;
+					if (size <= temp.Length - tempUsed)
+					{
+						buf = temp;
+						bufOffset = tempUsed;
+						tempUsed += size;
+					}
+					else
+					{
+						buf = new byte[size];
+						bufOffset = 0;
+					}
+					bb.get(buf, bufOffset, size);
 					bb.position(pos);
-					abb.flip();
-					bb = altBufs[i + offset] = abb;
+					list.Add(new ArraySegment<byte>(buf, bufOffset, size));
 				}
-				list.Add(new ArraySegment<byte>(bb.array(), bb.arrayOffset() + bb.position(), bb.remaining()));
 			}
 			int count;
 			try
@@ -112,6 +112,11 @@ static class Java_sun_reflect_Reflection
 #endif
 
 	internal static bool IsHideFromStackWalk(MethodBase mb)
+	{
+		return IsHideFromStackWalk(mb, HideFromJavaFlags.StackWalk);
+	}
+
+	private static bool IsHideFromStackWalk(MethodBase mb, HideFromJavaFlags flags)
 	{
 		Type type = mb.DeclaringType;
 		return type == null
@@ -120,10 +125,55 @@ static class Java_sun_reflect_Reflection
 			|| type.Assembly == Java_java_lang_SecurityManager.jniAssembly
 			|| type == typeof(java.lang.reflect.Method)
 			|| type == typeof(java.lang.reflect.Constructor)
-			|| (GetHideFromJavaFlags(mb) & HideFromJavaFlags.StackWalk) != 0
+			|| (GetHideFromJavaFlags(mb) & flags) != 0
 			;
 	}
 
+	// Walks the stack of the current thread from the top down. Getting a single StackFrame walks the stack
+	// up to that frame, so looking at frames one by one is quadratic in the number of frames we look at,
+	// while capturing a StackTrace always walks the entire stack. Since most walks end near the top of the stack,
+	// we get the first few frames one by one and capture the rest of the stack in a single pass.
+	internal sealed class StackWalker
+	{
+		private const int IndividualFrames = 8;
+		private int frame;
+		private int calls;
+		private StackTrace trace;
+		private int traceBase;
+
+		// skipFrames is relative to the method that calls Next()
+		internal StackWalker(int skipFrames)
+		{
+			this.frame = skipFrames;
+		}
+
+		// walks the frames of a previously captured stack trace
+		internal StackWalker(StackTrace trace)
+		{
+			this.calls = IndividualFrames;
+			this.trace = trace;
+		}
+
+		// returns null when we reach the bottom of the stack
+		[MethodImpl(MethodImplOptions.NoInlining)]
+		internal MethodBase Next()
+		{
+			int i = frame++;
+			if (++calls <= IndividualFrames)
+			{
+				// the + 1 skips this method
+				return new StackFrame(i + 1, false).GetMethod();
+			}
+			if (trace == null)
+			{
+				trace = new StackTrace(i + 1, false);
+				traceBase = i;
+			}
+			StackFrame sf = trace.GetFrame(i - traceBase);
+			return sf == null ? null : sf.GetMethod();
+		}
+	}
+
 	public static java.lang.Class getCallerClass()
 	{
 #if FIRST_PASS
@@ -144,20 +194,17 @@ static class Java_sun_reflect_Reflection
 		{
 			return ikvm.@internal.ClassLiteral<sun.reflect.Reflection>.Value;
 		}
-		for (int i = 2; ; )
+		StackWalker walker = new StackWalker(2);
+		for (; ; )
 		{
-			MethodBase method = new StackFrame(i++, false).GetMethod();
+			MethodBase method = walker.Next();
 			if (method == null)
 			{
 				return null;
 			}
-			if (IsHideFromStackWalk(method))
-			{
-				continue;
-			}
 			// HACK we skip HideFromJavaFlags.StackTrace too because we want to skip the LambdaForm methods
 			// that are used by late binding
-			if ((GetHideFromJavaFlags(method) & HideFromJavaFlags.StackTrace) != 0)
+			if (IsHideFromStackWalk(method, HideFromJavaFlags.StackWalk | HideFromJavaFlags.StackTrace))
 			{
 				continue;
 			}
@@ -980,6 +1027,85 @@ static class Java_sun_reflect_ReflectionFactory
 			}
 		}
 	}
+
+	// Like HotSpot, we start out with the slow (reflection based) accessor for methods and constructors
+	// and only generate a DynamicMethod once the accessor has been used inflationThreshold times.
+	// This saves the code generation cost for the many methods that are only invoked once or twice.
+	private abstract class InflatingAccessorImplBase
+	{
+		protected static readonly int inflationThreshold = 15;
+		protected int numInvocations;
+
+		static InflatingAccessorImplBase()
+		{
+			if ("true".Equals(java.lang.Props.props.getProperty("sun.reflect.noInflation")))
+			{
+				inflationThreshold = 0;
+				return;
+			}
+			string str = java.lang.Props.props.getProperty("sun.reflect.inflationThreshold");
+			int value;
+			if (str != null && int.TryParse(str, out value) && value >= 0)
+			{
+				inflationThreshold = value;
+			}
+		}
+
+		internal static bool NoInflation
+		{
+			get { return inflationThreshold == 0; }
+		}
+
+		protected bool Inflate()
+		{
+			// this isn't thread safe, but the worst that can happen is that we generate the fast accessor twice
+			return numInvocations < inflationThreshold && ++numInvocations == inflationThreshold;
+		}
+	}
+
+	private sealed class InflatingMethodAccessorImpl : InflatingAccessorImplBase, sun.reflect.MethodAccessor
+	{
+		private readonly MethodWrapper mw;
+		private sun.reflect.MethodAccessor accessor;
+
+		internal InflatingMethodAccessorImpl(MethodWrapper mw)
+		{
+			this.mw = mw;
+			this.accessor = new MethodAccessorImpl(mw);
+		}
+
+		[IKVM.Attributes.HideFromJava]
+		public object invoke(object obj, object[] args, ikvm.@internal.CallerID callerID)
+		{
+			if (Inflate())
+			{
+				accessor = new FastMethodAccessorImpl(mw);
+			}
+			return accessor.invoke(obj, args, callerID);
+		}
+	}
+
+	private sealed class InflatingConstructorAccessorImpl : InflatingAccessorImplBase, sun.reflect.ConstructorAccessor
+	{
+		private readonly java.lang.reflect.Constructor constructor;
+		private sun.reflect.ConstructorAccessor accessor;
+
+		internal InflatingConstructorAccessorImpl(java.lang.reflect.Constructor constructor, MethodWrapper mw)
+		{
+			this.constructor = constructor;
+			this.accessor = new ConstructorAccessorImpl(mw);
+		}
+
+		[IKVM.Attributes.HideFromJava]
+		public object newInstance(object[] args)
+		{
+			if (Inflate())
+			{
+				accessor = new FastConstructorAccessorImpl(constructor);
+			}
+			return accessor.newInstance(args);
+		}
+	}
 #endif // !NO_REF_EMIT
 
 	sealed class ActivatorConstructorAccessor : sun.reflect.ConstructorAccessor
@@ -2184,7 +2310,11 @@ static class Java_sun_reflect_ReflectionFactory
 #if !NO_REF_EMIT
 		if (!mw.IsDynamicOnly)
 		{
-			return new FastMethodAccessorImpl(mw);
+			if (InflatingAccessorImplBase.NoInflation)
+			{
+				return new FastMethodAccessorImpl(mw);
+			}
+			return new InflatingMethodAccessorImpl(mw);
 		}
 #endif
 		return new MethodAccessorImpl(mw);
@@ -2209,7 +2339,11 @@ static class Java_sun_reflect_ReflectionFactory
 #if NO_REF_EMIT
 			return new ConstructorAccessorImpl(mw);
 #else
-			return new FastConstructorAccessorImpl(constructor);
+			if (InflatingAccessorImplBase.NoInflation)
+			{
+				return new FastConstructorAccessorImpl(constructor);
+			}
+			return new InflatingConstructorAccessorImpl(constructor, mw);
 #endif
 		}
 #endif
@@ -0,0 +1,174 @@
+/*
+  Copyright (C) 2026 agent
+
+  This software is provided 'as-is', without any express or implied
+  warranty.  In no event will the authors be held liable for any damages
+  arising from the use of this software.
+
+  Permission is granted to anyone to use this software for any purpose,
+  including commercial applications, and to alter it and redistribute it
+  freely, subject to the following restrictions:
+
+  1. The origin of this software must not be misrepresented; you must not
+     claim that you wrote the original software. If you use this software
+     in a product, an acknowledgment in the product documentation would be
+     appreciated but is not required.
+  2. Altered source versions must be plainly marked as such, and must not be
+     misrepresented as being the original software.
+  3. This notice may not be removed or altered from any source distribution.
+
+  Jeroen Frijters
+  jeroen@frijters.net
+  
+*/
+package benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * A minimal harness for the micro benchmarks in this directory. Each benchmark is a class with a main
+ * method that calls measure for every case it covers. A case is warmed up and then run for a number
+ * of rounds, and the median rate of the rounds is printed. The rounds can be set with
+ * -Dbenchmark.warmup=n and -Dbenchmark.rounds=n.
+ */
+public final class Benchmark {
+
+	public static final double OPS = 1;
+	public static final double MB = 1024 * 1024;
+
+	private static final int WARMUP = Integer.getInteger("benchmark.warmup", 3);
+	private static final int ROUNDS = Integer.getInteger("benchmark.rounds", 7);
+
+	/**
+	 * One round of a benchmark.
+	 */
+	public interface Task {
+		/**
+		 * Does the work of one round and returns how much work it did, e.g. the number of operations or bytes.
+		 */
+		long run() throws Exception;
+	}
+
+	private Benchmark() {
+	}
+
+	/**
+	 * Prints the median rate of task in units per second, where count / unitSize units are done per round.
+	 * The bytes allocated per unit by the calling thread are printed too, if the VM supports measuring them.
+	 */
+	public static double measure(String name, String unit, double unitSize, Task task) throws Exception {
+		return measure(name, unit, unitSize, false, task);
+	}
+
+	/**
+	 * Prints the median rate of task in operations per second and the time per operation in nanoseconds.
+	 */
+	public static double measure(String name, Task task) throws Exception {
+		return measure(name, "op", OPS, true, task);
+	}
+
+	private static double measure(String name, String unit, double unitSize, boolean latency, Task task) throws Exception {
+		for (int i = 0; i < WARMUP; i++) {
+			task.run();
+		}
+		double[] rates = new double[ROUNDS];
+		long allocated = 0;
+		double units = 0;
+		for (int i = 0; i < ROUNDS; i++) {
+			long bytes = allocatedBytes();
+			long start = System.nanoTime();
+			long count = task.run();
+			long elapsed = System.nanoTime() - start;
+			allocated += allocatedBytes() - bytes;
+			units += count / unitSize;
+			rates[i] = count / unitSize * 1e9 / Math.max(elapsed, 1);
+		}
+		Arrays.sort(rates);
+		double median = rates[ROUNDS / 2];
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format("%-56s %14.1f %s/s  (%.1f - %.1f)", name, median, unit, rates[0], rates[ROUNDS - 1]));
+		if (latency) {
+			sb.append(String.format("  %.1f ns/%s", 1e9 / median, unit));
+		}
+		if (allocatedBytes() != -1 && units > 0) {
+			sb.append(String.format("  %.1f bytes/%s", allocated / units, unit));
+		}
+		System.out.println(sb);
+		return median;
+	}
+
+	/**
+	 * Runs task on the given number of threads at the same time and returns the sum of their counts.
+	 */
+	public static long parallel(int threads, final Task task) throws Exception {
+		final CountDownLatch start = new CountDownLatch(1);
+		final long[] counts = new long[threads];
+		final Throwable[] errors = new Throwable[threads];
+		List<Thread> list = new ArrayList<Thread>();
+		for (int i = 0; i < threads; i++) {
+			final int index = i;
+			Thread thread = new Thread() {
+				public void run() {
+					try {
+						start.await();
+						counts[index] = task.run();
+					} catch (Throwable x) {
+						errors[index] = x;
+					}
+				}
+			};
+			thread.start();
+			list.add(thread);
+		}
+		start.countDown();
+		long total = 0;
+		for (int i = 0; i < threads; i++) {
+			list.get(i).join();
+			if (errors[i] != null) {
+				throw new RuntimeException(errors[i]);
+			}
+			total += counts[i];
+		}
+		return total;
+	}
+
+	/**
+	 * Runs task with depth extra frames on the stack.
+	 */
+	public static long atDepth(int depth, Task task) throws Exception {
+		return depth <= 0 ? task.run() : atDepth(depth - 1, task);
+	}
+
+	/**
+	 * Returns the bytes allocated by the current thread, or -1 if the VM doesn't support measuring it.
+	 */
+	private static long allocatedBytes() {
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean)bean;
+			if (sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled()) {
+				return sunBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Parses the command line arguments as ints, or returns the defaults if there are none.
+	 */
+	public static int[] intArgs(String[] args, int... defaults) {
+		if (args.length == 0) {
+			return defaults;
+		}
+		int[] values = new int[args.length];
+		for (int i = 0; i < args.length; i++) {
+			values[i] = Integer.parseInt(args[i]);
+		}
+		return values;
+	}
+}
@@ -0,0 +1,78 @@
+/*
+  Copyright (C) 2026 agent
+
+  This software is provided 'as-is', without any express or implied
+  warranty.  In no event will the authors be held liable for any damages
+  arising from the use of this software.
+
+  Permission is granted to anyone to use this software for any purpose,
+  including commercial applications, and to alter it and redistribute it
+  freely, subject to the following restrictions:
+
+  1. The origin of this software must not be misrepresented; you must not
+     claim that you wrote the original software. If you use this software
+     in a product, an acknowledgment in the product documentation would be
+     appreciated but is not required.
+  2. Altered source versions must be plainly marked as such, and must not be
+     misrepresented as being the original software.
+  3. This notice may not be removed or altered from any source distribution.
+
+  Jeroen Frijters
+  jeroen@frijters.net
+  
+*/
+package benchmark;
+
+import java.util.Random;
+
+/**
+ * Generates reproducible test data for the compression benchmarks.
+ */
+public final class Corpus {
+
+	private static final String[] WORDS = {
+		"public", "private", "static", "final", "class", "void", "int", "long", "return", "if", "else", "for",
+		"while", "new", "null", "this", "throw", "catch", "try", "import", "package", "String", "Object",
+		"length", "index", "buffer", "count", "value", "result", "offset", "=", "==", "!=", "+", "-", "<", ">",
+		"(", ")", "{", "}", ";", ".", ",", "[", "]", "0", "1", "true", "false",
+	};
+
+	private Corpus() {
+	}
+
+	/**
+	 * Returns size bytes of text that looks like source code, it compresses about as well as real source code.
+	 */
+	public static byte[] text(int size) {
+		Random random = new Random(size);
+		byte[] data = new byte[size];
+		int pos = 0;
+		while (pos < size) {
+			StringBuilder line = new StringBuilder();
+			for (int indent = random.nextInt(4); indent > 0; indent--) {
+				line.append('\t');
+			}
+			for (int words = 1 + random.nextInt(10); words > 0; words--) {
+				// a skewed distribution, like in real text
+				line.append(WORDS[(int)(WORDS.length * Math.pow(random.nextDouble(), 2))]).append(' ');
+				if (random.nextInt(8) == 0) {
+					line.append("name").append(random.nextInt(1000)).append(' ');
+				}
+			}
+			line.append('\n');
+			for (int i = 0; i < line.length() && pos < size; i++) {
+				data[pos++] = (byte)line.charAt(i);
+			}
+		}
+		return data;
+	}
+
+	/**
+	 * Returns size random bytes, they don't compress.
+	 */
+	public static byte[] random(int size) {
+		byte[] data = new byte[size];
+		new Random(size).nextBytes(data);
+		return data;
+	}
+}
@@ -0,0 +1,70 @@
+/*
+  Copyright (C) 2026 agent
+
+  This software is provided 'as-is', without any express or implied
+  warranty.  In no event will the authors be held liable for any damages
+  arising from the use of this software.
+
+  Permission is granted to anyone to use this software for any purpose,
+  including commercial applications, and to alter it and redistribute it
+  freely, subject to the following restrictions:
+
+  1. The origin of this software must not be misrepresented; you must not
+     claim that you wrote the original software. If you use this software
+     in a product, an acknowledgment in the product documentation would be
+     appreciated but is not required.
+  2. Altered source versions must be plainly marked as such, and must not be
+     misrepresented as being the original software.
+  3. This notice may not be removed or altered from any source distribution.
+
+  Jeroen Frijters
+  jeroen@frijters.net
+  
+*/
+package java_.lang;
+
+import java.lang.reflect.Method;
+
+import benchmark.Benchmark;
+
+/**
+ * Measures Class.forName(String), which has to find its caller's class loader, at stack depths of 10, 100 and 1000.
+ * It is called directly and through reflection, where the caller is found by walking the stack.
+ * The arguments are the stack depths (default 10, 100, 1000).
+ */
+public class CallerSensitiveBenchmark {
+
+	private static final int COUNT = 10000;
+
+	public static void main(String[] args) throws Exception {
+		final Method forName = Class.class.getMethod("forName", String.class);
+		for (final int depth : Benchmark.intArgs(args, 10, 100, 1000)) {
+			final Benchmark.Task task = new Benchmark.Task() {
+				public long run() throws Exception {
+					for (int i = 0; i < COUNT; i++) {
+						Class.forName("java.lang.String");
+					}
+					return COUNT;
+				}
+			};
+			Benchmark.measure("Class.forName, stack depth " + depth, new Benchmark.Task() {
+				public long run() throws Exception {
+					return Benchmark.atDepth(depth, task);
+				}
+			});
+			final Benchmark.Task reflectiveTask = new Benchmark.Task() {
+				public long run() throws Exception {
+					for (int i = 0; i < COUNT; i++) {
+						forName.invoke(null, "java.lang.String");
+					}
+					return COUNT;
+				}
+			};
+			Benchmark.measure("Class.forName via reflection, stack depth " + depth, new Benchmark.Task() {
+				public long run() throws Exception {
+					return Benchmark.atDepth(depth, reflectiveTask);
+				}
+			});
+		}
+	}
+}
@@ -0,0 +1,83 @@
+/*
+  Copyright (C) 2026 agent
+
+  This software is provided 'as-is', without any express or implied
+  warranty.  In no event will the authors be held liable for any damages
+  arising from the use of this software.
+
+  Permission is granted to anyone to use this software for any purpose,
+  including commercial applications, and to alter it and redistribute it
+  freely, subject to the following restrictions:
+
+  1. The origin of this software must not be misrepresented; you must not
+     claim that you wrote the original software. If you use this software
+     in a product, an acknowledgment in the product documentation would be
+     appreciated but is not required.
+  2. Altered source versions must be plainly marked as such, and must not be
+     misrepresented as being the original software.
+  3. This notice may not be removed or altered from any source distribution.
+
+  Jeroen Frijters
+  jeroen@frijters.net
+  
+*/
+package java_.lang;
+
+import benchmark.Benchmark;
+
+/**
+ * Measures creating, throwing and catching exceptions at stack depths of 10, 100 and 1000,
+ * with and without asking for the stack trace afterwards.
+ * The arguments are the stack depths (default 10, 100, 1000).
+ */
+public class ExceptionBenchmark {
+
+	private static final int COUNT = 2000;
+
+	static volatile Object sink;
+
+	public static void main(String[] args) throws Exception {
+		for (final int depth : Benchmark.intArgs(args, 10, 100, 1000)) {
+			measure("new Exception", depth, new Benchmark.Task() {
+				public long run() {
+					for (int i = 0; i < COUNT; i++) {
+						sink = new Exception();
+					}
+					return COUNT;
+				}
+			});
+			measure("throw and catch", depth, new Benchmark.Task() {
+				public long run() {
+					for (int i = 0; i < COUNT; i++) {
+						try {
+							throw new Exception();
+						} catch (Exception x) {
+							sink = x;
+						}
+					}
+					return COUNT;
+				}
+			});
+			measure("throw, catch and getStackTrace", depth, new Benchmark.Task() {
+				public long run() {
+					for (int i = 0; i < COUNT; i++) {
+						try {
+							throw new Exception();
+						} catch (Exception x) {
+							sink = x.getStackTrace();
+						}
+					}
+					return COUNT;
+				}
+			});
+		}
+	}
+
+	private static void measure(String name, final int depth, final Benchmark.Task task) throws Exception {
+		Benchmark.measure(name + ", stack depth " + depth, new Benchmark.Task() {
+			public long run() throws Exception {
+				return Benchmark.atDepth(depth, task);
+			}
+		});
+	}
+}
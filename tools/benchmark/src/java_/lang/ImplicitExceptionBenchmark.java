@@ -0,0 +1,77 @@
+/*
+  Copyright (C) 2026 agent
+
+  This software is provided 'as-is', without any express or implied
+  warranty.  In no event will the authors be held liable for any damages
+  arising from the use of this software.
+
+  Permission is granted to anyone to use this software for any purpose,
+  including commercial applications, and to alter it and redistribute it
+  freely, subject to the following restrictions:
+
+  1. The origin of this software must not be misrepresented; you must not
+     claim that you wrote the original software. If you use this software
+     in a product, an acknowledgment in the product documentation would be
+     appreciated but is not required.
+  2. Altered source versions must be plainly marked as such, and must not be
+     misrepresented as being the original software.
+  3. This notice may not be removed or altered from any source distribution.
+
+  Jeroen Frijters
+  jeroen@frijters.net
+  
+*/
+package java_.lang;
+
+import benchmark.Benchmark;
+
+/**
+ * Measures catching exceptions that the VM throws implicitly (NullPointerException, ArithmeticException and
+ * ArrayIndexOutOfBoundsException) on several threads. On IKVM these start as .NET exceptions that are remapped
+ * to their Java counterparts, and the remapping is recorded in a shared weak identity map.
+ * The arguments are the thread counts (default 1, 4, 32).
+ */
+public class ImplicitExceptionBenchmark {
+
+	private static final int COUNT = 20000;
+
+	private static volatile Object nullObject;
+	private static volatile int zero;
+	private static final int[] empty = new int[0];
+
+	public static void main(String[] args) throws Exception {
+		for (final int threads : Benchmark.intArgs(args, 1, 4, 32)) {
+			Benchmark.measure("implicit exceptions, " + threads + " threads", "op", Benchmark.OPS, new Benchmark.Task() {
+				public long run() throws Exception {
+					return Benchmark.parallel(threads, new Benchmark.Task() {
+						public long run() {
+							int count = COUNT / threads;
+							int caught = 0;
+							for (int n = 0; n < count; n++) {
+								try {
+									switch (n % 3) {
+										case 0:
+											nullObject.hashCode();
+											break;
+										case 1:
+											caught += 1 / zero;
+											break;
+										default:
+											caught += empty[n];
+											break;
+									}
+								} catch (RuntimeException x) {
+									caught++;
+								}
+							}
+							if (caught != count) {
+								throw new IllegalStateException();
+							}
+							return count;
+						}
+					});
+				}
+			});
+		}
+	}
+}
@@ -0,0 +1,107 @@
+/*
+  Copyright (C) 2026 agent
+
+  This software is provided 'as-is', without any express or implied
+  warranty.  In no event will the authors be held liable for any damages
+  arising from the use of this software.
+
+  Permission is granted to anyone to use this software for any purpose,
+  including commercial applications, and to alter it and redistribute it
+  freely, subject to the following restrictions:
+
+  1. The origin of this software must not be misrepresented; you must not
+     claim that you wrote the original software. If you use this software
+     in a product, an acknowledgment in the product documentation would be
+     appreciated but is not required.
+  2. Altered source versions must be plainly marked as such, and must not be
+     misrepresented as being the original software.
+  3. This notice may not be removed or altered from any source distribution.
+
+  Jeroen Frijters
+  jeroen@frijters.net
+  
+*/
+package java_.lang;
+
+import benchmark.Benchmark;
+
+/**
+ * Measures loops over Math.sqrt, abs, min and max, which IKVM compiles as intrinsics.
+ */
+public class MathBenchmark {
+
+	private static final int COUNT = 1000000;
+
+	static volatile long sink;
+
+	public static void main(String[] args) throws Exception {
+		final int[] ints = new int[1024];
+		final long[] longs = new long[1024];
+		final double[] doubles = new double[1024];
+		for (int i = 0; i < ints.length; i++) {
+			ints[i] = (i * 0x9E3779B9) >> 3;
+			longs[i] = ints[i] * 0x100000001L;
+			doubles[i] = Math.abs(ints[i]) / 7.0;
+		}
+		Benchmark.measure("Math.sqrt", new Benchmark.Task() {
+			public long run() {
+				double sum = 0;
+				for (int i = 0; i < COUNT; i++) {
+					sum += Math.sqrt(doubles[i & 1023]);
+				}
+				sink = (long)sum;
+				return COUNT;
+			}
+		});
+		Benchmark.measure("Math.abs(int)", new Benchmark.Task() {
+			public long run() {
+				int sum = 0;
+				for (int i = 0; i < COUNT; i++) {
+					sum += Math.abs(ints[i & 1023]);
+				}
+				sink = sum;
+				return COUNT;
+			}
+		});
+		Benchmark.measure("Math.abs(long)", new Benchmark.Task() {
+			public long run() {
+				long sum = 0;
+				for (int i = 0; i < COUNT; i++) {
+					sum += Math.abs(longs[i & 1023]);
+				}
+				sink = sum;
+				return COUNT;
+			}
+		});
+		Benchmark.measure("Math.abs(double)", new Benchmark.Task() {
+			public long run() {
+				double sum = 0;
+				for (int i = 0; i < COUNT; i++) {
+					sum += Math.abs(doubles[i & 1023] - 1000.0);
+				}
+				sink = (long)sum;
+				return COUNT;
+			}
+		});
+		Benchmark.measure("Math.min/max(int)", new Benchmark.Task() {
+			public long run() {
+				int sum = 0;
+				for (int i = 0; i < COUNT; i++) {
+					sum += Math.min(ints[i & 1023], ints[(i + 1) & 1023]) ^ Math.max(ints[i & 1023], ints[(i + 2) & 1023]);
+				}
+				sink = sum;
+				return COUNT;
+			}
+		});
+		Benchmark.measure("Math.min/max(long)", new Benchmark.Task() {
+			public long run() {
+				long sum = 0;
+				for (int i = 0; i < COUNT; i++) {
+					sum += Math.min(longs[i & 1023], longs[(i + 1) & 1023]) ^ Math.max(longs[i & 1023], longs[(i + 2) & 1023]);
+				}
+				sink = sum;
+				return COUNT;
+			}
+		});
+	}
+}
@@ -0,0 +1,112 @@
+/*
+  Copyright (C) 2026 agent
+
+  This software is provided 'as-is', without any express or implied
+  warranty.  In no event will the authors be held liable for any damages
+  arising from the use of this software.
+
+  Permission is granted to anyone to use this software for any purpose,
+  including commercial applications, and to alter it and redistribute it
+  freely, subject to the following restrictions:
+
+  1. The origin of this software must not be misrepresented; you must not
+     claim that you wrote the original software. If you use this software
+     in a product, an acknowledgment in the product documentation would be
+     appreciated but is not required.
+  2. Altered source versions must be plainly marked as such, and must not be
+     misrepresented as being the original software.
+  3. This notice may not be removed or altered from any source distribution.
+
+  Jeroen Frijters
+  jeroen@frijters.net
+  
+*/
+package java_.lang.management;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+
+import benchmark.Benchmark;
+
+/**
+ * Measures the cost of the MXBean queries that monitoring tools poll: heap and pool usage,
+ * collection counts, thread CPU time and allocated bytes, and deadlock detection where it is supported.
+ */
+public class ManagementBenchmark {
+
+	private static final int COUNT = 10000;
+
+	static volatile long sink;
+
+	public static void main(String[] args) throws Exception {
+		final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+		final List<MemoryPoolMXBean> pools = ManagementFactory.getMemoryPoolMXBeans();
+		final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+		final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		final long id = Thread.currentThread().getId();
+		Benchmark.measure("MemoryMXBean.getHeapMemoryUsage", new Benchmark.Task() {
+			public long run() {
+				for (int i = 0; i < COUNT; i++) {
+					sink = memory.getHeapMemoryUsage().getUsed();
+				}
+				return COUNT;
+			}
+		});
+		Benchmark.measure("MemoryPoolMXBean.getUsage, all pools", new Benchmark.Task() {
+			public long run() {
+				for (int i = 0; i < COUNT; i++) {
+					for (MemoryPoolMXBean pool : pools) {
+						sink = pool.getUsage().getUsed();
+					}
+				}
+				return COUNT;
+			}
+		});
+		Benchmark.measure("GarbageCollectorMXBean.getCollectionCount, all", new Benchmark.Task() {
+			public long run() {
+				for (int i = 0; i < COUNT; i++) {
+					for (GarbageCollectorMXBean collector : collectors) {
+						sink = collector.getCollectionCount();
+					}
+				}
+				return COUNT;
+			}
+		});
+		if (threads.isCurrentThreadCpuTimeSupported()) {
+			Benchmark.measure("ThreadMXBean.getCurrentThreadCpuTime", new Benchmark.Task() {
+				public long run() {
+					for (int i = 0; i < COUNT; i++) {
+						sink = threads.getCurrentThreadCpuTime();
+					}
+					return COUNT;
+				}
+			});
+		}
+		if (threads instanceof com.sun.management.ThreadMXBean && ((com.sun.management.ThreadMXBean)threads).isThreadAllocatedMemorySupported()) {
+			final com.sun.management.ThreadMXBean sunThreads = (com.sun.management.ThreadMXBean)threads;
+			Benchmark.measure("ThreadMXBean.getThreadAllocatedBytes", new Benchmark.Task() {
+				public long run() {
+					for (int i = 0; i < COUNT; i++) {
+						sink = sunThreads.getThreadAllocatedBytes(id);
+					}
+					return COUNT;
+				}
+			});
+		}
+		if (threads.isSynchronizerUsageSupported()) {
+			Benchmark.measure("ThreadMXBean.findDeadlockedThreads", new Benchmark.Task() {
+				public long run() {
+					int count = COUNT / 10;
+					for (int i = 0; i < count; i++) {
+						sink = threads.findDeadlockedThreads() == null ? 0 : 1;
+					}
+					return count;
+				}
+			});
+		}
+	}
+}
@@ -0,0 +1,91 @@
+/*
+  Copyright (C) 2026 agent
+
+  This software is provided 'as-is', without any express or implied
+  warranty.  In no event will the authors be held liable for any damages
+  arising from the use of this software.
+
+  Permission is granted to anyone to use this software for any purpose,
+  including commercial applications, and to alter it and redistribute it
+  freely, subject to the following restrictions:
+
+  1. The origin of this software must not be misrepresented; you must not
+     claim that you wrote the original software. If you use this software
+     in a product, an acknowledgment in the product documentation would be
+     appreciated but is not required.
+  2. Altered source versions must be plainly marked as such, and must not be
+     misrepresented as being the original software.
+  3. This notice may not be removed or altered from any source distribution.
+
+  Jeroen Frijters
+  jeroen@frijters.net
+  
+*/
+package java_.lang.ref;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+
+import benchmark.Benchmark;
+
+/**
+ * Measures how fast cleared weak references reach their queue while 10^6 other references on the same queue
+ * keep their referents reachable, and how fast references can be registered. Each enqueue round registers
+ * a batch of references, drops their referents, triggers a GC and polls the queue until the whole batch
+ * has been enqueued.
+ * The arguments are the batch sizes (default 1000, 100000).
+ */
+public class ReferenceQueueBenchmark {
+
+	private static final int LIVE = 1000000;
+
+	public static void main(String[] args) throws Exception {
+		final ReferenceQueue<Object> queue = new ReferenceQueue<Object>();
+		List<Object> referents = new ArrayList<Object>(LIVE);
+		List<Reference<Object>> live = new ArrayList<Reference<Object>>(LIVE);
+		for (int i = 0; i < LIVE; i++) {
+			Object referent = new Object();
+			referents.add(referent);
+			live.add(new WeakReference<Object>(referent, queue));
+		}
+		for (final int batch : Benchmark.intArgs(args, 1000, 100000)) {
+			Benchmark.measure("enqueue " + batch + " of " + LIVE + " references", "reference", Benchmark.OPS, new Benchmark.Task() {
+				public long run() throws Exception {
+					List<Reference<Object>> refs = new ArrayList<Reference<Object>>(batch);
+					for (int i = 0; i < batch; i++) {
+						refs.add(new WeakReference<Object>(new Object(), queue));
+					}
+					int enqueued = 0;
+					while (enqueued < batch) {
+						System.gc();
+						while (queue.poll() != null) {
+							enqueued++;
+						}
+						if (enqueued < batch && queue.remove(100) != null) {
+							enqueued++;
+						}
+					}
+					refs.clear();
+					return batch;
+				}
+			});
+			Benchmark.measure("register " + batch + " references", "reference", Benchmark.OPS, new Benchmark.Task() {
+				public long run() {
+					Object referent = new Object();
+					List<Reference<Object>> refs = new ArrayList<Reference<Object>>(batch);
+					for (int i = 0; i < batch; i++) {
+						refs.add(new WeakReference<Object>(referent, queue));
+					}
+					return refs.size();
+				}
+			});
+		}
+		// keep the live references reachable until the end
+		if (referents.size() != live.size()) {
+			throw new IllegalStateException();
+		}
+	}
+}
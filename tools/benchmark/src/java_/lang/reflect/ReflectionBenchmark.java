@@ -0,0 +1,137 @@
+/*
+  Copyright (C) 2026 agent
+
+  This software is provided 'as-is', without any express or implied
+  warranty.  In no event will the authors be held liable for any damages
+  arising from the use of this software.
+
+  Permission is granted to anyone to use this software for any purpose,
+  including commercial applications, and to alter it and redistribute it
+  freely, subject to the following restrictions:
+
+  1. The origin of this software must not be misrepresented; you must not
+     claim that you wrote the original software. If you use this software
+     in a product, an acknowledgment in the product documentation would be
+     appreciated but is not required.
+  2. Altered source versions must be plainly marked as such, and must not be
+     misrepresented as being the original software.
+  3. This notice may not be removed or altered from any source distribution.
+
+  Jeroen Frijters
+  jeroen@frijters.net
+  
+*/
+package java_.lang.reflect;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+
+import benchmark.Benchmark;
+
+/**
+ * Measures reflective calls that run only a few times, as is typical at startup, and steady state reflective calls.
+ * The few-calls cases look up a fresh Method or Constructor for every call (of a new class loader's copy of a class,
+ * so nothing is shared) and invoke it one, two or 20 times.
+ */
+public class ReflectionBenchmark {
+
+	public static class Target {
+		public Target(int value) {
+		}
+
+		public int add(int a, int b) {
+			return a + b;
+		}
+	}
+
+	static volatile Object sink;
+	private static byte[] classFile;
+
+	public static void main(String[] args) throws Exception {
+		for (final int calls : new int[] { 1, 2, 20 }) {
+			Benchmark.measure("Method.invoke, " + calls + " calls on a fresh class", new Benchmark.Task() {
+				public long run() throws Exception {
+					int count = 200;
+					for (int i = 0; i < count; i++) {
+						Class<?> clazz = freshClass();
+						Method method = clazz.getMethod("add", int.class, int.class);
+						Object obj = clazz.getConstructor(int.class).newInstance(1);
+						for (int j = 0; j < calls; j++) {
+							sink = method.invoke(obj, 1, j);
+						}
+					}
+					return count;
+				}
+			});
+			Benchmark.measure("Constructor.newInstance, " + calls + " calls on a fresh class", new Benchmark.Task() {
+				public long run() throws Exception {
+					int count = 200;
+					for (int i = 0; i < count; i++) {
+						Constructor<?> constructor = freshClass().getConstructor(int.class);
+						for (int j = 0; j < calls; j++) {
+							sink = constructor.newInstance(j);
+						}
+					}
+					return count;
+				}
+			});
+		}
+		final Method method = Target.class.getMethod("add", int.class, int.class);
+		final Constructor<?> constructor = Target.class.getConstructor(int.class);
+		final Target target = new Target(0);
+		Benchmark.measure("Method.invoke, steady state", new Benchmark.Task() {
+			public long run() throws Exception {
+				int count = 1000000;
+				for (int i = 0; i < count; i++) {
+					sink = method.invoke(target, 1, i);
+				}
+				return count;
+			}
+		});
+		Benchmark.measure("Constructor.newInstance, steady state", new Benchmark.Task() {
+			public long run() throws Exception {
+				int count = 1000000;
+				for (int i = 0; i < count; i++) {
+					sink = constructor.newInstance(i);
+				}
+				return count;
+			}
+		});
+	}
+
+	/**
+	 * Loads a new copy of Target in its own class loader.
+	 */
+	private static Class<?> freshClass() throws Exception {
+		final String name = Target.class.getName();
+		final byte[] bytes = readClassFile(name);
+		ClassLoader loader = new ClassLoader(ReflectionBenchmark.class.getClassLoader()) {
+			protected Class<?> loadClass(String n, boolean resolve) throws ClassNotFoundException {
+				if (n.equals(name)) {
+					synchronized (this) {
+						Class<?> c = findLoadedClass(n);
+						return c != null ? c : defineClass(n, bytes, 0, bytes.length);
+					}
+				}
+				return super.loadClass(n, resolve);
+			}
+		};
+		return loader.loadClass(name);
+	}
+
+	private static synchronized byte[] readClassFile(String name) throws Exception {
+		if (classFile == null) {
+			InputStream in = ReflectionBenchmark.class.getResourceAsStream("/" + name.replace('.', '/') + ".class");
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buf = new byte[4096];
+			for (int n; (n = in.read(buf)) != -1; ) {
+				out.write(buf, 0, n);
+			}
+			in.close();
+			classFile = out.toByteArray();
+		}
+		return classFile;
+	}
+}
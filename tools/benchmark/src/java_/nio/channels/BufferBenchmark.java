@@ -0,0 +1,83 @@
+/*
+  Copyright (C) 2026 agent
+
+  This software is provided 'as-is', without any express or implied
+  warranty.  In no event will the authors be held liable for any damages
+  arising from the use of this software.
+
+  Permission is granted to anyone to use this software for any purpose,
+  including commercial applications, and to alter it and redistribute it
+  freely, subject to the following restrictions:
+
+  1. The origin of this software must not be misrepresented; you must not
+     claim that you wrote the original software. If you use this software
+     in a product, an acknowledgment in the product documentation would be
+     appreciated but is not required.
+  2. Altered source versions must be plainly marked as such, and must not be
+     misrepresented as being the original software.
+  3. This notice may not be removed or altered from any source distribution.
+
+  Jeroen Frijters
+  jeroen@frijters.net
+  
+*/
+package java_.nio.channels;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import benchmark.Benchmark;
+
+/**
+ * Measures FileChannel reads and writes with direct and heap buffers of several sizes.
+ * The allocated bytes per operation show the temporary arrays the I/O needs.
+ */
+public class BufferBenchmark {
+
+	private static final int FILE_SIZE = 16 * 1024 * 1024;
+
+	public static void main(String[] args) throws Exception {
+		File file = File.createTempFile("buffer", ".dat");
+		try {
+			RandomAccessFile raf = new RandomAccessFile(file, "rw");
+			try {
+				raf.setLength(FILE_SIZE);
+				FileChannel channel = raf.getChannel();
+				for (int size : new int[] { 512, 4096, 64 * 1024 }) {
+					readWrite(channel, ByteBuffer.allocateDirect(size), "direct");
+					readWrite(channel, ByteBuffer.allocate(size), "heap");
+				}
+			} finally {
+				raf.close();
+			}
+		} finally {
+			file.delete();
+		}
+	}
+
+	private static void readWrite(final FileChannel channel, final ByteBuffer buf, String kind) throws Exception {
+		final int count = FILE_SIZE / buf.capacity();
+		Benchmark.measure("read " + kind + " " + buf.capacity(), new Benchmark.Task() {
+			public long run() throws Exception {
+				channel.position(0);
+				for (int i = 0; i < count; i++) {
+					buf.clear();
+					channel.read(buf);
+				}
+				return count;
+			}
+		});
+		Benchmark.measure("write " + kind + " " + buf.capacity(), new Benchmark.Task() {
+			public long run() throws Exception {
+				channel.position(0);
+				for (int i = 0; i < count; i++) {
+					buf.clear();
+					channel.write(buf);
+				}
+				return count;
+			}
+		});
+	}
+}
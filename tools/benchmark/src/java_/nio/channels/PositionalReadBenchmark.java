@@ -0,0 +1,77 @@
+/*
+  Copyright (C) 2026 agent
+
+  This software is provided 'as-is', without any express or implied
+  warranty.  In no event will the authors be held liable for any damages
+  arising from the use of this software.
+
+  Permission is granted to anyone to use this software for any purpose,
+  including commercial applications, and to alter it and redistribute it
+  freely, subject to the following restrictions:
+
+  1. The origin of this software must not be misrepresented; you must not
+     claim that you wrote the original software. If you use this software
+     in a product, an acknowledgment in the product documentation would be
+     appreciated but is not required.
+  2. Altered source versions must be plainly marked as such, and must not be
+     misrepresented as being the original software.
+  3. This notice may not be removed or altered from any source distribution.
+
+  Jeroen Frijters
+  jeroen@frijters.net
+  
+*/
+package java_.nio.channels;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import benchmark.Benchmark;
+
+/**
+ * Measures positional reads from several threads that share one FileChannel.
+ * The arguments are the thread counts (default 1, 2, 4, 8).
+ */
+public class PositionalReadBenchmark {
+
+	private static final int FILE_SIZE = 16 * 1024 * 1024;
+
+	public static void main(String[] args) throws Exception {
+		File file = File.createTempFile("positional", ".dat");
+		try {
+			RandomAccessFile raf = new RandomAccessFile(file, "rw");
+			try {
+				raf.setLength(FILE_SIZE);
+				FileChannel channel = raf.getChannel();
+				for (int threads : Benchmark.intArgs(args, 1, 2, 4, 8)) {
+					positionalRead(channel, threads);
+				}
+			} finally {
+				raf.close();
+			}
+		} finally {
+			file.delete();
+		}
+	}
+
+	private static void positionalRead(final FileChannel channel, final int threads) throws Exception {
+		final int count = 20000 / threads;
+		Benchmark.measure("positional read 4096, " + threads + " threads", "op", Benchmark.OPS, new Benchmark.Task() {
+			public long run() throws Exception {
+				return Benchmark.parallel(threads, new Benchmark.Task() {
+					public long run() throws Exception {
+						ByteBuffer buf = ByteBuffer.allocate(4096);
+						long pos = System.identityHashCode(buf) * 4096L;
+						for (int i = 0; i < count; i++) {
+							buf.clear();
+							channel.read(buf, (pos + i * 4096L) % FILE_SIZE);
+						}
+						return count;
+					}
+				});
+			}
+		});
+	}
+}
@@ -0,0 +1,99 @@
+/*
+  Copyright (C) 2026 agent
+
+  This software is provided 'as-is', without any express or implied
+  warranty.  In no event will the authors be held liable for any damages
+  arising from the use of this software.
+
+  Permission is granted to anyone to use this software for any purpose,
+  including commercial applications, and to alter it and redistribute it
+  freely, subject to the following restrictions:
+
+  1. The origin of this software must not be misrepresented; you must not
+     claim that you wrote the original software. If you use this software
+     in a product, an acknowledgment in the product documentation would be
+     appreciated but is not required.
+  2. Altered source versions must be plainly marked as such, and must not be
+     misrepresented as being the original software.
+  3. This notice may not be removed or altered from any source distribution.
+
+  Jeroen Frijters
+  jeroen@frijters.net
+  
+*/
+package java_.nio.channels;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.Pipe;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.List;
+
+import benchmark.Benchmark;
+
+/**
+ * Measures the select round trip latency with one active channel among n idle registered channels,
+ * and the cost of changing the interest set of a registered key.
+ * The arguments are the numbers of idle channels (default 10, 100, 1000). Large counts need a higher open file limit.
+ */
+public class SelectorBenchmark {
+
+	private static final int ROUND_TRIPS = 2000;
+
+	public static void main(String[] args) throws Exception {
+		for (int idle : Benchmark.intArgs(args, 10, 100, 1000)) {
+			run(idle);
+		}
+	}
+
+	private static void run(int idle) throws Exception {
+		final Selector selector = Selector.open();
+		List<Pipe> pipes = new ArrayList<Pipe>();
+		try {
+			for (int i = 0; i < idle; i++) {
+				Pipe pipe = Pipe.open();
+				pipes.add(pipe);
+				pipe.source().configureBlocking(false);
+				pipe.source().register(selector, SelectionKey.OP_READ);
+			}
+			final Pipe active = Pipe.open();
+			pipes.add(active);
+			active.source().configureBlocking(false);
+			final SelectionKey key = active.source().register(selector, SelectionKey.OP_READ);
+			final ByteBuffer buf = ByteBuffer.allocate(1);
+			Benchmark.measure("select round trip, " + idle + " idle channels", new Benchmark.Task() {
+				public long run() throws Exception {
+					for (int i = 0; i < ROUND_TRIPS; i++) {
+						buf.clear();
+						active.sink().write(buf);
+						if (selector.select() != 1 || !selector.selectedKeys().contains(key)) {
+							throw new IllegalStateException();
+						}
+						selector.selectedKeys().clear();
+						buf.clear();
+						active.source().read(buf);
+					}
+					return ROUND_TRIPS;
+				}
+			});
+			Benchmark.measure("interestOps toggle + selectNow, " + idle + " idle channels", new Benchmark.Task() {
+				public long run() throws Exception {
+					for (int i = 0; i < ROUND_TRIPS; i++) {
+						key.interestOps(0);
+						selector.selectNow();
+						key.interestOps(SelectionKey.OP_READ);
+						selector.selectNow();
+					}
+					return ROUND_TRIPS;
+				}
+			});
+		} finally {
+			selector.close();
+			for (Pipe pipe : pipes) {
+				pipe.source().close();
+				pipe.sink().close();
+			}
+		}
+	}
+}
@@ -0,0 +1,120 @@
+/*
+  Copyright (C) 2026 agent
+
+  This software is provided 'as-is', without any express or implied
+  warranty.  In no event will the authors be held liable for any damages
+  arising from the use of this software.
+
+  Permission is granted to anyone to use this software for any purpose,
+  including commercial applications, and to alter it and redistribute it
+  freely, subject to the following restrictions:
+
+  1. The origin of this software must not be misrepresented; you must not
+     claim that you wrote the original software. If you use this software
+     in a product, an acknowledgment in the product documentation would be
+     appreciated but is not required.
+  2. Altered source versions must be plainly marked as such, and must not be
+     misrepresented as being the original software.
+  3. This notice may not be removed or altered from any source distribution.
+
+  Jeroen Frijters
+  jeroen@frijters.net
+  
+*/
+package java_.nio.channels;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+import benchmark.Benchmark;
+
+/**
+ * Measures FileChannel.transferTo to a file and to a socket, and transferFrom from a file.
+ * The argument is the file size in MB (default 16).
+ */
+public class TransferBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		int size = Benchmark.intArgs(args, 16)[0] * 1024 * 1024;
+		File sourceFile = File.createTempFile("transfer", ".src");
+		File targetFile = File.createTempFile("transfer", ".dst");
+		try {
+			RandomAccessFile source = new RandomAccessFile(sourceFile, "rw");
+			RandomAccessFile target = new RandomAccessFile(targetFile, "rw");
+			try {
+				byte[] chunk = new byte[64 * 1024];
+				for (int i = 0; i < chunk.length; i++) {
+					chunk[i] = (byte)i;
+				}
+				for (int i = 0; i < size; i += chunk.length) {
+					source.write(chunk);
+				}
+				run(source.getChannel(), target.getChannel(), size);
+			} finally {
+				source.close();
+				target.close();
+			}
+		} finally {
+			sourceFile.delete();
+			targetFile.delete();
+		}
+	}
+
+	private static void run(final FileChannel source, final FileChannel target, final long size) throws Exception {
+		Benchmark.measure("transferTo file", "MB", Benchmark.MB, new Benchmark.Task() {
+			public long run() throws Exception {
+				target.position(0);
+				for (long pos = 0; pos < size; ) {
+					pos += source.transferTo(pos, size - pos, target);
+				}
+				return size;
+			}
+		});
+		Benchmark.measure("transferFrom file", "MB", Benchmark.MB, new Benchmark.Task() {
+			public long run() throws Exception {
+				source.position(0);
+				for (long pos = 0; pos < size; ) {
+					pos += target.transferFrom(source, pos, size - pos);
+				}
+				return size;
+			}
+		});
+		ServerSocketChannel server = ServerSocketChannel.open();
+		server.socket().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+		final SocketChannel client = SocketChannel.open(server.socket().getLocalSocketAddress());
+		final SocketChannel peer = server.accept();
+		server.close();
+		Thread drain = new Thread() {
+			public void run() {
+				ByteBuffer buf = ByteBuffer.allocateDirect(256 * 1024);
+				try {
+					while (peer.read(buf) != -1) {
+						buf.clear();
+					}
+				} catch (Exception x) {
+				}
+			}
+		};
+		drain.start();
+		try {
+			Benchmark.measure("transferTo socket", "MB", Benchmark.MB, new Benchmark.Task() {
+				public long run() throws Exception {
+					for (long pos = 0; pos < size; ) {
+						pos += source.transferTo(pos, size - pos, client);
+					}
+					return size;
+				}
+			});
+		} finally {
+			client.close();
+			drain.join();
+			peer.close();
+		}
+	}
+}
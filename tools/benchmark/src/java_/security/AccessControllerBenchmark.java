@@ -0,0 +1,109 @@
+/*
+  Copyright (C) 2026 agent
+
+  This software is provided 'as-is', without any express or implied
+  warranty.  In no event will the authors be held liable for any damages
+  arising from the use of this software.
+
+  Permission is granted to anyone to use this software for any purpose,
+  including commercial applications, and to alter it and redistribute it
+  freely, subject to the following restrictions:
+
+  1. The origin of this software must not be misrepresented; you must not
+     claim that you wrote the original software. If you use this software
+     in a product, an acknowledgment in the product documentation would be
+     appreciated but is not required.
+  2. Altered source versions must be plainly marked as such, and must not be
+     misrepresented as being the original software.
+  3. This notice may not be removed or altered from any source distribution.
+
+  Jeroen Frijters
+  jeroen@frijters.net
+  
+*/
+package java_.security;
+
+import java.security.AccessControlContext;
+import java.security.AccessController;
+import java.security.AllPermission;
+import java.security.CodeSource;
+import java.security.PermissionCollection;
+import java.security.Permissions;
+import java.security.Policy;
+import java.security.PrivilegedExceptionAction;
+import java.util.PropertyPermission;
+
+import benchmark.Benchmark;
+
+/**
+ * Measures AccessController.checkPermission and getContext at stack depths of 10, 100 and 1000, with and without
+ * a doPrivileged frame near the top, and SecurityManager.checkPropertyAccess. It installs a SecurityManager with a
+ * policy that grants everything (newer Java VMs need -Djava.security.manager=allow for that).
+ * The arguments are the stack depths (default 10, 100, 1000).
+ */
+public class AccessControllerBenchmark {
+
+	private static final int COUNT = 2000;
+
+	static volatile Object sink;
+
+	public static void main(String[] args) throws Exception {
+		Policy.setPolicy(new Policy() {
+			public PermissionCollection getPermissions(CodeSource codesource) {
+				Permissions permissions = new Permissions();
+				permissions.add(new AllPermission());
+				return permissions;
+			}
+		});
+		System.setSecurityManager(new SecurityManager());
+		final PropertyPermission permission = new PropertyPermission("java.version", "read");
+		final Benchmark.Task check = new Benchmark.Task() {
+			public long run() {
+				for (int i = 0; i < COUNT; i++) {
+					AccessController.checkPermission(permission);
+				}
+				return COUNT;
+			}
+		};
+		final Benchmark.Task getContext = new Benchmark.Task() {
+			public long run() {
+				for (int i = 0; i < COUNT; i++) {
+					AccessControlContext context = AccessController.getContext();
+					sink = context;
+				}
+				return COUNT;
+			}
+		};
+		final Benchmark.Task propertyAccess = new Benchmark.Task() {
+			public long run() {
+				for (int i = 0; i < COUNT; i++) {
+					System.getSecurityManager().checkPropertyAccess("java.version");
+				}
+				return COUNT;
+			}
+		};
+		for (final int depth : Benchmark.intArgs(args, 10, 100, 1000)) {
+			measure("checkPermission", depth, check, false);
+			measure("checkPermission in doPrivileged", depth, check, true);
+			measure("getContext", depth, getContext, false);
+			measure("getContext in doPrivileged", depth, getContext, true);
+			measure("checkPropertyAccess", depth, propertyAccess, false);
+		}
+	}
+
+	private static void measure(String name, final int depth, final Benchmark.Task task, final boolean privileged) throws Exception {
+		Benchmark.measure(name + ", stack depth " + depth, new Benchmark.Task() {
+			public long run() throws Exception {
+				return Benchmark.atDepth(depth, !privileged ? task : new Benchmark.Task() {
+					public long run() throws Exception {
+						return AccessController.doPrivileged(new PrivilegedExceptionAction<Long>() {
+							public Long run() throws Exception {
+								return task.run();
+							}
+						});
+					}
+				});
+			}
+		});
+	}
+}
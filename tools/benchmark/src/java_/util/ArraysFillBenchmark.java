@@ -0,0 +1,79 @@
+/*
+  Copyright (C) 2026 agent
+
+  This software is provided 'as-is', without any express or implied
+  warranty.  In no event will the authors be held liable for any damages
+  arising from the use of this software.
+
+  Permission is granted to anyone to use this software for any purpose,
+  including commercial applications, and to alter it and redistribute it
+  freely, subject to the following restrictions:
+
+  1. The origin of this software must not be misrepresented; you must not
+     claim that you wrote the original software. If you use this software
+     in a product, an acknowledgment in the product documentation would be
+     appreciated but is not required.
+  2. Altered source versions must be plainly marked as such, and must not be
+     misrepresented as being the original software.
+  3. This notice may not be removed or altered from any source distribution.
+
+  Jeroen Frijters
+  jeroen@frijters.net
+  
+*/
+package java_.util;
+
+import java.util.Arrays;
+
+import benchmark.Benchmark;
+
+/**
+ * Measures Arrays.fill on byte, int, long and double arrays of 8, 64, 1024 and 65536 elements.
+ * IKVM compiles calls to Arrays.fill on primitive arrays as intrinsics.
+ */
+public class ArraysFillBenchmark {
+
+	private static final long TOTAL = 64 * 1024 * 1024;
+
+	public static void main(String[] args) throws Exception {
+		for (int length : new int[] { 8, 64, 1024, 65536 }) {
+			final int count = (int)(TOTAL / length);
+			final byte[] bytes = new byte[length];
+			final int[] ints = new int[length];
+			final long[] longs = new long[length];
+			final double[] doubles = new double[length];
+			Benchmark.measure("fill byte[" + length + "]", new Benchmark.Task() {
+				public long run() {
+					for (int i = 0; i < count; i++) {
+						Arrays.fill(bytes, (byte)i);
+					}
+					return count;
+				}
+			});
+			Benchmark.measure("fill int[" + length + "]", new Benchmark.Task() {
+				public long run() {
+					for (int i = 0; i < count; i++) {
+						Arrays.fill(ints, i);
+					}
+					return count;
+				}
+			});
+			Benchmark.measure("fill long[" + length + "]", new Benchmark.Task() {
+				public long run() {
+					for (int i = 0; i < count; i++) {
+						Arrays.fill(longs, i);
+					}
+					return count;
+				}
+			});
+			Benchmark.measure("fill double[" + length + "]", new Benchmark.Task() {
+				public long run() {
+					for (int i = 0; i < count; i++) {
+						Arrays.fill(doubles, i);
+					}
+					return count;
+				}
+			});
+		}
+	}
+}
@@ -0,0 +1,127 @@
+/*
+  Copyright (C) 2026 agent
+
+  This software is provided 'as-is', without any express or implied
+  warranty.  In no event will the authors be held liable for any damages
+  arising from the use of this software.
+
+  Permission is granted to anyone to use this software for any purpose,
+  including commercial applications, and to alter it and redistribute it
+  freely, subject to the following restrictions:
+
+  1. The origin of this software must not be misrepresented; you must not
+     claim that you wrote the original software. If you use this software
+     in a product, an acknowledgment in the product documentation would be
+     appreciated but is not required.
+  2. Altered source versions must be plainly marked as such, and must not be
+     misrepresented as being the original software.
+  3. This notice may not be removed or altered from any source distribution.
+
+  Jeroen Frijters
+  jeroen@frijters.net
+  
+*/
+package java_.util.concurrent.locks;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import benchmark.Benchmark;
+
+/**
+ * Measures the LockSupport park/unpark round trip between two threads, handing items over through
+ * SynchronousQueue and ArrayBlockingQueue, and running short tasks on a thread pool.
+ */
+public class LockSupportBenchmark {
+
+	private static final int COUNT = 100000;
+
+	public static void main(String[] args) throws Exception {
+		Benchmark.measure("park/unpark ping-pong", new Benchmark.Task() {
+			public long run() throws Exception {
+				return pingPong();
+			}
+		});
+		Benchmark.measure("SynchronousQueue handoff", new Benchmark.Task() {
+			public long run() throws Exception {
+				return handoff(new SynchronousQueue<Integer>());
+			}
+		});
+		Benchmark.measure("ArrayBlockingQueue(16) handoff", new Benchmark.Task() {
+			public long run() throws Exception {
+				return handoff(new ArrayBlockingQueue<Integer>(16));
+			}
+		});
+		for (final int threads : new int[] { 1, 4 }) {
+			final ExecutorService executor = Executors.newFixedThreadPool(threads);
+			Benchmark.measure("fixed thread pool, " + threads + " threads", new Benchmark.Task() {
+				public long run() throws Exception {
+					final CountDownLatch done = new CountDownLatch(COUNT);
+					Runnable task = new Runnable() {
+						public void run() {
+							done.countDown();
+						}
+					};
+					for (int i = 0; i < COUNT; i++) {
+						executor.execute(task);
+					}
+					done.await();
+					return COUNT;
+				}
+			});
+			executor.shutdown();
+		}
+	}
+
+	private static long pingPong() throws Exception {
+		final AtomicInteger turn = new AtomicInteger();
+		final Thread main = Thread.currentThread();
+		Thread other = new Thread() {
+			public void run() {
+				for (int i = 0; i < COUNT; i++) {
+					while (turn.get() != 1) {
+						LockSupport.park();
+					}
+					turn.set(0);
+					LockSupport.unpark(main);
+				}
+			}
+		};
+		other.start();
+		for (int i = 0; i < COUNT; i++) {
+			turn.set(1);
+			LockSupport.unpark(other);
+			while (turn.get() != 0) {
+				LockSupport.park();
+			}
+		}
+		other.join();
+		return COUNT;
+	}
+
+	private static long handoff(final BlockingQueue<Integer> queue) throws Exception {
+		Thread consumer = new Thread() {
+			public void run() {
+				try {
+					for (int i = 0; i < COUNT; i++) {
+						queue.take();
+					}
+				} catch (InterruptedException x) {
+				}
+			}
+		};
+		consumer.start();
+		Integer item = Integer.valueOf(1);
+		for (int i = 0; i < COUNT; i++) {
+			queue.put(item);
+		}
+		consumer.join();
+		return COUNT;
+	}
+}
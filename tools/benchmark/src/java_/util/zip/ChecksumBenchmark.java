@@ -0,0 +1,83 @@
+/*
+  Copyright (C) 2026 agent
+
+  This software is provided 'as-is', without any express or implied
+  warranty.  In no event will the authors be held liable for any damages
+  arising from the use of this software.
+
+  Permission is granted to anyone to use this software for any purpose,
+  including commercial applications, and to alter it and redistribute it
+  freely, subject to the following restrictions:
+
+  1. The origin of this software must not be misrepresented; you must not
+     claim that you wrote the original software. If you use this software
+     in a product, an acknowledgment in the product documentation would be
+     appreciated but is not required.
+  2. Altered source versions must be plainly marked as such, and must not be
+     misrepresented as being the original software.
+  3. This notice may not be removed or altered from any source distribution.
+
+  Jeroen Frijters
+  jeroen@frijters.net
+  
+*/
+package java_.util.zip;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Checksum;
+
+import benchmark.Benchmark;
+
+/**
+ * Measures CRC32 and Adler32 on byte arrays of 64 bytes, 4 KB and 1 MB, and on direct buffers.
+ */
+public class ChecksumBenchmark {
+
+	private static final int TOTAL = 64 * 1024 * 1024;
+
+	public static void main(String[] args) throws Exception {
+		for (int size : new int[] { 64, 4096, 1024 * 1024 }) {
+			byte[] data = new byte[size];
+			new Random(size).nextBytes(data);
+			ByteBuffer direct = ByteBuffer.allocateDirect(size);
+			direct.put(data);
+			run("CRC32", new CRC32(), data, direct);
+			run("Adler32", new Adler32(), data, direct);
+		}
+	}
+
+	private static void run(String name, final Checksum checksum, final byte[] data, final ByteBuffer direct) throws Exception {
+		final int count = TOTAL / data.length;
+		Benchmark.measure(name + " byte[" + data.length + "]", "MB", Benchmark.MB, new Benchmark.Task() {
+			public long run() {
+				for (int i = 0; i < count; i++) {
+					checksum.reset();
+					checksum.update(data, 0, data.length);
+				}
+				return (long)count * data.length;
+			}
+		});
+		Benchmark.measure(name + " direct ByteBuffer " + data.length, "MB", Benchmark.MB, new Benchmark.Task() {
+			public long run() throws Exception {
+				for (int i = 0; i < count; i++) {
+					checksum.reset();
+					direct.clear();
+					update(checksum, direct);
+				}
+				return (long)count * data.length;
+			}
+		});
+	}
+
+	private static void update(Checksum checksum, ByteBuffer buf) throws Exception {
+		// the Checksum interface has no update(ByteBuffer)
+		if (checksum instanceof CRC32) {
+			((CRC32)checksum).update(buf);
+		} else {
+			((Adler32)checksum).update(buf);
+		}
+	}
+}
@@ -0,0 +1,68 @@
+/*
+  Copyright (C) 2026 agent
+
+  This software is provided 'as-is', without any express or implied
+  warranty.  In no event will the authors be held liable for any damages
+  arising from the use of this software.
+
+  Permission is granted to anyone to use this software for any purpose,
+  including commercial applications, and to alter it and redistribute it
+  freely, subject to the following restrictions:
+
+  1. The origin of this software must not be misrepresented; you must not
+     claim that you wrote the original software. If you use this software
+     in a product, an acknowledgment in the product documentation would be
+     appreciated but is not required.
+  2. Altered source versions must be plainly marked as such, and must not be
+     misrepresented as being the original software.
+  3. This notice may not be removed or altered from any source distribution.
+
+  Jeroen Frijters
+  jeroen@frijters.net
+  
+*/
+package java_.util.zip;
+
+import java.util.zip.Deflater;
+
+import benchmark.Benchmark;
+import benchmark.Corpus;
+
+/**
+ * Measures Deflater at levels 1, 6 and 9 on text and random data, in MB/s of input, and prints the compression ratio.
+ * On IKVM, -Dikvm.zip.deflater.parallel=true compresses large inputs in parallel segments.
+ * The argument is the input size in MB (default 4).
+ */
+public class DeflaterBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		int size = Benchmark.intArgs(args, 4)[0] * 1024 * 1024;
+		byte[] text = Corpus.text(size);
+		byte[] random = Corpus.random(size);
+		for (int level : new int[] { 1, 6, 9 }) {
+			run("text, level " + level, text, level);
+		}
+		run("random, level 6", random, 6);
+	}
+
+	private static void run(String name, final byte[] data, int level) throws Exception {
+		final Deflater deflater = new Deflater(level);
+		final byte[] output = new byte[64 * 1024];
+		final long[] compressed = new long[1];
+		Benchmark.measure("deflate " + name, "MB", Benchmark.MB, new Benchmark.Task() {
+			public long run() {
+				deflater.reset();
+				deflater.setInput(data);
+				deflater.finish();
+				long total = 0;
+				while (!deflater.finished()) {
+					total += deflater.deflate(output);
+				}
+				compressed[0] = total;
+				return data.length;
+			}
+		});
+		deflater.end();
+		System.out.println(String.format("%-56s %14.3f", "ratio " + name, (double)compressed[0] / data.length));
+	}
+}
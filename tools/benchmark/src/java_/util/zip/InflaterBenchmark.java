@@ -0,0 +1,81 @@
+/*
+  Copyright (C) 2026 agent
+
+  This software is provided 'as-is', without any express or implied
+  warranty.  In no event will the authors be held liable for any damages
+  arising from the use of this software.
+
+  Permission is granted to anyone to use this software for any purpose,
+  including commercial applications, and to alter it and redistribute it
+  freely, subject to the following restrictions:
+
+  1. The origin of this software must not be misrepresented; you must not
+     claim that you wrote the original software. If you use this software
+     in a product, an acknowledgment in the product documentation would be
+     appreciated but is not required.
+  2. Altered source versions must be plainly marked as such, and must not be
+     misrepresented as being the original software.
+  3. This notice may not be removed or altered from any source distribution.
+
+  Jeroen Frijters
+  jeroen@frijters.net
+  
+*/
+package java_.util.zip;
+
+import java.io.ByteArrayOutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import benchmark.Benchmark;
+import benchmark.Corpus;
+
+/**
+ * Measures Inflater on text compressed at levels 1, 6 and 9, and on stored random data, in MB/s of inflated output.
+ */
+public class InflaterBenchmark {
+
+	private static final int SIZE = 4 * 1024 * 1024;
+
+	public static void main(String[] args) throws Exception {
+		byte[] text = Corpus.text(SIZE);
+		for (int level : new int[] { 1, 6, 9 }) {
+			run("text, level " + level, text, level);
+		}
+		run("random, level 6", Corpus.random(SIZE), 6);
+	}
+
+	private static void run(String name, final byte[] data, int level) throws Exception {
+		Deflater deflater = new Deflater(level);
+		deflater.setInput(data);
+		deflater.finish();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buf = new byte[64 * 1024];
+		while (!deflater.finished()) {
+			out.write(buf, 0, deflater.deflate(buf));
+		}
+		deflater.end();
+		final byte[] compressed = out.toByteArray();
+		final byte[] output = new byte[64 * 1024];
+		final Inflater inflater = new Inflater();
+		Benchmark.measure("inflate " + name, "MB", Benchmark.MB, new Benchmark.Task() {
+			public long run() throws DataFormatException {
+				inflater.reset();
+				inflater.setInput(compressed);
+				long total = 0;
+				while (!inflater.finished()) {
+					if (inflater.needsInput()) {
+						throw new IllegalStateException();
+					}
+					total += inflater.inflate(output);
+				}
+				if (total != data.length) {
+					throw new IllegalStateException();
+				}
+				return total;
+			}
+		});
+		inflater.end();
+	}
+}
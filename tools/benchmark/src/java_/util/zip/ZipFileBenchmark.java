@@ -0,0 +1,110 @@
+/*
+  Copyright (C) 2026 agent
+
+  This software is provided 'as-is', without any express or implied
+  warranty.  In no event will the authors be held liable for any damages
+  arising from the use of this software.
+
+  Permission is granted to anyone to use this software for any purpose,
+  including commercial applications, and to alter it and redistribute it
+  freely, subject to the following restrictions:
+
+  1. The origin of this software must not be misrepresented; you must not
+     claim that you wrote the original software. If you use this software
+     in a product, an acknowledgment in the product documentation would be
+     appreciated but is not required.
+  2. Altered source versions must be plainly marked as such, and must not be
+     misrepresented as being the original software.
+  3. This notice may not be removed or altered from any source distribution.
+
+  Jeroen Frijters
+  jeroen@frijters.net
+  
+*/
+package java_.util.zip;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.Enumeration;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import benchmark.Benchmark;
+
+/**
+ * Measures opening a zip file, opening it and looking up one entry, and enumerating all its entries.
+ * The arguments are the numbers of entries in the zip file (default 100, 10000, 50000).
+ */
+public class ZipFileBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		for (int entries : Benchmark.intArgs(args, 100, 10000, 50000)) {
+			File file = File.createTempFile("zipfile", ".zip");
+			try {
+				createZip(file, entries);
+				run(file, entries);
+			} finally {
+				file.delete();
+			}
+		}
+	}
+
+	static void createZip(File file, int entries) throws Exception {
+		ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(file));
+		try {
+			byte[] data = new byte[100];
+			for (int i = 0; i < entries; i++) {
+				zip.putNextEntry(new ZipEntry(entryName(i)));
+				data[i % data.length]++;
+				zip.write(data);
+				zip.closeEntry();
+			}
+		} finally {
+			zip.close();
+		}
+	}
+
+	static String entryName(int i) {
+		return "org/example/package" + (i / 100) + "/Class" + i + ".class";
+	}
+
+	private static void run(final File file, final int entries) throws Exception {
+		final int count = Math.max(1, 100000 / entries);
+		Benchmark.measure("open and close, " + entries + " entries", new Benchmark.Task() {
+			public long run() throws Exception {
+				for (int i = 0; i < count; i++) {
+					new ZipFile(file).close();
+				}
+				return count;
+			}
+		});
+		Benchmark.measure("open, getEntry and close, " + entries + " entries", new Benchmark.Task() {
+			public long run() throws Exception {
+				for (int i = 0; i < count; i++) {
+					ZipFile zip = new ZipFile(file);
+					if (zip.getEntry(entryName(i % entries)) == null) {
+						throw new IllegalStateException();
+					}
+					zip.close();
+				}
+				return count;
+			}
+		});
+		final ZipFile zip = new ZipFile(file);
+		try {
+			Benchmark.measure("enumerate, " + entries + " entries", "entry", Benchmark.OPS, new Benchmark.Task() {
+				public long run() throws Exception {
+					long n = 0;
+					for (Enumeration<? extends ZipEntry> e = zip.entries(); e.hasMoreElements(); ) {
+						e.nextElement();
+						n++;
+					}
+					return n;
+				}
+			});
+		} finally {
+			zip.close();
+		}
+	}
+}
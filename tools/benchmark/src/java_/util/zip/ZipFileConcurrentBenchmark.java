@@ -0,0 +1,74 @@
+/*
+  Copyright (C) 2026 agent
+
+  This software is provided 'as-is', without any express or implied
+  warranty.  In no event will the authors be held liable for any damages
+  arising from the use of this software.
+
+  Permission is granted to anyone to use this software for any purpose,
+  including commercial applications, and to alter it and redistribute it
+  freely, subject to the following restrictions:
+
+  1. The origin of this software must not be misrepresented; you must not
+     claim that you wrote the original software. If you use this software
+     in a product, an acknowledgment in the product documentation would be
+     appreciated but is not required.
+  2. Altered source versions must be plainly marked as such, and must not be
+     misrepresented as being the original software.
+  3. This notice may not be removed or altered from any source distribution.
+
+  Jeroen Frijters
+  jeroen@frijters.net
+  
+*/
+package java_.util.zip;
+
+import java.io.File;
+import java.io.InputStream;
+import java.util.zip.ZipFile;
+
+import benchmark.Benchmark;
+
+/**
+ * Measures the total rate of reading entries from one shared ZipFile on several threads.
+ * The arguments are the thread counts (default 1, 2, 4, 8).
+ */
+public class ZipFileConcurrentBenchmark {
+
+	private static final int ENTRIES = 10000;
+	private static final int READS = 40000;
+
+	public static void main(String[] args) throws Exception {
+		File file = File.createTempFile("zipfile", ".zip");
+		try {
+			ZipFileBenchmark.createZip(file, ENTRIES);
+			final ZipFile zip = new ZipFile(file);
+			try {
+				for (final int threads : Benchmark.intArgs(args, 1, 2, 4, 8)) {
+					Benchmark.measure("read entry, " + threads + " threads", "entry", Benchmark.OPS, new Benchmark.Task() {
+						public long run() throws Exception {
+							return Benchmark.parallel(threads, new Benchmark.Task() {
+								public long run() throws Exception {
+									int count = READS / threads;
+									int start = (int)(Thread.currentThread().getId() * 7919 % ENTRIES);
+									byte[] buf = new byte[256];
+									for (int i = 0; i < count; i++) {
+										InputStream in = zip.getInputStream(zip.getEntry(ZipFileBenchmark.entryName((start + i) % ENTRIES)));
+										while (in.read(buf) != -1) {
+										}
+										in.close();
+									}
+									return count;
+								}
+							});
+						}
+					});
+				}
+			} finally {
+				zip.close();
+			}
+		} finally {
+			file.delete();
+		}
+	}
+}
@@ -0,0 +1,82 @@
+/*
+  Copyright (C) 2026 agent
+
+  This software is provided 'as-is', without any express or implied
+  warranty.  In no event will the authors be held liable for any damages
+  arising from the use of this software.
+
+  Permission is granted to anyone to use this software for any purpose,
+  including commercial applications, and to alter it and redistribute it
+  freely, subject to the following restrictions:
+
+  1. The origin of this software must not be misrepresented; you must not
+     claim that you wrote the original software. If you use this software
+     in a product, an acknowledgment in the product documentation would be
+     appreciated but is not required.
+  2. Altered source versions must be plainly marked as such, and must not be
+     misrepresented as being the original software.
+  3. This notice may not be removed or altered from any source distribution.
+
+  Jeroen Frijters
+  jeroen@frijters.net
+  
+*/
+package jni;
+
+import benchmark.Benchmark;
+
+/**
+ * Measures the JNI Get/Release<Primitive>ArrayElements and Get/Set<Primitive>ArrayRegion functions on arrays
+ * of 16 bytes, 4 KB and 1 MB. On IKVM, setting IKVM_JNI_PIN_ARRAY_ELEMENTS pins the arrays instead of copying them.
+ * The native part is in jnibenchmark.c, see GlobalRefBenchmark for how to build it.
+ */
+public class ArrayBenchmark {
+
+	private static final long TOTAL = 256 * 1024 * 1024;
+
+	static {
+		System.loadLibrary("jnibenchmark");
+	}
+
+	/**
+	 * Gets and releases (with mode 0, which copies back) the elements of array count times.
+	 */
+	private static native int getReleaseIntArrayElements(int[] array, int count);
+
+	/**
+	 * Gets and releases (with mode JNI_ABORT) the elements of array count times.
+	 */
+	private static native int getReleaseByteArrayElements(byte[] array, int count);
+
+	/**
+	 * Copies all of array to buffer and back count times.
+	 */
+	private static native void getSetByteArrayRegion(byte[] array, byte[] buffer, int count);
+
+	public static void main(String[] args) throws Exception {
+		for (final int size : new int[] { 16, 4096, 1024 * 1024 }) {
+			final int count = (int)Math.min(TOTAL / size, 1000000);
+			final int[] ints = new int[size / 4];
+			final byte[] bytes = new byte[size];
+			final byte[] buffer = new byte[size];
+			Benchmark.measure("Get/ReleaseIntArrayElements " + size + " bytes", new Benchmark.Task() {
+				public long run() {
+					getReleaseIntArrayElements(ints, count);
+					return count;
+				}
+			});
+			Benchmark.measure("Get/ReleaseByteArrayElements JNI_ABORT " + size + " bytes", new Benchmark.Task() {
+				public long run() {
+					getReleaseByteArrayElements(bytes, count);
+					return count;
+				}
+			});
+			Benchmark.measure("Get/SetByteArrayRegion " + size + " bytes", new Benchmark.Task() {
+				public long run() {
+					getSetByteArrayRegion(bytes, buffer, count);
+					return count;
+				}
+			});
+		}
+	}
+}
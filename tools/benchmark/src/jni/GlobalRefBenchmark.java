@@ -0,0 +1,91 @@
+/*
+  Copyright (C) 2026 agent
+
+  This software is provided 'as-is', without any express or implied
+  warranty.  In no event will the authors be held liable for any damages
+  arising from the use of this software.
+
+  Permission is granted to anyone to use this software for any purpose,
+  including commercial applications, and to alter it and redistribute it
+  freely, subject to the following restrictions:
+
+  1. The origin of this software must not be misrepresented; you must not
+     claim that you wrote the original software. If you use this software
+     in a product, an acknowledgment in the product documentation would be
+     appreciated but is not required.
+  2. Altered source versions must be plainly marked as such, and must not be
+     misrepresented as being the original software.
+  3. This notice may not be removed or altered from any source distribution.
+
+  Jeroen Frijters
+  jeroen@frijters.net
+  
+*/
+package jni;
+
+import benchmark.Benchmark;
+
+/**
+ * Measures creating, deleting and dereferencing JNI global and weak global refs on several threads.
+ * The native part is in jnibenchmark.c and must be built into a library named jnibenchmark on the
+ * java.library.path, for example with<br>
+ *      gcc -shared -fPIC -I$JAVA_HOME/include -I$JAVA_HOME/include/linux -o libjnibenchmark.so jnibenchmark.c<br>
+ *      cl /LD /I%JAVA_HOME%\include /I%JAVA_HOME%\include\win32 jnibenchmark.c<br>
+ * The arguments are the thread counts (default 1, 2, 4, 8).
+ */
+public class GlobalRefBenchmark {
+
+	private static final int COUNT = 200000;
+
+	static {
+		System.loadLibrary("jnibenchmark");
+	}
+
+	private static native void newDeleteGlobalRef(Object obj, int count);
+
+	private static native void newDeleteWeakGlobalRef(Object obj, int count);
+
+	/**
+	 * Compares a global ref to obj with obj count times.
+	 * @return the number of times they were the same
+	 */
+	private static native int dereferenceGlobalRef(Object obj, int count);
+
+	public static void main(String[] args) throws Exception {
+		for (final int threads : Benchmark.intArgs(args, 1, 2, 4, 8)) {
+			final int count = COUNT / threads;
+			Benchmark.measure("NewGlobalRef/DeleteGlobalRef, " + threads + " threads", "op", Benchmark.OPS, new Benchmark.Task() {
+				public long run() throws Exception {
+					return Benchmark.parallel(threads, new Benchmark.Task() {
+						public long run() {
+							newDeleteGlobalRef(new Object(), count);
+							return count;
+						}
+					});
+				}
+			});
+			Benchmark.measure("NewWeakGlobalRef/DeleteWeakGlobalRef, " + threads + " threads", "op", Benchmark.OPS, new Benchmark.Task() {
+				public long run() throws Exception {
+					return Benchmark.parallel(threads, new Benchmark.Task() {
+						public long run() {
+							newDeleteWeakGlobalRef(new Object(), count);
+							return count;
+						}
+					});
+				}
+			});
+			Benchmark.measure("global ref dereference, " + threads + " threads", "op", Benchmark.OPS, new Benchmark.Task() {
+				public long run() throws Exception {
+					return Benchmark.parallel(threads, new Benchmark.Task() {
+						public long run() {
+							if (dereferenceGlobalRef(new Object(), count) != count) {
+								throw new IllegalStateException();
+							}
+							return count;
+						}
+					});
+				}
+			});
+		}
+	}
+}
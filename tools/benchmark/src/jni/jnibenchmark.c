@@ -0,0 +1,94 @@
+/*
+  Copyright (C) 2026 agent
+
+  This software is provided 'as-is', without any express or implied
+  warranty.  In no event will the authors be held liable for any damages
+  arising from the use of this software.
+
+  Permission is granted to anyone to use this software for any purpose,
+  including commercial applications, and to alter it and redistribute it
+  freely, subject to the following restrictions:
+
+  1. The origin of this software must not be misrepresented; you must not
+     claim that you wrote the original software. If you use this software
+     in a product, an acknowledgment in the product documentation would be
+     appreciated but is not required.
+  2. Altered source versions must be plainly marked as such, and must not be
+     misrepresented as being the original software.
+  3. This notice may not be removed or altered from any source distribution.
+
+  Jeroen Frijters
+  jeroen@frijters.net
+  
+*/
+#include <jni.h>
+
+JNIEXPORT void JNICALL Java_jni_GlobalRefBenchmark_newDeleteGlobalRef(JNIEnv* env, jclass cls, jobject obj, jint count)
+{
+	jint i;
+	for (i = 0; i < count; i++)
+	{
+		(*env)->DeleteGlobalRef(env, (*env)->NewGlobalRef(env, obj));
+	}
+}
+
+JNIEXPORT void JNICALL Java_jni_GlobalRefBenchmark_newDeleteWeakGlobalRef(JNIEnv* env, jclass cls, jobject obj, jint count)
+{
+	jint i;
+	for (i = 0; i < count; i++)
+	{
+		(*env)->DeleteWeakGlobalRef(env, (*env)->NewWeakGlobalRef(env, obj));
+	}
+}
+
+JNIEXPORT jint JNICALL Java_jni_GlobalRefBenchmark_dereferenceGlobalRef(JNIEnv* env, jclass cls, jobject obj, jint count)
+{
+	jobject ref = (*env)->NewGlobalRef(env, obj);
+	jint same = 0;
+	jint i;
+	for (i = 0; i < count; i++)
+	{
+		same += (*env)->IsSameObject(env, ref, obj);
+	}
+	(*env)->DeleteGlobalRef(env, ref);
+	return same;
+}
+
+JNIEXPORT jint JNICALL Java_jni_ArrayBenchmark_getReleaseIntArrayElements(JNIEnv* env, jclass cls, jintArray array, jint count)
+{
+	jint sum = 0;
+	jint i;
+	for (i = 0; i < count; i++)
+	{
+		jint* elements = (*env)->GetIntArrayElements(env, array, NULL);
+		sum += elements[0];
+		(*env)->ReleaseIntArrayElements(env, array, elements, 0);
+	}
+	return sum;
+}
+
+JNIEXPORT jint JNICALL Java_jni_ArrayBenchmark_getReleaseByteArrayElements(JNIEnv* env, jclass cls, jbyteArray array, jint count)
+{
+	jint sum = 0;
+	jint i;
+	for (i = 0; i < count; i++)
+	{
+		jbyte* elements = (*env)->GetByteArrayElements(env, array, NULL);
+		sum += elements[0];
+		(*env)->ReleaseByteArrayElements(env, array, elements, JNI_ABORT);
+	}
+	return sum;
+}
+
+JNIEXPORT void JNICALL Java_jni_ArrayBenchmark_getSetByteArrayRegion(JNIEnv* env, jclass cls, jbyteArray array, jbyteArray buffer, jint count)
+{
+	jsize length = (*env)->GetArrayLength(env, array);
+	jbyte* buf = (*env)->GetPrimitiveArrayCritical(env, buffer, NULL);
+	jint i;
+	for (i = 0; i < count; i++)
+	{
+		(*env)->GetByteArrayRegion(env, array, 0, length, buf);
+		(*env)->SetByteArrayRegion(env, array, 0, length, buf);
+	}
+	(*env)->ReleasePrimitiveArrayCritical(env, buffer, buf, 0);
+}
@@ -0,0 +1,168 @@
+/*
+  Copyright (C) 2026 agent
+
+  This software is provided 'as-is', without any express or implied
+  warranty.  In no event will the authors be held liable for any damages
+  arising from the use of this software.
+
+  Permission is granted to anyone to use this software for any purpose,
+  including commercial applications, and to alter it and redistribute it
+  freely, subject to the following restrictions:
+
+  1. The origin of this software must not be misrepresented; you must not
+     claim that you wrote the original software. If you use this software
+     in a product, an acknowledgment in the product documentation would be
+     appreciated but is not required.
+  2. Altered source versions must be plainly marked as such, and must not be
+     misrepresented as being the original software.
+  3. This notice may not be removed or altered from any source distribution.
+
+  Jeroen Frijters
+  jeroen@frijters.net
+  
+*/
+package sun_.misc;
+
+import java.lang.reflect.Field;
+
+import sun.misc.Unsafe;
+
+import benchmark.Benchmark;
+
+/**
+ * Measures the volatile get and put methods of sun.misc.Unsafe on fields and array elements,
+ * and on separate fields from several threads.
+ */
+public class UnsafeBenchmark {
+
+	private static final int COUNT = 1000000;
+	private static final Unsafe unsafe = getUnsafe();
+
+	volatile int i;
+	volatile long l;
+	volatile Object o;
+	static volatile int si;
+	static volatile long sink;
+
+	private static Unsafe getUnsafe() {
+		try {
+			Field field = Unsafe.class.getDeclaredField("theUnsafe");
+			field.setAccessible(true);
+			return (Unsafe)field.get(null);
+		} catch (Exception x) {
+			throw new Error(x);
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+		final UnsafeBenchmark obj = new UnsafeBenchmark();
+		final long i = unsafe.objectFieldOffset(UnsafeBenchmark.class.getDeclaredField("i"));
+		final long l = unsafe.objectFieldOffset(UnsafeBenchmark.class.getDeclaredField("l"));
+		final long o = unsafe.objectFieldOffset(UnsafeBenchmark.class.getDeclaredField("o"));
+		final Object siBase = unsafe.staticFieldBase(UnsafeBenchmark.class.getDeclaredField("si"));
+		final long siOffset = unsafe.staticFieldOffset(UnsafeBenchmark.class.getDeclaredField("si"));
+		Benchmark.measure("getIntVolatile field", new Benchmark.Task() {
+			public long run() {
+				int sum = 0;
+				for (int n = 0; n < COUNT; n++) {
+					sum += unsafe.getIntVolatile(obj, i);
+				}
+				sink = sum;
+				return COUNT;
+			}
+		});
+		Benchmark.measure("putIntVolatile field", new Benchmark.Task() {
+			public long run() {
+				for (int n = 0; n < COUNT; n++) {
+					unsafe.putIntVolatile(obj, i, n);
+				}
+				return COUNT;
+			}
+		});
+		Benchmark.measure("getLongVolatile field", new Benchmark.Task() {
+			public long run() {
+				long sum = 0;
+				for (int n = 0; n < COUNT; n++) {
+					sum += unsafe.getLongVolatile(obj, l);
+				}
+				sink = sum;
+				return COUNT;
+			}
+		});
+		Benchmark.measure("putLongVolatile field", new Benchmark.Task() {
+			public long run() {
+				for (int n = 0; n < COUNT; n++) {
+					unsafe.putLongVolatile(obj, l, n);
+				}
+				return COUNT;
+			}
+		});
+		Benchmark.measure("putObjectVolatile/getObjectVolatile field", new Benchmark.Task() {
+			public long run() {
+				for (int n = 0; n < COUNT; n++) {
+					unsafe.putObjectVolatile(obj, o, unsafe.getObjectVolatile(obj, o));
+				}
+				return COUNT;
+			}
+		});
+		Benchmark.measure("putIntVolatile/getIntVolatile static field", new Benchmark.Task() {
+			public long run() {
+				for (int n = 0; n < COUNT; n++) {
+					unsafe.putIntVolatile(siBase, siOffset, unsafe.getIntVolatile(siBase, siOffset) + 1);
+				}
+				return COUNT;
+			}
+		});
+		final int[] ints = new int[1024];
+		final long intBase = unsafe.arrayBaseOffset(int[].class);
+		final long intScale = unsafe.arrayIndexScale(int[].class);
+		Benchmark.measure("putIntVolatile/getIntVolatile int[]", new Benchmark.Task() {
+			public long run() {
+				for (int n = 0; n < COUNT; n++) {
+					long offset = intBase + (n & 1023) * intScale;
+					unsafe.putIntVolatile(ints, offset, unsafe.getIntVolatile(ints, offset) + 1);
+				}
+				return COUNT;
+			}
+		});
+		final long[] longs = new long[1024];
+		final long longBase = unsafe.arrayBaseOffset(long[].class);
+		final long longScale = unsafe.arrayIndexScale(long[].class);
+		Benchmark.measure("putLongVolatile/getLongVolatile long[]", new Benchmark.Task() {
+			public long run() {
+				for (int n = 0; n < COUNT; n++) {
+					long offset = longBase + (n & 1023) * longScale;
+					unsafe.putLongVolatile(longs, offset, unsafe.getLongVolatile(longs, offset) + 1);
+				}
+				return COUNT;
+			}
+		});
+		final Object[] objects = new Object[1024];
+		final long objectBase = unsafe.arrayBaseOffset(Object[].class);
+		final long objectScale = unsafe.arrayIndexScale(Object[].class);
+		Benchmark.measure("putObjectVolatile/getObjectVolatile Object[]", new Benchmark.Task() {
+			public long run() {
+				for (int n = 0; n < COUNT; n++) {
+					long offset = objectBase + (n & 1023) * objectScale;
+					unsafe.putObjectVolatile(objects, offset, unsafe.getObjectVolatile(objects, objectBase + ((n + 1) & 1023) * objectScale));
+				}
+				return COUNT;
+			}
+		});
+		for (final int threads : new int[] { 2, 4, 8 }) {
+			Benchmark.measure("putIntVolatile/getIntVolatile field, " + threads + " threads", "op", Benchmark.OPS, new Benchmark.Task() {
+				public long run() throws Exception {
+					return Benchmark.parallel(threads, new Benchmark.Task() {
+						public long run() {
+							UnsafeBenchmark local = new UnsafeBenchmark();
+							for (int n = 0; n < COUNT; n++) {
+								unsafe.putIntVolatile(local, i, unsafe.getIntVolatile(local, i) + 1);
+							}
+							return COUNT;
+						}
+					});
+				}
+			});
+		}
+	}
+}
@@ -38,19 +38,26 @@ import org.junit.runners.Suite;
 @Suite.SuiteClasses({
 	cacar.CompareAvailableClassesAndResources.class,
 	com.sun.management.AllTests.class,
+    ikvm.internal.AllTests.class,
     java_.awt.AllTests.class,
     java_.awt.datatransfer.AllTests.class,
     java_.awt.color.AllTests.class,
     java_.awt.font.AllTests.class,
     java_.awt.image.AllTests.class,
     java_.awt.print.AllTests.class,
+    java_.lang.MathTest.class,
+    java_.lang.management.ManagementFactoryTest.class,
     java_.lang.management.ThreadInfoTest.class,
+    java_.lang.ref.ReferenceQueueTest.class,
     java_.net.AllTests.class,
     java_.text.AllTests.class,
+    java_.util.ArraysTest.class,
     java_.util.prefs.AllTests.class,
+    java_.util.zip.AllTests.class,
     javax.imageio.ImageIOTest.class,
     javax.print.AllTests.class,
     javax.swing.AllTests.class,
+    jni.GlobalRefTest.class,
     sun.awt.shell.AllTests.class,
     sun.font.AllTests.class,
     sun.misc.AllTests.class,
@@ -0,0 +1,193 @@
+/*
+  Copyright (C) 2026 agent
+
+  This software is provided 'as-is', without any express or implied
+  warranty.  In no event will the authors be held liable for any damages
+  arising from the use of this software.
+
+  Permission is granted to anyone to use this software for any purpose,
+  including commercial applications, and to alter it and redistribute it
+  freely, subject to the following restrictions:
+
+  1. The origin of this software must not be misrepresented; you must not
+     claim that you wrote the original software. If you use this software
+     in a product, an acknowledgment in the product documentation would be
+     appreciated but is not required.
+  2. Altered source versions must be plainly marked as such, and must not be
+     misrepresented as being the original software.
+  3. This notice may not be removed or altered from any source distribution.
+
+  Jeroen Frijters
+  jeroen@frijters.net
+  
+*/
+package ikvm.internal;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.ikvm.ReferenceData;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * ikvm.internal.WeakIdentityMap is internal to the runtime, so we get at it with reflection.
+ */
+public class WeakIdentityMapTest {
+
+	private Object map;
+	private Method put;
+	private Method get;
+	private Method remove;
+	private Method containsKey;
+
+	@Before
+	public void setUp() throws Exception {
+		assumeTrue(ReferenceData.isIkvm());
+		Class<?> clazz = Class.forName("ikvm.internal.WeakIdentityMap");
+		Constructor<?> constructor = clazz.getDeclaredConstructor();
+		constructor.setAccessible(true);
+		map = constructor.newInstance();
+		put = method(clazz, "put", Object.class, Object.class);
+		get = method(clazz, "get", Object.class);
+		remove = method(clazz, "remove", Object.class);
+		containsKey = method(clazz, "containsKey", Object.class);
+	}
+
+	private static Method method(Class<?> clazz, String name, Class<?>... parameterTypes) throws Exception {
+		Method method = clazz.getDeclaredMethod(name, parameterTypes);
+		method.setAccessible(true);
+		return method;
+	}
+
+	private void put(Object key, Object value) throws Exception {
+		put.invoke(map, key, value);
+	}
+
+	private Object get(Object key) throws Exception {
+		return get.invoke(map, key);
+	}
+
+	private Object remove(Object key) throws Exception {
+		return remove.invoke(map, key);
+	}
+
+	private boolean containsKey(Object key) throws Exception {
+		return (Boolean)containsKey.invoke(map, key);
+	}
+
+	/**
+	 * The total number of slots in all segments.
+	 */
+	private int capacity() throws Exception {
+		Field segmentsField = map.getClass().getDeclaredField("segments");
+		segmentsField.setAccessible(true);
+		Object[] segments = (Object[])segmentsField.get(map);
+		int capacity = 0;
+		for (Object segment : segments) {
+			Field keysField = segment.getClass().getDeclaredField("keys");
+			keysField.setAccessible(true);
+			capacity += ((Object[])keysField.get(segment)).length;
+		}
+		return capacity;
+	}
+
+	@Test
+	public void putGetRemove() throws Exception {
+		// enough keys to rehash every segment a few times
+		List<Object> keys = new ArrayList<Object>();
+		for (int i = 0; i < 1000; i++) {
+			Object key = new Object();
+			keys.add(key);
+			put(key, Integer.valueOf(i));
+		}
+		for (int i = 0; i < keys.size(); i++) {
+			assertEquals(Integer.valueOf(i), get(keys.get(i)));
+		}
+		for (int i = 0; i < keys.size(); i += 2) {
+			assertEquals(Integer.valueOf(i), remove(keys.get(i)));
+		}
+		for (int i = 0; i < keys.size(); i++) {
+			if (i % 2 == 0) {
+				assertFalse(containsKey(keys.get(i)));
+				assertNull(get(keys.get(i)));
+				assertNull(remove(keys.get(i)));
+			} else {
+				assertTrue(containsKey(keys.get(i)));
+				assertEquals(Integer.valueOf(i), get(keys.get(i)));
+			}
+		}
+		// put the removed keys back (reusing the removed slots) and overwrite the others
+		for (int i = 0; i < keys.size(); i++) {
+			put(keys.get(i), Integer.valueOf(-i));
+		}
+		for (int i = 0; i < keys.size(); i++) {
+			assertEquals(Integer.valueOf(-i), get(keys.get(i)));
+		}
+	}
+
+	@Test
+	public void nullValue() throws Exception {
+		Object key = new Object();
+		put(key, null);
+		assertTrue(containsKey(key));
+		assertNull(get(key));
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void nullKey() throws Throwable {
+		try {
+			put(null, "value");
+		} catch (java.lang.reflect.InvocationTargetException x) {
+			throw x.getCause();
+		}
+	}
+
+	@Test
+	public void identity() throws Exception {
+		String key1 = new String("key");
+		String key2 = new String("key");
+		put(key1, "value1");
+		assertFalse(containsKey(key2));
+		assertNull(get(key2));
+		put(key2, "value2");
+		assertEquals("value1", get(key1));
+		assertEquals("value2", get(key2));
+		assertEquals("value1", remove(key1));
+		assertNull(get(key1));
+		assertEquals("value2", get(key2));
+		assertNull(get(new String("key")));
+	}
+
+	private void putGarbage(int count) throws Exception {
+		for (int i = 0; i < count; i++) {
+			put(new Object(), Integer.valueOf(i));
+		}
+	}
+
+	@Test
+	public void collectedSlotsAreReused() throws Exception {
+		putGarbage(1000);
+		int capacity = capacity();
+		// if the slots of the collected keys weren't reused, ten more rounds would grow every segment
+		// to at least eight times its current size
+		for (int round = 0; round < 10; round++) {
+			System.gc();
+			System.runFinalization();
+			System.gc();
+			putGarbage(1000);
+		}
+		assertTrue("capacity grew from " + capacity + " to " + capacity(), capacity() <= capacity * 2);
+		Object key = new Object();
+		put(key, "live");
+		System.gc();
+		assertEquals("live", get(key));
+	}
+}
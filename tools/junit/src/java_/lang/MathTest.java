@@ -0,0 +1,108 @@
+/*
+  Copyright (C) 2026 agent
+
+  This software is provided 'as-is', without any express or implied
+  warranty.  In no event will the authors be held liable for any damages
+  arising from the use of this software.
+
+  Permission is granted to anyone to use this software for any purpose,
+  including commercial applications, and to alter it and redistribute it
+  freely, subject to the following restrictions:
+
+  1. The origin of this software must not be misrepresented; you must not
+     claim that you wrote the original software. If you use this software
+     in a product, an acknowledgment in the product documentation would be
+     appreciated but is not required.
+  2. Altered source versions must be plainly marked as such, and must not be
+     misrepresented as being the original software.
+  3. This notice may not be removed or altered from any source distribution.
+
+  Jeroen Frijters
+  jeroen@frijters.net
+  
+*/
+package java_.lang;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Math.sqrt, abs, min and max on int and long are compiled as intrinsics, these tests cover their edge cases.
+ */
+public class MathTest {
+
+	@Test
+	public void absInt() {
+		assertEquals(Integer.MIN_VALUE, Math.abs(Integer.MIN_VALUE));
+		assertEquals(Integer.MAX_VALUE, Math.abs(Integer.MIN_VALUE + 1));
+		assertEquals(Integer.MAX_VALUE, Math.abs(Integer.MAX_VALUE));
+		assertEquals(1, Math.abs(-1));
+		assertEquals(0, Math.abs(0));
+		assertEquals(42, Math.abs(42));
+	}
+
+	@Test
+	public void absLong() {
+		assertEquals(Long.MIN_VALUE, Math.abs(Long.MIN_VALUE));
+		assertEquals(Long.MAX_VALUE, Math.abs(Long.MIN_VALUE + 1));
+		assertEquals(Long.MAX_VALUE, Math.abs(Long.MAX_VALUE));
+		assertEquals(1L, Math.abs(-1L));
+		assertEquals(0L, Math.abs(0L));
+		// a value that doesn't fit in an int
+		assertEquals(0x100000000L, Math.abs(-0x100000000L));
+	}
+
+	@Test
+	public void absFloat() {
+		assertEquals(Float.floatToRawIntBits(0.0f), Float.floatToRawIntBits(Math.abs(-0.0f)));
+		assertEquals(Float.POSITIVE_INFINITY, Math.abs(Float.NEGATIVE_INFINITY), 0);
+		assertEquals(Float.MAX_VALUE, Math.abs(-Float.MAX_VALUE), 0);
+		assertEquals(Float.MIN_VALUE, Math.abs(-Float.MIN_VALUE), 0);
+		assertTrue(Float.isNaN(Math.abs(Float.NaN)));
+	}
+
+	@Test
+	public void absDouble() {
+		assertEquals(Double.doubleToRawLongBits(0.0), Double.doubleToRawLongBits(Math.abs(-0.0)));
+		assertEquals(Double.POSITIVE_INFINITY, Math.abs(Double.NEGATIVE_INFINITY), 0);
+		assertEquals(Double.MAX_VALUE, Math.abs(-Double.MAX_VALUE), 0);
+		assertEquals(Double.MIN_VALUE, Math.abs(-Double.MIN_VALUE), 0);
+		assertTrue(Double.isNaN(Math.abs(Double.NaN)));
+	}
+
+	@Test
+	public void minMaxInt() {
+		assertEquals(Integer.MIN_VALUE, Math.min(Integer.MIN_VALUE, Integer.MAX_VALUE));
+		assertEquals(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, Integer.MIN_VALUE));
+		assertEquals(Integer.MAX_VALUE, Math.max(Integer.MIN_VALUE, Integer.MAX_VALUE));
+		assertEquals(Integer.MAX_VALUE, Math.max(Integer.MAX_VALUE, Integer.MIN_VALUE));
+		assertEquals(Integer.MIN_VALUE, Math.min(Integer.MIN_VALUE, Integer.MIN_VALUE));
+		assertEquals(Integer.MAX_VALUE, Math.max(Integer.MAX_VALUE, Integer.MAX_VALUE));
+		assertEquals(-1, Math.min(-1, 0));
+		assertEquals(0, Math.max(-1, 0));
+	}
+
+	@Test
+	public void minMaxLong() {
+		assertEquals(Long.MIN_VALUE, Math.min(Long.MIN_VALUE, Long.MAX_VALUE));
+		assertEquals(Long.MIN_VALUE, Math.min(Long.MAX_VALUE, Long.MIN_VALUE));
+		assertEquals(Long.MAX_VALUE, Math.max(Long.MIN_VALUE, Long.MAX_VALUE));
+		assertEquals(Long.MAX_VALUE, Math.max(Long.MAX_VALUE, Long.MIN_VALUE));
+		assertEquals(Long.MIN_VALUE, Math.min(Long.MIN_VALUE, Long.MIN_VALUE));
+		assertEquals(Long.MAX_VALUE, Math.max(Long.MAX_VALUE, Long.MAX_VALUE));
+		// values that are equal in their low 32 bits
+		assertEquals(1L, Math.min(1L, 0x100000001L));
+		assertEquals(0x100000001L, Math.max(1L, 0x100000001L));
+	}
+
+	@Test
+	public void sqrt() {
+		assertEquals(3.0, Math.sqrt(9.0), 0);
+		assertEquals(3.0, StrictMath.sqrt(9.0), 0);
+		assertEquals(Math.sqrt(2.0), StrictMath.sqrt(2.0), 0);
+		assertEquals(Double.doubleToRawLongBits(-0.0), Double.doubleToRawLongBits(Math.sqrt(-0.0)));
+		assertTrue(Double.isNaN(Math.sqrt(-1.0)));
+		assertEquals(Double.POSITIVE_INFINITY, Math.sqrt(Double.POSITIVE_INFINITY), 0);
+	}
+}
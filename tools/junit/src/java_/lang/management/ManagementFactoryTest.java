@@ -0,0 +1,112 @@
+/*
+  Copyright (C) 2026 agent
+
+  This software is provided 'as-is', without any express or implied
+  warranty.  In no event will the authors be held liable for any damages
+  arising from the use of this software.
+
+  Permission is granted to anyone to use this software for any purpose,
+  including commercial applications, and to alter it and redistribute it
+  freely, subject to the following restrictions:
+
+  1. The origin of this software must not be misrepresented; you must not
+     claim that you wrote the original software. If you use this software
+     in a product, an acknowledgment in the product documentation would be
+     appreciated but is not required.
+  2. Altered source versions must be plainly marked as such, and must not be
+     misrepresented as being the original software.
+  3. This notice may not be removed or altered from any source distribution.
+
+  Jeroen Frijters
+  jeroen@frijters.net
+  
+*/
+package java_.lang.management;
+import java.lang.management.*;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ManagementFactoryTest {
+
+	@Test
+	public void memoryPools() {
+		List<MemoryPoolMXBean> pools = ManagementFactory.getMemoryPoolMXBeans();
+		assertFalse(pools.isEmpty());
+		boolean heap = false;
+		for (MemoryPoolMXBean pool : pools) {
+			assertNotNull(pool.getName());
+			assertTrue(pool.getName(), pool.getMemoryManagerNames().length > 0);
+			if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+				heap = true;
+				MemoryUsage usage = pool.getUsage();
+				assertTrue(pool.getName(), usage.getUsed() >= 0);
+				assertTrue(pool.getName(), usage.getUsed() <= usage.getCommitted());
+				MemoryUsage peak = pool.getPeakUsage();
+				assertTrue(pool.getName(), peak.getUsed() >= 0);
+			}
+		}
+		assertTrue(heap);
+	}
+
+	@Test
+	public void garbageCollectors() {
+		List<GarbageCollectorMXBean> beans = ManagementFactory.getGarbageCollectorMXBeans();
+		assertFalse(beans.isEmpty());
+		Set<String> names = new HashSet<String>();
+		long before = 0;
+		for (GarbageCollectorMXBean bean : beans) {
+			assertTrue(bean.getName(), names.add(bean.getName()));
+			assertTrue(bean.getName(), bean.getCollectionCount() >= 0);
+			before += bean.getCollectionCount();
+		}
+		System.gc();
+		long after = 0;
+		for (GarbageCollectorMXBean bean : beans) {
+			after += bean.getCollectionCount();
+		}
+		assertTrue(after > before);
+	}
+
+	@Test
+	public void dumpAllThreads() {
+		Thread thread = Thread.currentThread();
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		ThreadInfo[] infos = bean.dumpAllThreads(false, false);
+		ThreadInfo current = null;
+		for (ThreadInfo info : infos) {
+			assertNotNull(info);
+			if (info.getThreadId() == thread.getId()) {
+				current = info;
+			}
+		}
+		assertNotNull(current);
+		assertEquals(thread.getName(), current.getThreadName());
+		assertEquals(Thread.State.RUNNABLE, current.getThreadState());
+		assertTrue(current.getStackTrace().length > 0);
+	}
+
+	@Test
+	public void currentThreadAllocatedBytes() {
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+			return;
+		}
+		com.sun.management.ThreadMXBean ext = (com.sun.management.ThreadMXBean)bean;
+		if (!ext.isThreadAllocatedMemorySupported() || !ext.isThreadAllocatedMemoryEnabled()) {
+			return;
+		}
+		long id = Thread.currentThread().getId();
+		long before = ext.getThreadAllocatedBytes(id);
+		assertTrue(before >= 0);
+		byte[][] garbage = new byte[64][];
+		for (int i = 0; i < garbage.length; i++) {
+			garbage[i] = new byte[1024];
+		}
+		assertTrue(ext.getThreadAllocatedBytes(id) >= before + garbage.length * 1024);
+	}
+}
@@ -0,0 +1,120 @@
+/*
+  Copyright (C) 2026 agent
+
+  This software is provided 'as-is', without any express or implied
+  warranty.  In no event will the authors be held liable for any damages
+  arising from the use of this software.
+
+  Permission is granted to anyone to use this software for any purpose,
+  including commercial applications, and to alter it and redistribute it
+  freely, subject to the following restrictions:
+
+  1. The origin of this software must not be misrepresented; you must not
+     claim that you wrote the original software. If you use this software
+     in a product, an acknowledgment in the product documentation would be
+     appreciated but is not required.
+  2. Altered source versions must be plainly marked as such, and must not be
+     misrepresented as being the original software.
+  3. This notice may not be removed or altered from any source distribution.
+
+  Jeroen Frijters
+  jeroen@frijters.net
+  
+*/
+package java_.lang.ref;
+
+import java.lang.ref.*;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ReferenceQueueTest {
+
+	// the referents are created in separate methods, to make sure that no local variable keeps them alive
+	private static WeakReference<Object> newWeakReference(ReferenceQueue<Object> queue) {
+		return new WeakReference<Object>(new Object(), queue);
+	}
+
+	private static PhantomReference<Object> newPhantomReference(ReferenceQueue<Object> queue) {
+		return new PhantomReference<Object>(new Object(), queue);
+	}
+
+	// references are enqueued asynchronously after a collection (e.g. by the finalizer thread on IKVM),
+	// so a poll right after System.gc() may still return null and we have to wait for the delivery
+	private static Reference<?> collectAndRemove(ReferenceQueue<Object> queue) throws InterruptedException {
+		for (int i = 0; i < 50; i++) {
+			System.gc();
+			Reference<?> ref = queue.remove(100);
+			if (ref != null) {
+				return ref;
+			}
+		}
+		return null;
+	}
+
+	@Test
+	public void weakReferenceIsEnqueuedAfterCollection() throws Exception {
+		ReferenceQueue<Object> queue = new ReferenceQueue<Object>();
+		WeakReference<Object> ref = newWeakReference(queue);
+		assertSame(ref, collectAndRemove(queue));
+		assertNull(ref.get());
+		assertFalse(ref.isEnqueued());
+		assertNull(queue.poll());
+	}
+
+	@Test
+	public void weakReferenceIsNotEnqueuedWhileReachable() throws Exception {
+		ReferenceQueue<Object> queue = new ReferenceQueue<Object>();
+		Object referent = new Object();
+		WeakReference<Object> ref = new WeakReference<Object>(referent, queue);
+		System.gc();
+		assertNull(queue.remove(100));
+		assertSame(referent, ref.get());
+	}
+
+	@Test
+	public void phantomReferenceIsEnqueuedAfterCollection() throws Exception {
+		ReferenceQueue<Object> queue = new ReferenceQueue<Object>();
+		PhantomReference<Object> ref = newPhantomReference(queue);
+		assertSame(ref, collectAndRemove(queue));
+	}
+
+	private static WeakReference<?>[] registerTwice(ReferenceQueue<Object> queue) {
+		Object referent = new Object();
+		return new WeakReference<?>[] { new WeakReference<Object>(referent, queue), new WeakReference<Object>(referent, queue) };
+	}
+
+	@Test
+	public void referencesToTheSameReferentAreAllEnqueued() throws Exception {
+		ReferenceQueue<Object> queue = new ReferenceQueue<Object>();
+		WeakReference<?>[] refs = registerTwice(queue);
+		Reference<?> first = collectAndRemove(queue);
+		Reference<?> second = queue.remove(5000);
+		assertNotNull(first);
+		assertNotNull(second);
+		assertTrue(first == refs[0] ? second == refs[1] : first == refs[1] && second == refs[0]);
+	}
+
+	@Test
+	public void explicitEnqueue() {
+		ReferenceQueue<Object> queue = new ReferenceQueue<Object>();
+		Object referent = new Object();
+		WeakReference<Object> ref = new WeakReference<Object>(referent, queue);
+		assertTrue(ref.enqueue());
+		assertTrue(ref.isEnqueued());
+		assertFalse(ref.enqueue());
+		assertSame(ref, queue.poll());
+		assertNull(queue.poll());
+		assertFalse(ref.enqueue());
+	}
+
+	@Test
+	public void clearedReferenceIsNotEnqueued() throws Exception {
+		ReferenceQueue<Object> queue = new ReferenceQueue<Object>();
+		WeakReference<Object> ref = newWeakReference(queue);
+		ref.clear();
+		System.gc();
+		assertNull(queue.remove(500));
+	}
+}
@@ -0,0 +1,172 @@
+/*
+  Copyright (C) 2026 agent
+
+  This software is provided 'as-is', without any express or implied
+  warranty.  In no event will the authors be held liable for any damages
+  arising from the use of this software.
+
+  Permission is granted to anyone to use this software for any purpose,
+  including commercial applications, and to alter it and redistribute it
+  freely, subject to the following restrictions:
+
+  1. The origin of this software must not be misrepresented; you must not
+     claim that you wrote the original software. If you use this software
+     in a product, an acknowledgment in the product documentation would be
+     appreciated but is not required.
+  2. Altered source versions must be plainly marked as such, and must not be
+     misrepresented as being the original software.
+  3. This notice may not be removed or altered from any source distribution.
+
+  Jeroen Frijters
+  jeroen@frijters.net
+  
+*/
+package java_.util;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Arrays.fill on primitive arrays is compiled as an intrinsic that fills a prefix of 16 elements
+ * and then copies it, so we test empty arrays, arrays up to and around the prefix length, longer arrays
+ * and null.
+ */
+public class ArraysTest {
+
+	private static final int[] LENGTHS = { 0, 1, 15, 16, 17, 31, 32, 33, 1000, 4099 };
+
+	@Test
+	public void fillBoolean() {
+		for (int length : LENGTHS) {
+			boolean[] a = new boolean[length];
+			Arrays.fill(a, true);
+			for (int i = 0; i < length; i++) {
+				assertTrue(a[i]);
+			}
+			Arrays.fill(a, false);
+			for (int i = 0; i < length; i++) {
+				assertFalse(a[i]);
+			}
+		}
+	}
+
+	@Test
+	public void fillByte() {
+		for (int length : LENGTHS) {
+			byte[] a = new byte[length];
+			Arrays.fill(a, (byte)-1);
+			for (int i = 0; i < length; i++) {
+				assertEquals((byte)-1, a[i]);
+			}
+		}
+	}
+
+	@Test
+	public void fillChar() {
+		for (int length : LENGTHS) {
+			char[] a = new char[length];
+			Arrays.fill(a, '\uFFFF');
+			for (int i = 0; i < length; i++) {
+				assertEquals('\uFFFF', a[i]);
+			}
+		}
+	}
+
+	@Test
+	public void fillShort() {
+		for (int length : LENGTHS) {
+			short[] a = new short[length];
+			Arrays.fill(a, Short.MIN_VALUE);
+			for (int i = 0; i < length; i++) {
+				assertEquals(Short.MIN_VALUE, a[i]);
+			}
+		}
+	}
+
+	@Test
+	public void fillInt() {
+		for (int length : LENGTHS) {
+			int[] a = new int[length];
+			Arrays.fill(a, Integer.MIN_VALUE);
+			for (int i = 0; i < length; i++) {
+				assertEquals(Integer.MIN_VALUE, a[i]);
+			}
+		}
+	}
+
+	@Test
+	public void fillLong() {
+		for (int length : LENGTHS) {
+			long[] a = new long[length];
+			Arrays.fill(a, 0x123456789ABCDEFL);
+			for (int i = 0; i < length; i++) {
+				assertEquals(0x123456789ABCDEFL, a[i]);
+			}
+		}
+	}
+
+	@Test
+	public void fillFloat() {
+		for (int length : LENGTHS) {
+			float[] a = new float[length];
+			Arrays.fill(a, -0.0f);
+			for (int i = 0; i < length; i++) {
+				assertEquals(Float.floatToRawIntBits(-0.0f), Float.floatToRawIntBits(a[i]));
+			}
+		}
+	}
+
+	@Test
+	public void fillDouble() {
+		for (int length : LENGTHS) {
+			double[] a = new double[length];
+			Arrays.fill(a, Double.NaN);
+			for (int i = 0; i < length; i++) {
+				assertTrue(Double.isNaN(a[i]));
+			}
+		}
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void fillNullBoolean() {
+		Arrays.fill((boolean[])null, true);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void fillNullByte() {
+		Arrays.fill((byte[])null, (byte)1);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void fillNullChar() {
+		Arrays.fill((char[])null, 'a');
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void fillNullShort() {
+		Arrays.fill((short[])null, (short)1);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void fillNullInt() {
+		Arrays.fill((int[])null, 1);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void fillNullLong() {
+		Arrays.fill((long[])null, 1L);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void fillNullFloat() {
+		Arrays.fill((float[])null, 1.0f);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void fillNullDouble() {
+		Arrays.fill((double[])null, 1.0);
+	}
+}
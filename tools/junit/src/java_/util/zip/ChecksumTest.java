@@ -0,0 +1,149 @@
+/*
+  Copyright (C) 2026 agent
+
+  This software is provided 'as-is', without any express or implied
+  warranty.  In no event will the authors be held liable for any damages
+  arising from the use of this software.
+
+  Permission is granted to anyone to use this software for any purpose,
+  including commercial applications, and to alter it and redistribute it
+  freely, subject to the following restrictions:
+
+  1. The origin of this software must not be misrepresented; you must not
+     claim that you wrote the original software. If you use this software
+     in a product, an acknowledgment in the product documentation would be
+     appreciated but is not required.
+  2. Altered source versions must be plainly marked as such, and must not be
+     misrepresented as being the original software.
+  3. This notice may not be removed or altered from any source distribution.
+
+  Jeroen Frijters
+  jeroen@frijters.net
+  
+*/
+package java_.util.zip;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.zip.*;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ChecksumTest {
+
+	private static long referenceCrc32(byte[] b, int off, int len) {
+		int crc = 0xFFFFFFFF;
+		for (int i = off; i < off + len; i++) {
+			crc ^= b[i] & 0xFF;
+			for (int k = 0; k < 8; k++) {
+				crc = (crc >>> 1) ^ (0xEDB88320 & -(crc & 1));
+			}
+		}
+		return ~crc & 0xFFFFFFFFL;
+	}
+
+	private static long referenceAdler32(byte[] b, int off, int len) {
+		long a = 1, s = 0;
+		for (int i = off; i < off + len; i++) {
+			a = (a + (b[i] & 0xFF)) % 65521;
+			s = (s + a) % 65521;
+		}
+		return (s << 16) | a;
+	}
+
+	private static byte[] randomBytes(int len) {
+		byte[] b = new byte[len];
+		new Random(len).nextBytes(b);
+		return b;
+	}
+
+	// lengths around the 8 byte blocks of the slicing-by-8 CRC and the unrolled Adler32 loop,
+	// and around the 3800 byte chunks after which Adler32 reduces its sums
+	private static final int[] LENGTHS = { 0, 1, 7, 8, 9, 15, 16, 17, 63, 64, 65, 1000, 3799, 3800, 3801, 7601, 100000 };
+
+	@Test
+	public void crc32KnownValue() {
+		CRC32 crc = new CRC32();
+		crc.update("123456789".getBytes());
+		assertEquals(0xCBF43926L, crc.getValue());
+	}
+
+	@Test
+	public void adler32KnownValue() {
+		Adler32 adler = new Adler32();
+		adler.update("Wikipedia".getBytes());
+		assertEquals(0x11E60398L, adler.getValue());
+	}
+
+	@Test
+	public void crc32Arrays() {
+		for (int len : LENGTHS) {
+			byte[] b = randomBytes(len + 3);
+			CRC32 crc = new CRC32();
+			crc.update(b, 3, len);
+			assertEquals("length " + len, referenceCrc32(b, 3, len), crc.getValue());
+		}
+	}
+
+	@Test
+	public void adler32Arrays() {
+		for (int len : LENGTHS) {
+			byte[] b = randomBytes(len + 3);
+			Adler32 adler = new Adler32();
+			adler.update(b, 3, len);
+			assertEquals("length " + len, referenceAdler32(b, 3, len), adler.getValue());
+		}
+	}
+
+	@Test
+	public void incrementalUpdates() {
+		byte[] b = randomBytes(10000);
+		CRC32 crc = new CRC32();
+		Adler32 adler = new Adler32();
+		int off = 0;
+		for (int chunk = 1; off < b.length; chunk = chunk * 3 + 1) {
+			int len = Math.min(chunk, b.length - off);
+			crc.update(b, off, len);
+			adler.update(b, off, len);
+			off += len;
+		}
+		assertEquals(referenceCrc32(b, 0, b.length), crc.getValue());
+		assertEquals(referenceAdler32(b, 0, b.length), adler.getValue());
+		crc.update(b[0]);
+		adler.update(b[0]);
+		byte[] c = new byte[b.length + 1];
+		System.arraycopy(b, 0, c, 0, b.length);
+		c[b.length] = b[0];
+		assertEquals(referenceCrc32(c, 0, c.length), crc.getValue());
+		assertEquals(referenceAdler32(c, 0, c.length), adler.getValue());
+	}
+
+	@Test
+	public void byteBuffers() {
+		for (int len : LENGTHS) {
+			byte[] b = randomBytes(len);
+			ByteBuffer heap = ByteBuffer.wrap(b);
+			ByteBuffer direct = ByteBuffer.allocateDirect(len);
+			direct.put(b).flip();
+			CRC32 crc = new CRC32();
+			crc.update(heap);
+			assertEquals("length " + len, referenceCrc32(b, 0, len), crc.getValue());
+			assertFalse(heap.hasRemaining());
+			crc.reset();
+			crc.update(direct);
+			assertEquals("length " + len, referenceCrc32(b, 0, len), crc.getValue());
+			assertFalse(direct.hasRemaining());
+
+			heap.rewind();
+			direct.rewind();
+			Adler32 adler = new Adler32();
+			adler.update(heap);
+			assertEquals("length " + len, referenceAdler32(b, 0, len), adler.getValue());
+			adler.reset();
+			adler.update(direct);
+			assertEquals("length " + len, referenceAdler32(b, 0, len), adler.getValue());
+		}
+	}
+}
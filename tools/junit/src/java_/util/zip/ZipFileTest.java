@@ -0,0 +1,177 @@
+/*
+  Copyright (C) 2026 agent
+
+  This software is provided 'as-is', without any express or implied
+  warranty.  In no event will the authors be held liable for any damages
+  arising from the use of this software.
+
+  Permission is granted to anyone to use this software for any purpose,
+  including commercial applications, and to alter it and redistribute it
+  freely, subject to the following restrictions:
+
+  1. The origin of this software must not be misrepresented; you must not
+     claim that you wrote the original software. If you use this software
+     in a product, an acknowledgment in the product documentation would be
+     appreciated but is not required.
+  2. Altered source versions must be plainly marked as such, and must not be
+     misrepresented as being the original software.
+  3. This notice may not be removed or altered from any source distribution.
+
+  Jeroen Frijters
+  jeroen@frijters.net
+  
+*/
+package java_.util.zip;
+
+import java.io.*;
+import java.util.Enumeration;
+import java.util.zip.*;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.*;
+
+public class ZipFileTest {
+
+	private static File writeZip(String[] names, String[] contents) throws IOException {
+		File file = File.createTempFile("ZipFileTest", ".zip");
+		file.deleteOnExit();
+		ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(file));
+		for (int i = 0; i < names.length; i++) {
+			zos.putNextEntry(new ZipEntry(names[i]));
+			if (contents[i] != null) {
+				zos.write(contents[i].getBytes("UTF-8"));
+			}
+			zos.closeEntry();
+		}
+		zos.close();
+		return file;
+	}
+
+	private static String read(ZipFile zf, ZipEntry entry) throws IOException {
+		return new String(readAll(zf.getInputStream(entry)), "UTF-8");
+	}
+
+	private static byte[] readAll(InputStream in) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buf = new byte[4096];
+		int len;
+		while ((len = in.read(buf)) != -1) {
+			out.write(buf, 0, len);
+		}
+		in.close();
+		return out.toByteArray();
+	}
+
+	/**
+	 * On IKVM the files below java.home live in the virtual file system,
+	 * they are not backed by an operating system file handle.
+	 */
+	@Test
+	public void readJavaHomeJar() throws Exception {
+		File file = new File(System.getProperty("java.home"), "lib" + File.separator + "security" + File.separator + "US_export_policy.jar");
+		// newer reference VMs no longer ship the policy jars
+		assumeTrue(file.exists());
+		ZipFile zf = new ZipFile(file);
+		try {
+			assertNotNull(zf.getEntry("META-INF/MANIFEST.MF"));
+			int count = 0;
+			Enumeration<? extends ZipEntry> e = zf.entries();
+			while (e.hasMoreElements()) {
+				ZipEntry entry = e.nextElement();
+				byte[] data = readAll(zf.getInputStream(entry));
+				if (!entry.isDirectory()) {
+					assertEquals(entry.getName(), entry.getSize(), data.length);
+					CRC32 crc = new CRC32();
+					crc.update(data);
+					assertEquals(entry.getName(), entry.getCrc(), crc.getValue());
+				}
+				count++;
+			}
+			assertEquals(zf.size(), count);
+		} finally {
+			zf.close();
+		}
+	}
+
+	@Test
+	public void lookupManyEntries() throws Exception {
+		int count = 1000;
+		String[] names = new String[count + 2];
+		String[] contents = new String[count + 2];
+		for (int i = 0; i < count; i++) {
+			names[i] = "dir" + (i % 10) + "/entry" + i + ".txt";
+			contents[i] = "content " + i;
+		}
+		names[count] = "empty/";
+		names[count + 1] = "\u00e4\u00f6\u00fc.txt";
+		contents[count + 1] = "umlauts";
+		ZipFile zf = new ZipFile(writeZip(names, contents));
+		try {
+			assertEquals(names.length, zf.size());
+			for (int i = 0; i < count; i++) {
+				ZipEntry entry = zf.getEntry(names[i]);
+				assertNotNull(names[i], entry);
+				assertEquals(names[i], entry.getName());
+				assertEquals(contents[i], read(zf, entry));
+			}
+			// a directory is also found without the trailing slash
+			ZipEntry dir = zf.getEntry("empty");
+			assertNotNull(dir);
+			assertEquals("empty/", dir.getName());
+			assertTrue(dir.isDirectory());
+			assertEquals("umlauts", read(zf, zf.getEntry(names[count + 1])));
+			assertNull(zf.getEntry("dir0/entry1.txt"));
+			assertNull(zf.getEntry("entry0.txt"));
+			// entries() returns the entries in central directory order
+			Enumeration<? extends ZipEntry> e = zf.entries();
+			for (int i = 0; i < names.length; i++) {
+				assertEquals(names[i], e.nextElement().getName());
+			}
+			assertFalse(e.hasMoreElements());
+		} finally {
+			zf.close();
+		}
+	}
+
+	@Test
+	public void duplicateEntries() throws Exception {
+		File file = writeZip(new String[] { "a.txt", "b.txt", "c.txt" }, new String[] { "first", "second", "third" });
+		// rename b.txt to a.txt in both the local and the central directory headers,
+		// ZipOutputStream doesn't let us write a duplicate entry
+		byte[] data = readAll(new FileInputStream(file));
+		byte[] from = "b.txt".getBytes("US-ASCII");
+		byte[] to = "a.txt".getBytes("US-ASCII");
+		int replaced = 0;
+		for (int i = 0; i <= data.length - from.length; i++) {
+			boolean match = true;
+			for (int j = 0; j < from.length && match; j++) {
+				match = data[i + j] == from[j];
+			}
+			if (match) {
+				System.arraycopy(to, 0, data, i, to.length);
+				replaced++;
+			}
+		}
+		assertEquals(2, replaced);
+		FileOutputStream out = new FileOutputStream(file);
+		out.write(data);
+		out.close();
+
+		ZipFile zf = new ZipFile(file);
+		try {
+			assertEquals(3, zf.size());
+			// like the JDK, the last entry with a given name wins
+			assertEquals("second", read(zf, zf.getEntry("a.txt")));
+			assertEquals("third", read(zf, zf.getEntry("c.txt")));
+			Enumeration<? extends ZipEntry> e = zf.entries();
+			assertEquals("a.txt", e.nextElement().getName());
+			assertEquals("a.txt", e.nextElement().getName());
+			assertEquals("c.txt", e.nextElement().getName());
+			assertFalse(e.hasMoreElements());
+		} finally {
+			zf.close();
+		}
+	}
+}
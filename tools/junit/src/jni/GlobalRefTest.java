@@ -0,0 +1,126 @@
+/*
+  Copyright (C) 2026 agent
+
+  This software is provided 'as-is', without any express or implied
+  warranty.  In no event will the authors be held liable for any damages
+  arising from the use of this software.
+
+  Permission is granted to anyone to use this software for any purpose,
+  including commercial applications, and to alter it and redistribute it
+  freely, subject to the following restrictions:
+
+  1. The origin of this software must not be misrepresented; you must not
+     claim that you wrote the original software. If you use this software
+     in a product, an acknowledgment in the product documentation would be
+     appreciated but is not required.
+  2. Altered source versions must be plainly marked as such, and must not be
+     misrepresented as being the original software.
+  3. This notice may not be removed or altered from any source distribution.
+
+  Jeroen Frijters
+  jeroen@frijters.net
+  
+*/
+package jni;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.ikvm.ReferenceData;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Tests of the JNI global and weak global reference tables. The native part is in jnitest.c and must be
+ * built into a library named jnitest on the java.library.path, for example with<br>
+ *      gcc -shared -fPIC -I$JAVA_HOME/include -I$JAVA_HOME/include/linux -o libjnitest.so jnitest.c<br>
+ *      cl /LD /I%JAVA_HOME%\include /I%JAVA_HOME%\include\win32 jnitest.c<br>
+ * If the library can't be loaded the tests are skipped.
+ */
+public class GlobalRefTest {
+
+	private static final boolean loaded;
+
+	static {
+		boolean b;
+		try {
+			System.loadLibrary("jnitest");
+			b = true;
+		} catch (UnsatisfiedLinkError x) {
+			b = false;
+		}
+		loaded = b;
+	}
+
+	/**
+	 * Deletes a new global ref twice, then creates global refs for a and b.
+	 * @return true if the two new refs are distinct and refer to a and b
+	 */
+	private static native boolean deleteTwiceThenNew(Object a, Object b);
+
+	/**
+	 * Same as deleteTwiceThenNew, but with weak global refs.
+	 */
+	private static native boolean deleteWeakTwiceThenNew(Object a, Object b);
+
+	/**
+	 * Creates a global ref for every element of objs, checks that each ref refers to its object and deletes them again.
+	 * @return the number of refs that didn't refer to their object
+	 */
+	private static native int churn(Object[] objs, int iterations);
+
+	@Test
+	public void newAndDelete() {
+		assumeTrue(loaded);
+		assertEquals(0, churn(newObjects(100), 1));
+	}
+
+	@Test
+	public void deleteTwiceThenNewTwice() {
+		assumeTrue(loaded);
+		// deleting a global ref twice is an error in the native code and undefined in the JNI specification,
+		// but IKVM must not hand out the same slot twice afterwards
+		assumeTrue(ReferenceData.isIkvm());
+		for (int i = 0; i < 10000; i++) {
+			assertTrue(deleteTwiceThenNew(new Object(), new Object()));
+		}
+	}
+
+	@Test
+	public void deleteWeakTwiceThenNewTwice() {
+		assumeTrue(loaded);
+		assumeTrue(ReferenceData.isIkvm());
+		for (int i = 0; i < 10000; i++) {
+			assertTrue(deleteWeakTwiceThenNew(new Object(), new Object()));
+		}
+	}
+
+	@Test
+	public void concurrentChurn() throws Exception {
+		assumeTrue(loaded);
+		final AtomicInteger errors = new AtomicInteger();
+		Thread[] threads = new Thread[8];
+		for (int i = 0; i < threads.length; i++) {
+			threads[i] = new Thread() {
+				public void run() {
+					errors.addAndGet(churn(newObjects(50), 2000));
+				}
+			};
+			threads[i].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertEquals(0, errors.get());
+	}
+
+	private static Object[] newObjects(int count) {
+		Object[] objs = new Object[count];
+		for (int i = 0; i < objs.length; i++) {
+			objs[i] = new Object();
+		}
+		return objs;
+	}
+}
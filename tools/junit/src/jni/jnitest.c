@@ -0,0 +1,91 @@
+/*
+  Copyright (C) 2026 agent
+
+  This software is provided 'as-is', without any express or implied
+  warranty.  In no event will the authors be held liable for any damages
+  arising from the use of this software.
+
+  Permission is granted to anyone to use this software for any purpose,
+  including commercial applications, and to alter it and redistribute it
+  freely, subject to the following restrictions:
+
+  1. The origin of this software must not be misrepresented; you must not
+     claim that you wrote the original software. If you use this software
+     in a product, an acknowledgment in the product documentation would be
+     appreciated but is not required.
+  2. Altered source versions must be plainly marked as such, and must not be
+     misrepresented as being the original software.
+  3. This notice may not be removed or altered from any source distribution.
+
+  Jeroen Frijters
+  jeroen@frijters.net
+  
+*/
+#include <stdlib.h>
+#include <jni.h>
+
+JNIEXPORT jboolean JNICALL Java_jni_GlobalRefTest_deleteTwiceThenNew(JNIEnv* env, jclass cls, jobject a, jobject b)
+{
+	jobject g = (*env)->NewGlobalRef(env, a);
+	jobject g1;
+	jobject g2;
+	jboolean ok;
+	(*env)->DeleteGlobalRef(env, g);
+	(*env)->DeleteGlobalRef(env, g);
+	g1 = (*env)->NewGlobalRef(env, a);
+	g2 = (*env)->NewGlobalRef(env, b);
+	ok = g1 != g2
+		&& (*env)->IsSameObject(env, g1, a)
+		&& (*env)->IsSameObject(env, g2, b);
+	(*env)->DeleteGlobalRef(env, g1);
+	(*env)->DeleteGlobalRef(env, g2);
+	return ok;
+}
+
+JNIEXPORT jboolean JNICALL Java_jni_GlobalRefTest_deleteWeakTwiceThenNew(JNIEnv* env, jclass cls, jobject a, jobject b)
+{
+	jweak g = (*env)->NewWeakGlobalRef(env, a);
+	jweak g1;
+	jweak g2;
+	jboolean ok;
+	(*env)->DeleteWeakGlobalRef(env, g);
+	(*env)->DeleteWeakGlobalRef(env, g);
+	g1 = (*env)->NewWeakGlobalRef(env, a);
+	g2 = (*env)->NewWeakGlobalRef(env, b);
+	ok = g1 != g2
+		&& (*env)->IsSameObject(env, g1, a)
+		&& (*env)->IsSameObject(env, g2, b);
+	(*env)->DeleteWeakGlobalRef(env, g1);
+	(*env)->DeleteWeakGlobalRef(env, g2);
+	return ok;
+}
+
+JNIEXPORT jint JNICALL Java_jni_GlobalRefTest_churn(JNIEnv* env, jclass cls, jobjectArray objs, jint iterations)
+{
+	jsize count = (*env)->GetArrayLength(env, objs);
+	jobject* refs = (jobject*)malloc(count * sizeof(jobject));
+	jint errors = 0;
+	jint i;
+	jsize j;
+	for (i = 0; i < iterations; i++)
+	{
+		for (j = 0; j < count; j++)
+		{
+			jobject obj = (*env)->GetObjectArrayElement(env, objs, j);
+			refs[j] = (*env)->NewGlobalRef(env, obj);
+			(*env)->DeleteLocalRef(env, obj);
+		}
+		for (j = 0; j < count; j++)
+		{
+			jobject obj = (*env)->GetObjectArrayElement(env, objs, j);
+			if (!(*env)->IsSameObject(env, refs[j], obj))
+			{
+				errors++;
+			}
+			(*env)->DeleteLocalRef(env, obj);
+			(*env)->DeleteGlobalRef(env, refs[j]);
+		}
+	}
+	free(refs);
+	return errors;
+}
@@ -30,6 +30,7 @@ import org.junit.runners.Suite;
 @RunWith(Suite.class)
 @Suite.SuiteClasses({
     SignalTest.class,
+    UnsafeTest.class,
 })
 public class AllTests{
     //Nothing
@@ -0,0 +1,186 @@
+/*
+  Copyright (C) 2026 agent
+
+  This software is provided 'as-is', without any express or implied
+  warranty.  In no event will the authors be held liable for any damages
+  arising from the use of this software.
+
+  Permission is granted to anyone to use this software for any purpose,
+  including commercial applications, and to alter it and redistribute it
+  freely, subject to the following restrictions:
+
+  1. The origin of this software must not be misrepresented; you must not
+     claim that you wrote the original software. If you use this software
+     in a product, an acknowledgment in the product documentation would be
+     appreciated but is not required.
+  2. Altered source versions must be plainly marked as such, and must not be
+     misrepresented as being the original software.
+  3. This notice may not be removed or altered from any source distribution.
+
+  Jeroen Frijters
+  jeroen@frijters.net
+  
+*/
+package sun.misc;
+
+import java.lang.reflect.Field;
+
+import junit.ikvm.ReferenceData;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+public class UnsafeTest {
+
+	private static final Unsafe unsafe = getUnsafe();
+
+	private static Unsafe getUnsafe() {
+		try {
+			Field field = Unsafe.class.getDeclaredField("theUnsafe");
+			field.setAccessible(true);
+			return (Unsafe)field.get(null);
+		} catch (Exception x) {
+			throw new Error(x);
+		}
+	}
+
+	static class Fields {
+		volatile int i;
+		volatile long l;
+		volatile Object o;
+		volatile boolean z;
+		volatile byte b;
+		volatile char c;
+		volatile short s;
+		volatile float f;
+		volatile double d;
+		static volatile int si;
+		static volatile long sl;
+		static volatile Object so;
+	}
+
+	private static long offset(String name) throws Exception {
+		return unsafe.objectFieldOffset(Fields.class.getDeclaredField(name));
+	}
+
+	private static long staticOffset(String name) throws Exception {
+		return unsafe.staticFieldOffset(Fields.class.getDeclaredField(name));
+	}
+
+	private static Object staticBase(String name) throws Exception {
+		return unsafe.staticFieldBase(Fields.class.getDeclaredField(name));
+	}
+
+	@Test
+	public void instanceFields() throws Exception {
+		Fields obj = new Fields();
+		// do everything twice, the first access creates the accessor and the second one uses the cached accessor
+		for (int n = 0; n < 2; n++) {
+			Object value = new Object();
+			unsafe.putIntVolatile(obj, offset("i"), 42 + n);
+			unsafe.putLongVolatile(obj, offset("l"), Long.MIN_VALUE + n);
+			unsafe.putObjectVolatile(obj, offset("o"), value);
+			unsafe.putBooleanVolatile(obj, offset("z"), n == 0);
+			unsafe.putByteVolatile(obj, offset("b"), (byte)(-1 - n));
+			unsafe.putCharVolatile(obj, offset("c"), (char)(0xFFFF - n));
+			unsafe.putShortVolatile(obj, offset("s"), (short)(-2 - n));
+			unsafe.putFloatVolatile(obj, offset("f"), 1.5f + n);
+			unsafe.putDoubleVolatile(obj, offset("d"), -2.5 - n);
+
+			assertEquals(42 + n, obj.i);
+			assertEquals(Long.MIN_VALUE + n, obj.l);
+			assertSame(value, obj.o);
+			assertEquals(n == 0, obj.z);
+			assertEquals((byte)(-1 - n), obj.b);
+			assertEquals((char)(0xFFFF - n), obj.c);
+			assertEquals((short)(-2 - n), obj.s);
+			assertEquals(1.5f + n, obj.f, 0);
+			assertEquals(-2.5 - n, obj.d, 0);
+
+			assertEquals(42 + n, unsafe.getIntVolatile(obj, offset("i")));
+			assertEquals(Long.MIN_VALUE + n, unsafe.getLongVolatile(obj, offset("l")));
+			assertSame(value, unsafe.getObjectVolatile(obj, offset("o")));
+			assertEquals(n == 0, unsafe.getBooleanVolatile(obj, offset("z")));
+			assertEquals((byte)(-1 - n), unsafe.getByteVolatile(obj, offset("b")));
+			assertEquals((char)(0xFFFF - n), unsafe.getCharVolatile(obj, offset("c")));
+			assertEquals((short)(-2 - n), unsafe.getShortVolatile(obj, offset("s")));
+			assertEquals(1.5f + n, unsafe.getFloatVolatile(obj, offset("f")), 0);
+			assertEquals(-2.5 - n, unsafe.getDoubleVolatile(obj, offset("d")), 0);
+		}
+	}
+
+	@Test
+	public void staticFields() throws Exception {
+		Object value = new Object();
+		unsafe.putIntVolatile(staticBase("si"), staticOffset("si"), -7);
+		unsafe.putLongVolatile(staticBase("sl"), staticOffset("sl"), Long.MAX_VALUE);
+		unsafe.putObjectVolatile(staticBase("so"), staticOffset("so"), value);
+		assertEquals(-7, Fields.si);
+		assertEquals(Long.MAX_VALUE, Fields.sl);
+		assertSame(value, Fields.so);
+		assertEquals(-7, unsafe.getIntVolatile(staticBase("si"), staticOffset("si")));
+		assertEquals(Long.MAX_VALUE, unsafe.getLongVolatile(staticBase("sl"), staticOffset("sl")));
+		assertSame(value, unsafe.getObjectVolatile(staticBase("so"), staticOffset("so")));
+	}
+
+	@Test
+	public void intArray() {
+		int[] array = new int[5];
+		long base = unsafe.arrayBaseOffset(int[].class);
+		long scale = unsafe.arrayIndexScale(int[].class);
+		for (int i = 0; i < array.length; i++) {
+			unsafe.putIntVolatile(array, base + i * scale, i * 1000 - 1);
+		}
+		for (int i = 0; i < array.length; i++) {
+			assertEquals(i * 1000 - 1, array[i]);
+			assertEquals(i * 1000 - 1, unsafe.getIntVolatile(array, base + i * scale));
+		}
+	}
+
+	@Test
+	public void longArray() {
+		long[] array = new long[5];
+		long base = unsafe.arrayBaseOffset(long[].class);
+		long scale = unsafe.arrayIndexScale(long[].class);
+		for (int i = 0; i < array.length; i++) {
+			unsafe.putLongVolatile(array, base + i * scale, Long.MIN_VALUE + i);
+		}
+		for (int i = 0; i < array.length; i++) {
+			assertEquals(Long.MIN_VALUE + i, array[i]);
+			assertEquals(Long.MIN_VALUE + i, unsafe.getLongVolatile(array, base + i * scale));
+		}
+	}
+
+	@Test
+	public void objectArray() {
+		Object[] array = new Object[5];
+		Object[] values = new Object[array.length];
+		long base = unsafe.arrayBaseOffset(Object[].class);
+		long scale = unsafe.arrayIndexScale(Object[].class);
+		for (int i = 0; i < array.length; i++) {
+			values[i] = "value" + i;
+			unsafe.putObjectVolatile(array, base + i * scale, values[i]);
+		}
+		for (int i = 0; i < array.length; i++) {
+			assertSame(values[i], array[i]);
+			assertSame(values[i], unsafe.getObjectVolatile(array, base + i * scale));
+		}
+	}
+
+	@Test
+	public void typeMismatch() throws Exception {
+		// on HotSpot these read or write raw memory of the wrong size, on IKVM they go through
+		// reflection (with widening), instead of through the generated accessor
+		assumeTrue(ReferenceData.isIkvm());
+		Fields obj = new Fields();
+		for (int n = 0; n < 2; n++) {
+			obj.i = 1234 + n;
+			assertEquals(1234L + n, unsafe.getLongVolatile(obj, offset("i")));
+			unsafe.putShortVolatile(obj, offset("i"), (short)(-5 - n));
+			assertEquals(-5 - n, obj.i);
+			assertEquals(-5 - n, unsafe.getIntVolatile(obj, offset("i")));
+		}
+	}
+}